@@ -0,0 +1,108 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.api.view;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.ReferenceQueue;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.commons.io.IOUtils;
+
+import com.synopsys.integration.blackduck.api.core.HubResponse;
+
+/**
+ * Holds the deflated json of views decoded with JsonRetention.COMPRESS. Entries are keyed by the identity of the view and are released when the view is garbage collected, so the store never outlives the views it describes.
+ */
+public class HubResponseJsonStore {
+    private static final Map<WeakIdentityKey<HubResponse>, byte[]> COMPRESSED_JSON = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<HubResponse> COLLECTED_VIEWS = new ReferenceQueue<>();
+
+    public static void storeCompressed(final HubResponse hubResponse, final String json) {
+        WeakIdentityKey.expungeCollected(COMPRESSED_JSON, COLLECTED_VIEWS);
+        if (json == null) {
+            return;
+        }
+        COMPRESSED_JSON.put(new WeakIdentityKey<>(hubResponse, COLLECTED_VIEWS), deflate(json));
+    }
+
+    /**
+     * @return the json field of the view if it is set, otherwise the inflated json if it was stored compressed.
+     */
+    public static Optional<String> getJson(final HubResponse hubResponse) {
+        if (hubResponse == null) {
+            return Optional.empty();
+        }
+        if (hubResponse.json != null) {
+            return Optional.of(hubResponse.json);
+        }
+        final byte[] compressedJson = WeakIdentityKey.get(COMPRESSED_JSON, hubResponse);
+        if (compressedJson == null) {
+            return Optional.empty();
+        }
+        return Optional.of(inflate(compressedJson));
+    }
+
+    /**
+     * @return the length in bytes of the deflated json, if the json of the view was stored compressed
+     */
+    public static Optional<Integer> getCompressedLength(final HubResponse hubResponse) {
+        if (hubResponse == null) {
+            return Optional.empty();
+        }
+        final byte[] compressedJson = WeakIdentityKey.get(COMPRESSED_JSON, hubResponse);
+        return Optional.ofNullable(compressedJson).map(bytes -> bytes.length);
+    }
+
+    private static byte[] deflate(final String json) {
+        final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(json.length() / 4);
+        final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DeflaterOutputStream deflaterOutputStream = new DeflaterOutputStream(byteArrayOutputStream, deflater)) {
+            deflaterOutputStream.write(json.getBytes(StandardCharsets.UTF_8));
+        } catch (final IOException e) {
+            // writing to a ByteArrayOutputStream can not fail
+            throw new IllegalStateException(e);
+        } finally {
+            deflater.end();
+        }
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    private static String inflate(final byte[] compressedJson) {
+        try (InputStream inflaterInputStream = new InflaterInputStream(new ByteArrayInputStream(compressedJson))) {
+            return IOUtils.toString(inflaterInputStream, StandardCharsets.UTF_8);
+        } catch (final IOException e) {
+            throw new IllegalStateException("The stored json could not be inflated: " + e.getMessage(), e);
+        }
+    }
+
+}
@@ -0,0 +1,108 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.api.view;
+
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.synopsys.integration.blackduck.api.core.HubView;
+import com.synopsys.integration.blackduck.api.core.ResourceLink;
+
+/**
+ * The rel to href index of a view's links, built on the first lookup and cached (weakly, by identity) alongside the view. The index is rebuilt if the view's links are replaced or resized.
+ */
+class LinkIndex {
+    private static final Map<WeakIdentityKey<HubView>, LinkIndex> INDEXES = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<HubView> COLLECTED_VIEWS = new ReferenceQueue<>();
+
+    private final List<ResourceLink> links;
+    private final int linkCount;
+    private final Map<String, List<String>> hrefsByRel;
+
+    /**
+     * @return the index of the view's links, or null if the view has no links
+     */
+    static LinkIndex of(final HubView view) {
+        if (view._meta == null || view._meta.links == null) {
+            return null;
+        }
+        final List<ResourceLink> links = view._meta.links;
+
+        final LinkIndex existing = WeakIdentityKey.get(INDEXES, view);
+        if (existing != null && existing.links == links && existing.linkCount == links.size()) {
+            return existing;
+        }
+
+        WeakIdentityKey.expungeCollected(INDEXES, COLLECTED_VIEWS);
+        final LinkIndex linkIndex = new LinkIndex(links);
+        INDEXES.put(new WeakIdentityKey<>(view, COLLECTED_VIEWS), linkIndex);
+        return linkIndex;
+    }
+
+    private LinkIndex(final List<ResourceLink> links) {
+        this.links = links;
+        this.linkCount = links.size();
+        final Map<String, List<String>> index = new HashMap<>();
+        for (final ResourceLink link : links) {
+            if (link != null && link.rel != null) {
+                index.computeIfAbsent(link.rel, rel -> new ArrayList<>(1)).add(link.href);
+            }
+        }
+        for (final Map.Entry<String, List<String>> entry : index.entrySet()) {
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+        hrefsByRel = index;
+    }
+
+    boolean hasLink(final String rel) {
+        return hrefsByRel.containsKey(rel);
+    }
+
+    /**
+     * @return the href of the first link with the rel, or null if there is none
+     */
+    String getFirstHref(final String rel) {
+        final List<String> hrefs = hrefsByRel.get(rel);
+        return hrefs == null ? null : hrefs.get(0);
+    }
+
+    /**
+     * @return the hrefs of every link with the rel, empty if there are none
+     */
+    List<String> getHrefs(final String rel) {
+        final List<String> hrefs = hrefsByRel.get(rel);
+        return hrefs == null ? Collections.emptyList() : hrefs;
+    }
+
+    static int size() {
+        WeakIdentityKey.expungeCollected(INDEXES, COLLECTED_VIEWS);
+        return INDEXES.size();
+    }
+
+}
@@ -40,78 +40,44 @@ public class MetaHandler {
     }
 
     public boolean hasLink(final HubView view, final String linkKey) throws HubIntegrationException {
-        final ResourceMetadata meta = view._meta;
-        if (meta == null) {
-            return false;
-        }
-        final List<ResourceLink> links = meta.links;
-        if (links == null) {
-            return false;
-        }
-        for (final ResourceLink link : links) {
-            if (link.rel.equals(linkKey)) {
-                return true;
-            }
-        }
-        return false;
+        final LinkIndex linkIndex = LinkIndex.of(view);
+        return linkIndex != null && linkIndex.hasLink(linkKey);
     }
 
     public String getFirstLink(final HubView view, final String linkKey) throws HubIntegrationException {
         final List<ResourceLink> links = getLinkViews(view);
-        final StringBuilder linksAvailable = new StringBuilder();
-        linksAvailable.append("Could not find the link '" + linkKey + "', these are the available links : ");
-        int i = 0;
-        for (final ResourceLink link : links) {
-            if (link.rel.equals(linkKey)) {
-                return link.href;
-            }
-            if (i > 0) {
-                linksAvailable.append(", ");
-            }
-            linksAvailable.append("'" + link.rel + "'");
-            i++;
+        final LinkIndex linkIndex = LinkIndex.of(view);
+        if (linkIndex.hasLink(linkKey)) {
+            return linkIndex.getFirstHref(linkKey);
         }
-        linksAvailable.append(". For View : " + view._meta.href);
-        throw new HubIntegrationException(linksAvailable.toString());
+        throw new HubIntegrationException(createMissingLinkMessage(view, linkKey, links));
     }
 
+    /**
+     * Neither allocates nor throws, the links of the view are indexed on the first lookup.
+     * @return the href of the first link named linkKey, or null if the view has no such link
+     */
     public String getFirstLinkSafely(final HubView view, final String linkKey) {
-        try {
-            final String link = getFirstLink(view, linkKey);
-            return link;
-        } catch (final HubIntegrationException e) {
-            logger.debug("Link '" + linkKey + "' not found on view : " + view.json, e);
+        final LinkIndex linkIndex = LinkIndex.of(view);
+        if (linkIndex == null) {
             return null;
         }
+        return linkIndex.getFirstHref(linkKey);
     }
 
     public List<String> getLinks(final HubView view, final String linkKey) throws HubIntegrationException {
         final List<ResourceLink> links = getLinkViews(view);
-        final List<String> linkHrefs = new ArrayList<>();
-        final StringBuilder linksAvailable = new StringBuilder();
-        linksAvailable.append("Could not find the link '" + linkKey + "', these are the available links : ");
-        int i = 0;
-        for (final ResourceLink link : links) {
-            if (link.rel.equals(linkKey)) {
-                linkHrefs.add(link.href);
-            }
-            if (i > 0) {
-                linksAvailable.append(", ");
-            }
-            linksAvailable.append("'" + link.rel + "'");
-            i++;
-        }
+        final List<String> linkHrefs = LinkIndex.of(view).getHrefs(linkKey);
         if (!linkHrefs.isEmpty()) {
-            return linkHrefs;
+            return new ArrayList<>(linkHrefs);
         }
-        linksAvailable.append(". For View : " + view._meta.href);
-        throw new HubIntegrationException(linksAvailable.toString());
+        throw new HubIntegrationException(createMissingLinkMessage(view, linkKey, links));
     }
 
     public ResourceMetadata getMetaView(final HubView view) throws HubIntegrationException {
         final ResourceMetadata meta = view._meta;
         if (meta == null) {
-            throw new HubIntegrationException("Could not find meta information for this view : " + view.json);
+            throw new HubIntegrationException("Could not find meta information for this view : " + describe(view));
         }
         return meta;
     }
@@ -120,7 +86,7 @@ public class MetaHandler {
         final ResourceMetadata meta = getMetaView(view);
         final List<ResourceLink> links = meta.links;
         if (links == null) {
-            throw new HubIntegrationException("Could not find any links for this view : " + view.json);
+            throw new HubIntegrationException("Could not find any links for this view : " + describe(view));
         }
         return links;
     }
@@ -135,11 +101,30 @@ public class MetaHandler {
         final String href = meta.href;
         if (href == null) {
             if (logger != null) {
-                logger.error("Hub View has no href : " + view.json);
+                logger.error("Hub View has no href : " + describe(view));
             }
             throw new HubIntegrationException("This Hub view does not have any href information.");
         }
         return href;
     }
 
+    private String createMissingLinkMessage(final HubView view, final String linkKey, final List<ResourceLink> links) {
+        final StringBuilder linksAvailable = new StringBuilder();
+        linksAvailable.append("Could not find the link '" + linkKey + "', these are the available links : ");
+        int i = 0;
+        for (final ResourceLink link : links) {
+            if (i > 0) {
+                linksAvailable.append(", ");
+            }
+            linksAvailable.append("'" + link.rel + "'");
+            i++;
+        }
+        linksAvailable.append(". For View : " + view._meta.href);
+        return linksAvailable.toString();
+    }
+
+    private String describe(final HubView view) {
+        return HubResponseJsonStore.getJson(view).orElseGet(view::toString);
+    }
+
 }
@@ -0,0 +1,108 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.api.view;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+
+/**
+ * A map key for a view compared by identity that does not keep the view alive. Once the view is collected its key is enqueued, and expungeCollected removes the entries of the enqueued keys from the map.
+ */
+class WeakIdentityKey<T> extends WeakReference<T> {
+    private static final ThreadLocal<LookupKey> LOOKUP_KEY = ThreadLocal.withInitial(LookupKey::new);
+
+    private final int hashCode;
+
+    WeakIdentityKey(final T referent, final ReferenceQueue<? super T> referenceQueue) {
+        super(referent, referenceQueue);
+        hashCode = System.identityHashCode(referent);
+    }
+
+    /**
+     * Looks the referent up with a reusable, per thread probe, so that the lookup does not allocate a key.
+     */
+    static <V> V get(final Map<? extends WeakIdentityKey<?>, V> map, final Object referent) {
+        final LookupKey lookupKey = LOOKUP_KEY.get().set(referent);
+        try {
+            return map.get(lookupKey);
+        } finally {
+            lookupKey.clear();
+        }
+    }
+
+    static void expungeCollected(final Map<? extends WeakIdentityKey<?>, ?> map, final ReferenceQueue<?> referenceQueue) {
+        Reference<?> collected;
+        while ((collected = referenceQueue.poll()) != null) {
+            map.remove(collected);
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        final Object referent = get();
+        if (obj instanceof LookupKey) {
+            return referent != null && referent == ((LookupKey) obj).referent;
+        }
+        return obj instanceof WeakIdentityKey && referent != null && referent == ((WeakIdentityKey<?>) obj).get();
+    }
+
+    private static class LookupKey {
+        private Object referent;
+        private int hashCode;
+
+        private LookupKey set(final Object referent) {
+            this.referent = referent;
+            hashCode = System.identityHashCode(referent);
+            return this;
+        }
+
+        private void clear() {
+            referent = null;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            return obj instanceof WeakIdentityKey && referent != null && referent == ((WeakIdentityKey<?>) obj).get();
+        }
+    }
+
+}
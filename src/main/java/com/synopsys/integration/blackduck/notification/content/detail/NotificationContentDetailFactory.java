@@ -34,6 +34,7 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.synopsys.integration.blackduck.api.component.AffectedProjectVersion;
 import com.synopsys.integration.blackduck.api.generated.enumeration.NotificationType;
+import com.synopsys.integration.blackduck.api.view.HubResponseJsonStore;
 import com.synopsys.integration.blackduck.notification.CommonNotificationView;
 import com.synopsys.integration.blackduck.notification.NotificationDetailResult;
 import com.synopsys.integration.blackduck.notification.content.BomEditContent;
@@ -54,15 +55,23 @@ public class NotificationContentDetailFactory {
         this.jsonParser = jsonParser;
     }
 
+    /**
+     * @throws IllegalStateException if the raw json of the notification was discarded (JsonRetention.DISCARD), since the content is only read from the raw json
+     */
     public NotificationDetailResult generateContentDetails(final CommonNotificationView view) {
         final NotificationType type = view.getType();
-        final String notificationJson = view.json;
+        final String notificationJson = getNotificationJson(view);
         final JsonObject jsonObject = jsonParser.parse(notificationJson).getAsJsonObject();
 
+        if (!jsonObject.has("content")) {
+            // the content is not bound to the view, it only survives in the raw json
+            throw new IllegalStateException(String.format("The %s notification created at %s has no raw json to read its content from. Notifications must not be decoded with JsonRetention.DISCARD to generate their content details.", type,
+                    view.getCreatedAt()));
+        }
+
         NotificationContent notificationContent = null;
         String notificationGroup = null;
         final List<NotificationContentDetail> notificationContentDetails = new ArrayList<>();
-
         if (NotificationType.POLICY_OVERRIDE.equals(type)) {
             notificationContent = gson.fromJson(jsonObject.get("content"), PolicyOverrideNotificationContent.class);
             notificationGroup = NotificationContentDetail.CONTENT_KEY_GROUP_POLICY;
@@ -159,4 +168,9 @@ public class NotificationContentDetailFactory {
         notificationContentDetails.add(detail);
     }
 
+    private String getNotificationJson(final CommonNotificationView view) {
+        // the json of the source view is only stored compressed when the views were decoded with JsonRetention.COMPRESS
+        return HubResponseJsonStore.getJson(view).orElseGet(() -> HubResponseJsonStore.getJson(view.getSourceView()).orElseGet(() -> gson.toJson(view.getSourceView())));
+    }
+
 }
@@ -0,0 +1,307 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import com.synopsys.integration.blackduck.api.UriSingleResponse;
+import com.synopsys.integration.blackduck.api.core.HubPath;
+import com.synopsys.integration.blackduck.api.core.HubPathMultipleResponses;
+import com.synopsys.integration.blackduck.api.core.HubPathSingleResponse;
+import com.synopsys.integration.blackduck.api.core.HubResponse;
+import com.synopsys.integration.blackduck.api.core.HubView;
+import com.synopsys.integration.blackduck.api.core.LinkMultipleResponses;
+import com.synopsys.integration.blackduck.api.core.LinkSingleResponse;
+import com.synopsys.integration.exception.IntegrationException;
+import com.synopsys.integration.rest.request.Request;
+import com.synopsys.integration.rest.request.Response;
+
+/**
+ * A non-blocking facade over HubService. Every call is run on the supplied executor and completes the returned future with the result, or exceptionally with the IntegrationException thrown by HubService (wrapped in a CompletionException
+ * when observed through join). It is up to the user of the service to shutdown the executor.
+ * <p>
+ * A fan out starts at most maxInFlight calls at a time, so a long list of items can not flood the executor or the Hub.
+ */
+public class AsyncHubService {
+    public static final int DEFAULT_MAX_IN_FLIGHT = 16;
+
+    private final HubService hubService;
+    private final Executor executor;
+    private final int maxInFlight;
+
+    public AsyncHubService(final HubService hubService, final Executor executor) {
+        this(hubService, executor, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    public AsyncHubService(final HubService hubService, final Executor executor, final int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("At least one call must be allowed in flight.");
+        }
+        this.hubService = hubService;
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+    }
+
+    public HubService getHubService() {
+        return hubService;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public <T extends HubResponse> CompletableFuture<List<T>> getAllResponses(final HubPathMultipleResponses<T> hubPathMultipleResponses) {
+        return supply(() -> hubService.getAllResponses(hubPathMultipleResponses));
+    }
+
+    public <T extends HubResponse> CompletableFuture<List<T>> getAllResponses(final HubPathMultipleResponses<T> hubPathMultipleResponses, final Request.Builder requestBuilder) {
+        return supply(() -> hubService.getAllResponses(hubPathMultipleResponses, requestBuilder));
+    }
+
+    public <T extends HubResponse> CompletableFuture<List<T>> getAllResponses(final HubView hubView, final LinkMultipleResponses<T> linkMultipleResponses) {
+        return supply(() -> hubService.getAllResponses(hubView, linkMultipleResponses));
+    }
+
+    public <T extends HubResponse> CompletableFuture<List<T>> getAllResponses(final HubView hubView, final LinkMultipleResponses<T> linkMultipleResponses, final Request.Builder requestBuilder) {
+        return supply(() -> hubService.getAllResponses(hubView, linkMultipleResponses, requestBuilder));
+    }
+
+    public <T extends HubResponse> CompletableFuture<List<T>> getAllResponses(final String uri, final Class<T> responseClass) {
+        return supply(() -> hubService.getAllResponses(uri, responseClass));
+    }
+
+    /**
+     * Follows the link of a view that is itself still being retrieved, without blocking a thread while waiting for the view.
+     */
+    public <V extends HubView, T extends HubResponse> CompletableFuture<List<T>> getAllResponses(final CompletableFuture<V> hubViewFuture, final LinkMultipleResponses<T> linkMultipleResponses) {
+        return hubViewFuture.thenCompose(hubView -> getAllResponses(hubView, linkMultipleResponses));
+    }
+
+    public <T extends HubResponse> CompletableFuture<T> getResponse(final HubPathSingleResponse<T> hubPathSingleResponse) {
+        return supply(() -> hubService.getResponse(hubPathSingleResponse));
+    }
+
+    public <T extends HubResponse> CompletableFuture<T> getResponse(final HubView hubView, final LinkSingleResponse<T> linkSingleResponse) {
+        return supply(() -> hubService.getResponse(hubView, linkSingleResponse));
+    }
+
+    public <T extends HubResponse> CompletableFuture<T> getResponse(final String uri, final Class<T> responseClass) {
+        return supply(() -> hubService.getResponse(uri, responseClass));
+    }
+
+    public <T extends HubResponse> CompletableFuture<T> getResponse(final UriSingleResponse<T> uriSingleResponse) {
+        return supply(() -> hubService.getResponse(uriSingleResponse));
+    }
+
+    /**
+     * Follows the link of a view that is itself still being retrieved, without blocking a thread while waiting for the view.
+     */
+    public <V extends HubView, T extends HubResponse> CompletableFuture<T> getResponse(final CompletableFuture<V> hubViewFuture, final LinkSingleResponse<T> linkSingleResponse) {
+        return hubViewFuture.thenCompose(hubView -> getResponse(hubView, linkSingleResponse));
+    }
+
+    /**
+     * Retrieves every uri concurrently, the results are in the same order as the uris.
+     */
+    public <T extends HubResponse> CompletableFuture<List<T>> getResponses(final Collection<String> uris, final Class<T> responseClass) {
+        return fanOut(uris, uri -> getResponse(uri, responseClass));
+    }
+
+    public CompletableFuture<Response> executeGetRequest(final String uri) {
+        return supply(() -> hubService.executeGetRequest(uri));
+    }
+
+    public CompletableFuture<Response> executeRequest(final HubPath path, final Request.Builder requestBuilder) {
+        return supply(() -> hubService.executeRequest(path, requestBuilder));
+    }
+
+    public CompletableFuture<Response> executeRequest(final Request request) {
+        return supply(() -> hubService.executeRequest(request));
+    }
+
+    public CompletableFuture<String> executePostRequestAndRetrieveURL(final HubPath path, final Request.Builder requestBuilder) {
+        return supply(() -> hubService.executePostRequestAndRetrieveURL(path, requestBuilder));
+    }
+
+    public CompletableFuture<String> executePostRequestAndRetrieveURL(final Request request) {
+        return supply(() -> hubService.executePostRequestAndRetrieveURL(request));
+    }
+
+    /**
+     * Runs any blocking Hub call (for example a method of ProjectService or ComponentService) on this service's executor.
+     */
+    public <T> CompletableFuture<T> supply(final HubCall<T> hubCall) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return hubCall.call();
+            } catch (final IntegrationException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Starts one call per item, at most maxInFlight of this service at a time, and completes with the results in the order of the items once all of them have. The first failure completes the returned future exceptionally and
+     * no further calls are started.
+     */
+    public <S, T> CompletableFuture<List<T>> fanOut(final Collection<S> items, final Function<S, CompletableFuture<T>> call) {
+        return fanOut(items, maxInFlight, call);
+    }
+
+    public <S, T> CompletableFuture<List<T>> fanOut(final Collection<S> items, final int maxInFlight, final Function<S, CompletableFuture<T>> call) {
+        final FanOut<S, T> fanOut = new FanOut<>(new ArrayList<>(items), call);
+        for (int i = 0; i < Math.min(maxInFlight, fanOut.items.size()); i++) {
+            fanOut.startNext();
+        }
+        return fanOut.result;
+    }
+
+    public static <T> CompletableFuture<List<T>> allOf(final List<CompletableFuture<T>> futures) {
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()])).thenApply(ignored -> {
+            final List<T> results = new ArrayList<>(futures.size());
+            for (final CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+            return results;
+        });
+    }
+
+    /**
+     * Waits for the future and rethrows the IntegrationException it failed with, so synchronous services can use the async fan out without changing their signatures.
+     */
+    public static <T> T await(final CompletableFuture<T> future) throws IntegrationException {
+        try {
+            return future.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IntegrationException("Interrupted while waiting for the Hub", e);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause() instanceof CompletionException && null != e.getCause().getCause() ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof IntegrationException) {
+                throw (IntegrationException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IntegrationException(cause);
+        }
+    }
+
+    @FunctionalInterface
+    public interface HubCall<T> {
+        T call() throws IntegrationException;
+    }
+
+    private static class FanOut<S, T> {
+        private final List<S> items;
+        private final Function<S, CompletableFuture<T>> call;
+        private final List<T> results;
+        private final AtomicInteger nextIndex = new AtomicInteger();
+        private final AtomicInteger remaining;
+        private final CompletableFuture<List<T>> result = new CompletableFuture<>();
+
+        private FanOut(final List<S> items, final Function<S, CompletableFuture<T>> call) {
+            this.items = items;
+            this.call = call;
+            results = new ArrayList<>(items.size());
+            for (int i = 0; i < items.size(); i++) {
+                results.add(null);
+            }
+            remaining = new AtomicInteger(items.size());
+            if (items.isEmpty()) {
+                result.complete(results);
+            }
+        }
+
+        /**
+         * Starts the next item in this slot. Calls that are already complete when they return are handled in this loop rather than from their callback, so a long run of them doesn't recurse.
+         */
+        private void startNext() {
+            while (!result.isDone()) {
+                final int index = nextIndex.getAndIncrement();
+                if (index >= items.size()) {
+                    return;
+                }
+                CompletableFuture<T> future;
+                try {
+                    future = call.apply(items.get(index));
+                } catch (final RuntimeException e) {
+                    future = new CompletableFuture<>();
+                    future.completeExceptionally(e);
+                }
+                if (!future.isDone()) {
+                    future.whenComplete((value, throwable) -> {
+                        if (complete(index, value, throwable)) {
+                            startNext();
+                        }
+                    });
+                    return;
+                }
+                final T value;
+                try {
+                    value = future.join();
+                } catch (final CompletionException | CancellationException e) {
+                    complete(index, null, e);
+                    return;
+                }
+                complete(index, value, null);
+            }
+        }
+
+        /**
+         * @return true if more items should be started
+         */
+        private boolean complete(final int index, final T value, final Throwable throwable) {
+            if (throwable != null) {
+                result.completeExceptionally(throwable);
+                return false;
+            }
+            synchronized (results) {
+                results.set(index, value);
+            }
+            if (remaining.decrementAndGet() == 0) {
+                synchronized (results) {
+                    result.complete(new ArrayList<>(results));
+                }
+            }
+            return true;
+        }
+    }
+
+}
@@ -42,6 +42,7 @@ import com.synopsys.integration.blackduck.notification.NotificationDetailResult;
 import com.synopsys.integration.blackduck.notification.NotificationDetailResults;
 import com.synopsys.integration.blackduck.notification.content.detail.NotificationContentDetailFactory;
 import com.synopsys.integration.blackduck.service.bucket.HubBucket;
+import com.synopsys.integration.blackduck.service.bucket.HubBucketPrefetchPlan;
 import com.synopsys.integration.blackduck.service.bucket.HubBucketService;
 import com.synopsys.integration.exception.IntegrationException;
 import com.synopsys.integration.rest.RestConstants;
@@ -106,6 +107,16 @@ public class CommonNotificationService {
         hubBucketService.addToTheBucket(hubBucket, uriResponseList);
     }
 
+    /**
+     * Populates the bucket with the notifications' links and, in the same pass, the links the prefetch plan follows from them.
+     */
+    public void populateHubBucket(final HubBucketService hubBucketService, final HubBucket hubBucket, final NotificationDetailResults notificationDetailResults, final HubBucketPrefetchPlan prefetchPlan)
+            throws IntegrationException {
+        final List<UriSingleResponse<? extends HubResponse>> uriResponseList = new ArrayList<>();
+        uriResponseList.addAll(notificationDetailResults.getAllLinks());
+        hubBucketService.addToTheBucket(hubBucket, uriResponseList, prefetchPlan);
+    }
+
     private DatePair getLatestCreatedAtString(final List<CommonNotificationView> views) {
         // sortedViews will be sorted most recent to oldest
         final List<CommonNotificationView> sortedViews = views.stream().sorted((left, right) -> {
@@ -0,0 +1,144 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service;
+
+import java.io.InterruptedIOException;
+import java.util.Optional;
+import java.util.function.LongConsumer;
+
+import org.apache.http.HttpStatus;
+
+import com.synopsys.integration.blackduck.exception.HubIntegrationException;
+import com.synopsys.integration.blackduck.rest.BlackduckRestConnection;
+import com.synopsys.integration.blackduck.service.metrics.EndpointMetrics;
+import com.synopsys.integration.blackduck.service.metrics.HubMetricsRegistry;
+import com.synopsys.integration.blackduck.service.model.AdaptiveConcurrencyLimiter;
+import com.synopsys.integration.exception.IntegrationException;
+import com.synopsys.integration.rest.exception.IntegrationRestException;
+import com.synopsys.integration.rest.request.Request;
+import com.synopsys.integration.rest.request.Response;
+
+/**
+ * The single place HubService and its transformers send requests to the Hub, so the shared concurrency limit and metrics of the HubServiceOptions apply to all of them.
+ */
+public class HubRequestExecutor {
+    private final BlackduckRestConnection restConnection;
+    private final Optional<AdaptiveConcurrencyLimiter> concurrencyLimiter;
+    private final Optional<HubMetricsRegistry> metricsRegistry;
+
+    public HubRequestExecutor(final BlackduckRestConnection restConnection, final HubServiceOptions hubServiceOptions) {
+        this.restConnection = restConnection;
+        concurrencyLimiter = hubServiceOptions.getConcurrencyLimiter();
+        metricsRegistry = hubServiceOptions.getMetricsRegistry();
+    }
+
+    public Optional<EndpointMetrics> getEndpointMetrics(final String uri) {
+        return metricsRegistry.map(registry -> registry.getEndpointMetricsForUri(uri));
+    }
+
+    /**
+     * The limit is released once the Hub has answered, the caller is still responsible for closing the Response. The recorded network time ends when the Hub has answered as well, since the body is read by the caller, and
+     * starts when the request is sent, so the wait for the limit is left out.
+     */
+    public Response executeRequest(final Request request) throws IntegrationException {
+        final Optional<EndpointMetrics> endpointMetrics = getEndpointMetrics(request.getUri());
+        if (!endpointMetrics.isPresent()) {
+            return execute(request);
+        }
+
+        final long[] start = { System.nanoTime() };
+        boolean successful = false;
+        try {
+            final Response response = execute(request, sentNanos -> start[0] = sentNanos);
+            successful = true;
+            return response;
+        } finally {
+            endpointMetrics.get().recordRequest(System.nanoTime() - start[0], successful);
+        }
+    }
+
+    /**
+     * Sends the request without recording any metrics, for the transformers which record the network and decode time of the whole body themselves.
+     */
+    Response execute(final Request request) throws IntegrationException {
+        return execute(request, sentNanos -> {
+        });
+    }
+
+    /**
+     * @param onSent given the System.nanoTime at which the request is sent, once the limit allows it, so a caller timing the response does not count the time spent waiting for the limit
+     */
+    Response execute(final Request request, final LongConsumer onSent) throws IntegrationException {
+        if (!concurrencyLimiter.isPresent()) {
+            onSent.accept(System.nanoTime());
+            return restConnection.executeRequest(request);
+        }
+
+        final AdaptiveConcurrencyLimiter limiter = concurrencyLimiter.get();
+        try {
+            limiter.acquire();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HubIntegrationException("Interrupted while waiting to send a request to " + request.getUri(), e);
+        }
+
+        final long start = System.nanoTime();
+        onSent.accept(start);
+        AdaptiveConcurrencyLimiter.Outcome outcome = AdaptiveConcurrencyLimiter.Outcome.IGNORED;
+        try {
+            final Response response = restConnection.executeRequest(request);
+            outcome = AdaptiveConcurrencyLimiter.Outcome.SUCCESS;
+            return response;
+        } catch (final IntegrationRestException e) {
+            outcome = isOverloaded(e.getHttpStatusCode()) ? AdaptiveConcurrencyLimiter.Outcome.DROPPED : AdaptiveConcurrencyLimiter.Outcome.SUCCESS;
+            throw e;
+        } catch (final IntegrationException e) {
+            if (isTimeout(e)) {
+                outcome = AdaptiveConcurrencyLimiter.Outcome.DROPPED;
+            }
+            throw e;
+        } finally {
+            limiter.release(System.nanoTime() - start, outcome);
+        }
+    }
+
+    /**
+     * Socket, connect and connection pool timeouts all extend InterruptedIOException and reach us as the cause of an IntegrationException.
+     */
+    private boolean isTimeout(final Throwable throwable) {
+        Throwable cause = throwable;
+        while (cause != null) {
+            if (cause instanceof InterruptedIOException) {
+                return true;
+            }
+            cause = cause.getCause();
+        }
+        return false;
+    }
+
+    private boolean isOverloaded(final int httpStatusCode) {
+        return 429 == httpStatusCode || HttpStatus.SC_BAD_GATEWAY == httpStatusCode || HttpStatus.SC_SERVICE_UNAVAILABLE == httpStatusCode || HttpStatus.SC_GATEWAY_TIMEOUT == httpStatusCode;
+    }
+
+}
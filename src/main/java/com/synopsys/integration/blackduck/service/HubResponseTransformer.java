@@ -24,49 +24,332 @@
 package com.synopsys.integration.blackduck.service;
 
 import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.HttpStatus;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
 import com.synopsys.integration.blackduck.api.core.HubResponse;
+import com.synopsys.integration.blackduck.api.generated.discovery.ApiDiscovery;
 import com.synopsys.integration.blackduck.exception.HubIntegrationException;
 import com.synopsys.integration.blackduck.rest.BlackduckRestConnection;
+import com.synopsys.integration.blackduck.service.cache.CacheKeyFactory;
+import com.synopsys.integration.blackduck.service.cache.CachedHubResponse;
+import com.synopsys.integration.blackduck.service.cache.HubResponseCache;
+import com.synopsys.integration.blackduck.service.cache.PersistentHubResponseCache;
+import com.synopsys.integration.blackduck.service.metrics.EndpointMetrics;
+import com.synopsys.integration.blackduck.service.model.JsonRetention;
+import com.synopsys.integration.blackduck.service.model.PagedJsonReader;
+import com.synopsys.integration.blackduck.service.model.RequestFactory;
+import com.synopsys.integration.blackduck.service.model.ResponseContentStream;
+import com.synopsys.integration.blackduck.service.model.SingleFlight;
+import com.synopsys.integration.blackduck.service.model.TypeDiscriminatingDecoder;
 import com.synopsys.integration.exception.IntegrationException;
+import com.synopsys.integration.log.IntLogger;
+import com.synopsys.integration.log.LogLevel;
+import com.synopsys.integration.log.PrintStreamIntLogger;
+import com.synopsys.integration.rest.HttpMethod;
+import com.synopsys.integration.rest.exception.IntegrationRestException;
 import com.synopsys.integration.rest.request.Request;
 import com.synopsys.integration.rest.request.Response;
 
 public class HubResponseTransformer {
-    private final BlackduckRestConnection restConnection;
+    private static final String ETAG_HEADER = "ETag";
+    private static final String LAST_MODIFIED_HEADER = "Last-Modified";
+    private static final String IF_NONE_MATCH_HEADER = "If-None-Match";
+    private static final String IF_MODIFIED_SINCE_HEADER = "If-Modified-Since";
+
+    private final HubRequestExecutor hubRequestExecutor;
     private final JsonParser jsonParser;
     private final Gson gson;
+    private final JsonRetention jsonRetention;
+    private final Optional<HubResponseCache> responseCache;
+    private final Optional<SingleFlight<String, String>> inFlightGets;
+    private final Optional<PersistentHubResponseCache> persistentResponseCache;
+    private final URL baseUrl;
+    private final IntLogger logger;
 
     public HubResponseTransformer(final BlackduckRestConnection restConnection, final Gson gson, final JsonParser jsonParser) {
-        this.restConnection = restConnection;
+        this(restConnection, gson, jsonParser, HubServiceOptions.defaultOptions());
+    }
+
+    public HubResponseTransformer(final BlackduckRestConnection restConnection, final Gson gson, final JsonParser jsonParser, final HubServiceOptions hubServiceOptions) {
+        this(restConnection, gson, jsonParser, hubServiceOptions, new PrintStreamIntLogger(System.out, LogLevel.INFO));
+    }
+
+    public HubResponseTransformer(final BlackduckRestConnection restConnection, final Gson gson, final JsonParser jsonParser, final HubServiceOptions hubServiceOptions, final IntLogger logger) {
+        this.logger = logger;
+        this.hubRequestExecutor = new HubRequestExecutor(restConnection, hubServiceOptions);
         this.jsonParser = jsonParser;
         this.gson = gson;
+        jsonRetention = hubServiceOptions.getJsonRetention();
+        responseCache = hubServiceOptions.getResponseCache();
+        inFlightGets = hubServiceOptions.getInFlightGets();
+        persistentResponseCache = hubServiceOptions.getPersistentResponseCache();
+        baseUrl = restConnection.getBaseUrl();
+    }
+
+    public HubRequestExecutor getHubRequestExecutor() {
+        return hubRequestExecutor;
     }
 
     public <T extends HubResponse> T getResponse(final Request request, final Class<T> clazz) throws IntegrationException {
-        try (Response response = restConnection.executeRequest(request)) {
-            final String jsonResponse = response.getContentString();
-            final JsonObject jsonObject = jsonParser.parse(jsonResponse).getAsJsonObject();
-            return getResponseAs(jsonObject, clazz);
+        // the raw content is kept as the json of the view, so binding straight from the text avoids building and re-serializing a JsonObject
+        final String jsonResponse = getContentString(request);
+
+        final Optional<EndpointMetrics> endpointMetrics = hubRequestExecutor.getEndpointMetrics(request.getUri());
+        final long decodeStart = System.nanoTime();
+        final T response = getResponseAs(jsonResponse, clazz);
+        if (endpointMetrics.isPresent()) {
+            endpointMetrics.get().recordDecode(System.nanoTime() - decodeStart);
+        }
+        return response;
+    }
+
+    /**
+     * @return the content of the response, from the caches when the request is a GET they can answer
+     */
+    public String getContentString(final Request request) throws IntegrationException {
+        if (null == request.getMethod() || HttpMethod.GET == request.getMethod()) {
+            if (inFlightGets.isPresent()) {
+                // every caller decodes its own view from the shared json, so no caller can see another's changes to a view
+                return inFlightGets.get().execute(CacheKeyFactory.createKey(request), () -> getJson(request));
+            }
+            return getJson(request);
+        }
+        return getUncachedJson(request);
+    }
+
+    private String getJson(final Request request) throws IntegrationException {
+        if (persistentResponseCache.isPresent() && persistentResponseCache.get().isCacheable(request.getUri())) {
+            return getPersistedJson(request, persistentResponseCache.get());
+        }
+        return getJsonFromHub(request);
+    }
+
+    private String getPersistedJson(final Request request, final PersistentHubResponseCache cache) throws IntegrationException {
+        final Optional<String> serverVersion = getServerVersion(cache);
+        if (!serverVersion.isPresent()) {
+            return getJsonFromHub(request);
+        }
+        final String key = CacheKeyFactory.createKey(request);
+        // a cache that can't be read or written only makes the request slower, so its IOExceptions never fail the request
+        try {
+            final Optional<String> persistedJson = cache.get(serverVersion.get(), key);
+            if (persistedJson.isPresent()) {
+                return persistedJson.get();
+            }
+        } catch (final IOException e) {
+            logger.debug("Could not read " + request.getUri() + " from the persistent response cache: " + e.getMessage(), e);
+        }
+        final String jsonResponse = getJsonFromHub(request);
+        try {
+            cache.put(serverVersion.get(), key, jsonResponse);
+        } catch (final IOException e) {
+            logger.debug("Could not write " + request.getUri() + " to the persistent response cache: " + e.getMessage(), e);
+        }
+        return jsonResponse;
+    }
+
+    private Optional<String> getServerVersion(final PersistentHubResponseCache cache) {
+        final String hubBaseUrl = baseUrl.toString();
+        final Optional<String> knownServerVersion = cache.getServerVersion(hubBaseUrl);
+        if (knownServerVersion.isPresent() || cache.isServerVersionUnavailable(hubBaseUrl)) {
+            return knownServerVersion;
+        }
+        try {
+            final String currentVersionUri = new URL(baseUrl, ApiDiscovery.CURRENT_VERSION_LINK_RESPONSE.hubPath.getPath()).toString();
+            final String currentVersionJson = getUncachedJson(RequestFactory.createCommonGetRequest(currentVersionUri));
+            final JsonElement version = jsonParser.parse(currentVersionJson).getAsJsonObject().get("version");
+            if (version == null || version.isJsonNull()) {
+                logger.debug("The current version of " + hubBaseUrl + " has no version, its responses will not be cached persistently for now.");
+                cache.setServerVersionUnavailable(hubBaseUrl);
+                return Optional.empty();
+            }
+            cache.setServerVersion(hubBaseUrl, version.getAsString());
+            return Optional.of(version.getAsString());
+        } catch (final IntegrationException | MalformedURLException | JsonParseException | IllegalStateException | UnsupportedOperationException e) {
+            // without the version nothing can be cached safely, so requests go to the Hub until the version is asked for again
+            logger.debug("Could not determine the version of " + hubBaseUrl + ", its responses will not be cached persistently for now: " + e.getMessage(), e);
+            cache.setServerVersionUnavailable(hubBaseUrl);
+            return Optional.empty();
+        }
+    }
+
+    private String getJsonFromHub(final Request request) throws IntegrationException {
+        if (responseCache.isPresent()) {
+            return getCachedJson(request, responseCache.get());
+        }
+        return getUncachedJson(request);
+    }
+
+    private String getUncachedJson(final Request request) throws IntegrationException {
+        final Optional<EndpointMetrics> endpointMetrics = hubRequestExecutor.getEndpointMetrics(request.getUri());
+        final long[] start = { System.nanoTime() };
+        boolean successful = false;
+        try (Response response = hubRequestExecutor.execute(RequestFactory.addAcceptEncoding(request), sentNanos -> start[0] = sentNanos)) {
+            final String jsonResponse = readContent(endpointMetrics, response);
+            successful = true;
+            return jsonResponse;
+        } catch (final IOException e) {
+            throw new HubIntegrationException(e.getMessage(), e);
+        } finally {
+            recordRequest(endpointMetrics, start[0], successful);
+        }
+    }
+
+    /**
+     * Revalidates a cached response with a conditional GET, the same way ScannerZipInstaller only downloads a scanner that has been modified, and returns the cached json when the Hub answers 304 Not Modified.
+     */
+    private String getCachedJson(final Request request, final HubResponseCache cache) throws IntegrationException {
+        final String uri = request.getUri();
+        final String key = CacheKeyFactory.createKey(request);
+        final Optional<CachedHubResponse> cachedHubResponse = cache.get(key);
+        final Request hubRequest;
+        if (cachedHubResponse.isPresent()) {
+            cache.getStatistics().recordRevalidation();
+            hubRequest = createConditionalRequest(request, cachedHubResponse.get());
+        } else {
+            cache.getStatistics().recordMiss();
+            hubRequest = request;
+        }
+
+        final Optional<EndpointMetrics> endpointMetrics = hubRequestExecutor.getEndpointMetrics(uri);
+        final long[] start = { System.nanoTime() };
+        boolean successful = false;
+        try (Response response = hubRequestExecutor.execute(RequestFactory.addAcceptEncoding(hubRequest), sentNanos -> start[0] = sentNanos)) {
+            if (cachedHubResponse.isPresent() && response.getStatusCode() != null && HttpStatus.SC_NOT_MODIFIED == response.getStatusCode()) {
+                successful = true;
+                return getNotModifiedJson(key, cache, cachedHubResponse.get());
+            }
+            final String jsonResponse = readContent(endpointMetrics, response);
+            successful = true;
+            final CachedHubResponse freshHubResponse = new CachedHubResponse(jsonResponse, response.getHeaderValue(ETAG_HEADER), response.getHeaderValue(LAST_MODIFIED_HEADER));
+            if (freshHubResponse.hasValidator()) {
+                cache.put(key, freshHubResponse);
+            } else {
+                cache.remove(key);
+            }
+            return jsonResponse;
+        } catch (final IntegrationRestException e) {
+            if (cachedHubResponse.isPresent() && HttpStatus.SC_NOT_MODIFIED == e.getHttpStatusCode()) {
+                successful = true;
+                return getNotModifiedJson(key, cache, cachedHubResponse.get());
+            }
+            throw e;
         } catch (final IOException e) {
             throw new HubIntegrationException(e.getMessage(), e);
+        } finally {
+            recordRequest(endpointMetrics, start[0], successful);
+        }
+    }
+
+    private void recordRequest(final Optional<EndpointMetrics> endpointMetrics, final long start, final boolean successful) {
+        if (endpointMetrics.isPresent()) {
+            endpointMetrics.get().recordRequest(System.nanoTime() - start, successful);
+        }
+    }
+
+    /**
+     * Reads the body through ResponseContentStream so a gzip or deflate body is inflated as it is read, in the charset of the response, and records both its decoded and, when it was compressed, its wire size.
+     */
+    private String readContent(final Optional<EndpointMetrics> endpointMetrics, final Response response) throws IntegrationException, IOException {
+        try (ResponseContentStream content = ResponseContentStream.open(response)) {
+            final String json = IOUtils.toString(content, content.getCharset());
+            if (endpointMetrics.isPresent()) {
+                endpointMetrics.get().recordBytesReceived(content.getDecodedByteCount());
+                if (content.isInflated()) {
+                    endpointMetrics.get().recordCompressedBytesReceived(content.getEncodedByteCount());
+                }
+            }
+            return json;
+        }
+    }
+
+    private String getNotModifiedJson(final String key, final HubResponseCache cache, final CachedHubResponse cachedHubResponse) {
+        cache.getStatistics().recordHit();
+        cache.put(key, cachedHubResponse.revalidated());
+        return cachedHubResponse.getJson();
+    }
+
+    /**
+     * The validators go on a copy of the request, since a caller that sends its request again after the response was evicted would otherwise send stale validators and get a 304 there is nothing cached for.
+     */
+    private Request createConditionalRequest(final Request request, final CachedHubResponse cachedHubResponse) {
+        final Request.Builder requestBuilder = new Request.Builder(request);
+        if (StringUtils.isNotBlank(cachedHubResponse.getETag())) {
+            requestBuilder.addAdditionalHeader(IF_NONE_MATCH_HEADER, cachedHubResponse.getETag());
+        }
+        if (StringUtils.isNotBlank(cachedHubResponse.getLastModified())) {
+            requestBuilder.addAdditionalHeader(IF_MODIFIED_SINCE_HEADER, cachedHubResponse.getLastModified());
         }
+        return requestBuilder.build();
     }
 
     public <T extends HubResponse> T getResponseAs(final JsonElement view, final Class<T> clazz) {
         final T hubItem = gson.fromJson(view, clazz);
-        hubItem.json = gson.toJson(view);
+        if (JsonRetention.DISCARD != jsonRetention) {
+            jsonRetention.retain(hubItem, gson.toJson(view));
+        }
         return hubItem;
     }
 
     public <T extends HubResponse> T getResponseAs(final String view, final Class<T> clazz) {
         final T hubItem = gson.fromJson(view, clazz);
-        hubItem.json = view;
+        jsonRetention.retain(hubItem, view);
         return hubItem;
     }
 
+    /**
+     * Binds the json with an adapter chosen up front, for example by a TypeDiscriminatingDecoder, so the json is parsed only once.
+     */
+    public <T extends HubResponse> T getResponseAs(final String view, final TypeAdapter<? extends T> typeAdapter) throws HubIntegrationException {
+        final T hubItem;
+        try {
+            hubItem = typeAdapter.fromJson(view);
+        } catch (final IOException e) {
+            throw new HubIntegrationException(e.getMessage(), e);
+        }
+        jsonRetention.retain(hubItem, view);
+        return hubItem;
+    }
+
+    public <T extends HubResponse> T getResponseAs(final JsonElement view, final TypeAdapter<? extends T> typeAdapter) {
+        final T hubItem = typeAdapter.fromJsonTree(view);
+        if (JsonRetention.DISCARD != jsonRetention) {
+            jsonRetention.retain(hubItem, gson.toJson(view));
+        }
+        return hubItem;
+    }
+
+    /**
+     * Binds the next value of the reader. When the view does not keep its json the value is bound straight from the stream. When it does, the value is copied token by token into its text as it streams past, the text is kept as
+     * the json of the view and the view is bound from that text, so no JsonElement is built and nothing is serialized a second time. A value whose class is picked by a TypeDiscriminatingDecoder is always copied into its text, so
+     * the decoder can scan the text for the discriminator before the value is bound.
+     */
+    public <T extends HubResponse> T readResponse(final JsonReader jsonReader, final Class<T> clazz, final TypeDiscriminatingDecoder<T> decoder) throws IOException, IntegrationException {
+        if (JsonRetention.DISCARD == jsonRetention && decoder == null) {
+            return gson.getAdapter(clazz).read(jsonReader);
+        }
+        final String json = PagedJsonReader.readRawValue(jsonReader);
+        if (decoder != null) {
+            return getResponseAs(json, decoder.getTypeAdapter(json));
+        }
+        return getResponseAs(json, clazz);
+    }
+
+    public <T extends HubResponse> TypeDiscriminatingDecoder<T> createTypeDiscriminatingDecoder(final Class<T> clazz, final Map<String, Class<? extends T>> typeMap) {
+        return new TypeDiscriminatingDecoder<>(gson, clazz, typeMap);
+    }
+
 }
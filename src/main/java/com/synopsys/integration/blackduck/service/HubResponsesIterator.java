@@ -0,0 +1,137 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.synopsys.integration.blackduck.api.core.HubResponse;
+import com.synopsys.integration.blackduck.exception.HubIntegrationRuntimeException;
+import com.synopsys.integration.blackduck.service.model.HubResponsesPage;
+import com.synopsys.integration.blackduck.service.model.PagedRequest;
+import com.synopsys.integration.exception.IntegrationException;
+import com.synopsys.integration.rest.request.Request;
+
+/**
+ * Walks a paged Hub collection one page at a time. A page is only requested once the items of the previous page have been consumed (or, when prefetching, as soon as the previous page arrives) and each item is released
+ * by the iterator as soon as it is returned. Any IntegrationException is rethrown wrapped in a HubIntegrationRuntimeException.
+ */
+public class HubResponsesIterator<T extends HubResponse> implements Iterator<T>, Closeable {
+    private final HubResponsesTransformer hubResponsesTransformer;
+    private final PagedRequest pagedRequest;
+    private final Class<T> clazz;
+    private final Map<String, Class<? extends T>> typeMap;
+    private final Optional<ExecutorService> prefetchExecutorService;
+
+    private final Deque<T> currentItems = new ArrayDeque<>();
+    private int nextOffset;
+    private boolean lastPageLoaded;
+    private Future<HubResponsesPage<T>> prefetchedPage;
+
+    public HubResponsesIterator(final HubResponsesTransformer hubResponsesTransformer, final PagedRequest pagedRequest, final Class<T> clazz, final Map<String, Class<? extends T>> typeMap) {
+        this.hubResponsesTransformer = hubResponsesTransformer;
+        this.pagedRequest = pagedRequest;
+        this.clazz = clazz;
+        this.typeMap = typeMap;
+        prefetchExecutorService = Optional.empty();
+        nextOffset = pagedRequest.getOffset();
+    }
+
+    public HubResponsesIterator(final HubResponsesTransformer hubResponsesTransformer, final PagedRequest pagedRequest, final Class<T> clazz, final Map<String, Class<? extends T>> typeMap, final ExecutorService prefetchExecutorService) {
+        this.hubResponsesTransformer = hubResponsesTransformer;
+        this.pagedRequest = pagedRequest;
+        this.clazz = clazz;
+        this.typeMap = typeMap;
+        this.prefetchExecutorService = Optional.of(prefetchExecutorService);
+        nextOffset = pagedRequest.getOffset();
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (currentItems.isEmpty()) {
+            if (lastPageLoaded) {
+                return false;
+            }
+            try {
+                loadNextPage();
+            } catch (final IntegrationException e) {
+                lastPageLoaded = true;
+                throw new HubIntegrationRuntimeException(e);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return currentItems.removeFirst();
+    }
+
+    /**
+     * Cancels a prefetched page that will no longer be consumed.
+     */
+    @Override
+    public void close() {
+        lastPageLoaded = true;
+        currentItems.clear();
+        if (prefetchedPage != null) {
+            prefetchedPage.cancel(true);
+            prefetchedPage = null;
+        }
+    }
+
+    private void loadNextPage() throws IntegrationException {
+        final HubResponsesPage<T> page;
+        if (prefetchedPage != null) {
+            page = HubResponsesTransformer.waitForPage(prefetchedPage);
+            prefetchedPage = null;
+        } else {
+            page = hubResponsesTransformer.getPage(createRequest(nextOffset), clazz, typeMap);
+        }
+
+        nextOffset += pagedRequest.getLimit();
+        if (page.getItems().isEmpty() || nextOffset >= page.getTotalCount()) {
+            lastPageLoaded = true;
+        } else if (prefetchExecutorService.isPresent()) {
+            final Request request = createRequest(nextOffset);
+            prefetchedPage = prefetchExecutorService.get().submit(() -> hubResponsesTransformer.getPage(request, clazz, typeMap));
+        }
+        currentItems.addAll(page.getItems());
+    }
+
+    private Request createRequest(final int offset) {
+        return new PagedRequest(pagedRequest.getRequestBuilder(), offset, pagedRequest.getLimit()).createRequest();
+    }
+
+}
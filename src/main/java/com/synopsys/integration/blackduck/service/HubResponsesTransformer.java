@@ -24,9 +24,17 @@
 package com.synopsys.integration.blackduck.service;
 
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
@@ -35,19 +43,56 @@ import com.google.gson.JsonParser;
 import com.synopsys.integration.blackduck.api.core.HubResponse;
 import com.synopsys.integration.blackduck.exception.HubIntegrationException;
 import com.synopsys.integration.blackduck.rest.BlackduckRestConnection;
+import com.synopsys.integration.blackduck.service.metrics.EndpointMetrics;
+import com.synopsys.integration.blackduck.service.model.AdaptivePageSizer;
+import com.synopsys.integration.blackduck.service.model.DistinctHubResponses;
+import com.synopsys.integration.blackduck.service.model.HubResponsesPage;
+import com.synopsys.integration.blackduck.service.model.PagedJsonReader;
 import com.synopsys.integration.blackduck.service.model.PagedRequest;
+import com.synopsys.integration.blackduck.service.model.RequestFactory;
+import com.synopsys.integration.blackduck.service.model.ResponseContentStream;
+import com.synopsys.integration.blackduck.service.model.TypeDiscriminatingDecoder;
 import com.synopsys.integration.exception.IntegrationException;
+import com.synopsys.integration.rest.request.Request;
 import com.synopsys.integration.rest.request.Response;
 
 public class HubResponsesTransformer {
-    private final BlackduckRestConnection restConnection;
+    private final HubRequestExecutor hubRequestExecutor;
     private final HubResponseTransformer hubResponseTransformer;
-    private final JsonParser jsonParser;
+    private final Optional<ExecutorService> executorService;
+    private final int maxPagesInFlight;
+    private final Optional<AdaptivePageSizer> adaptivePageSizer;
 
+    /**
+     * @deprecated The restConnection and jsonParser are no longer used, please use HubResponsesTransformer(final HubResponseTransformer hubResponseTransformer) instead.
+     */
+    @Deprecated
     public HubResponsesTransformer(final BlackduckRestConnection restConnection, final HubResponseTransformer hubResponseTransformer, final JsonParser jsonParser) {
-        this.restConnection = restConnection;
+        this(hubResponseTransformer);
+    }
+
+    public HubResponsesTransformer(final HubResponseTransformer hubResponseTransformer) {
+        this(hubResponseTransformer.getHubRequestExecutor(), hubResponseTransformer, Optional.empty(), 1, Optional.empty());
+    }
+
+    public HubResponsesTransformer(final HubResponseTransformer hubResponseTransformer, final ExecutorService executorService, final int maxPagesInFlight) {
+        this(hubResponseTransformer.getHubRequestExecutor(), hubResponseTransformer, Optional.of(executorService), maxPagesInFlight, Optional.empty());
+    }
+
+    /**
+     * Pages are fetched in parallel and sized adaptively as the options allow.
+     */
+    public HubResponsesTransformer(final HubResponseTransformer hubResponseTransformer, final HubServiceOptions hubServiceOptions) {
+        this(hubResponseTransformer.getHubRequestExecutor(), hubResponseTransformer, hubServiceOptions.getPageFetchExecutorService(), hubServiceOptions.getMaxPagesInFlight(), hubServiceOptions.getAdaptivePageSizer());
+    }
+
+    HubResponsesTransformer(final HubRequestExecutor hubRequestExecutor, final HubResponseTransformer hubResponseTransformer, final Optional<ExecutorService> executorService, final int maxPagesInFlight,
+            final Optional<AdaptivePageSizer> adaptivePageSizer) {
+        this.hubRequestExecutor = hubRequestExecutor;
         this.hubResponseTransformer = hubResponseTransformer;
-        this.jsonParser = jsonParser;
+        this.executorService = executorService;
+        this.maxPagesInFlight = Math.max(1, maxPagesInFlight);
+        this.adaptivePageSizer = adaptivePageSizer;
     }
 
     public <T extends HubResponse> List<T> getResponses(final PagedRequest pagedRequest, final Class<T> clazz) throws IntegrationException {
@@ -60,41 +105,199 @@ public class HubResponsesTransformer {
 
     public <T extends HubResponse> List<T> getResponses(final PagedRequest pagedRequest, final Class<T> clazz, final boolean getAll, final Map<String, Class<? extends T>> typeMap) throws IntegrationException {
         final List<T> allResponses = new LinkedList<>();
-        int totalCount = 0;
-        int currentOffset = pagedRequest.getOffset();
-        try (Response initialResponse = restConnection.executeRequest(pagedRequest.createRequest())) {
-            final String initialJsonResponse = initialResponse.getContentString();
-            final JsonObject initialJsonObject = jsonParser.parse(initialJsonResponse).getAsJsonObject();
-            if (typeMap != null) {
-                allResponses.addAll(getResponses(initialJsonObject, clazz, typeMap));
-            } else {
-                allResponses.addAll(getResponses(initialJsonObject, clazz));
+        // only a full walk at the default limit is resized, a limit the caller chose is left alone
+        final Optional<AdaptivePageSizer> pageSizer = getAll && RequestFactory.DEFAULT_LIMIT == pagedRequest.getLimit() ? adaptivePageSizer : Optional.empty();
+        final Request.Builder requestBuilder = pagedRequest.getRequestBuilder();
+        final int initialLimit = pageSizer.isPresent() ? pageSizer.get().getLimitForUri(requestBuilder.build().getUri()) : pagedRequest.getLimit();
+        final Request initialRequest = new PagedRequest(requestBuilder, pagedRequest.getOffset(), initialLimit).createRequest();
+        final String uri = initialRequest.getUri();
+        final HubResponsesPage<T> initialPage = getPage(initialRequest, clazz, typeMap);
+        recordPageSize(pageSizer, uri, initialPage);
+        allResponses.addAll(initialPage.getItems());
+        int pageCount = 1;
+        if (!getAll) {
+            recordCollection(initialRequest, pageCount);
+            return allResponses;
+        }
+
+        if (executorService.isPresent()) {
+            pageCount += getRemainingPagesInParallel(allResponses, requestBuilder, uri, pagedRequest.getOffset() + initialLimit, pageSizer, pagedRequest.getLimit(), clazz, typeMap, initialPage.getTotalCount());
+        } else {
+            final int totalCount = initialPage.getTotalCount();
+            int currentOffset = pagedRequest.getOffset();
+            int currentLimit = initialLimit;
+            while (allResponses.size() < totalCount && currentOffset < totalCount) {
+                currentOffset += currentLimit;
+                currentLimit = pageSizer.isPresent() ? pageSizer.get().getLimitForUri(uri) : pagedRequest.getLimit();
+                final PagedRequest offsetPagedRequest = new PagedRequest(requestBuilder, currentOffset, currentLimit);
+                final HubResponsesPage<T> page = getPage(offsetPagedRequest, clazz, typeMap);
+                recordPageSize(pageSizer, uri, page);
+                allResponses.addAll(page.getItems());
+                pageCount++;
             }
-            if (getAll) {
-                totalCount = initialJsonObject.get("totalCount").getAsInt();
+        }
+        recordCollection(initialRequest, pageCount);
+        return allResponses;
+    }
+
+    /**
+     * Reads every page like getResponses, but for collections that change while they are read (notifications, code locations during scans). Items are kept once per _meta.href, and when a page reports a lower totalCount
+     * than the page before it, the items that moved below that page's offset are re-read by stepping back by the difference, so nothing is skipped. The pages are read one at a time.
+     */
+    public <T extends HubResponse> List<T> getConsistentResponses(final PagedRequest pagedRequest, final Class<T> clazz, final Map<String, Class<? extends T>> typeMap) throws IntegrationException {
+        final DistinctHubResponses<T> distinctResponses = new DistinctHubResponses<>();
+        final Request.Builder requestBuilder = pagedRequest.getRequestBuilder();
+        final int startOffset = pagedRequest.getOffset();
+        final int limit = pagedRequest.getLimit();
+        final Request initialRequest = pagedRequest.createRequest();
+        HubResponsesPage<T> page = getPage(initialRequest, clazz, typeMap);
+        distinctResponses.addAll(page.getItems());
+        int pageCount = 1;
+        int previousTotalCount = page.getTotalCount();
+        int currentOffset = startOffset + limit;
+        while (currentOffset < previousTotalCount) {
+            page = getPage(new PagedRequest(requestBuilder, currentOffset, limit), clazz, typeMap);
+            distinctResponses.addAll(page.getItems());
+            pageCount++;
+            final int totalCount = page.getTotalCount();
+            if (totalCount < previousTotalCount) {
+                // items removed below this page moved down past its start, read them again (the overlap is removed by href)
+                currentOffset = Math.max(startOffset, currentOffset - (previousTotalCount - totalCount));
+            } else if (page.getItems().isEmpty()) {
+                break;
             } else {
-                return allResponses;
+                currentOffset += limit;
             }
-            while (allResponses.size() < totalCount && currentOffset < totalCount) {
-                currentOffset += pagedRequest.getLimit();
-                final PagedRequest offsetPagedRequest = new PagedRequest(pagedRequest.getRequestBuilder(), currentOffset, pagedRequest.getLimit());
-                try (Response response = restConnection.executeRequest(offsetPagedRequest.createRequest())) {
-                    final String jsonResponse = response.getContentString();
-                    final JsonObject jsonObject = jsonParser.parse(jsonResponse).getAsJsonObject();
-                    if (typeMap != null) {
-                        allResponses.addAll(getResponses(jsonObject, clazz, typeMap));
-                    } else {
-                        allResponses.addAll(getResponses(jsonObject, clazz));
-                    }
-                } catch (final IOException e) {
-                    throw new HubIntegrationException(e);
+            previousTotalCount = totalCount;
+        }
+        recordCollection(initialRequest, pageCount);
+        return distinctResponses.getResponses();
+    }
+
+    private <T extends HubResponse> void recordPageSize(final Optional<AdaptivePageSizer> pageSizer, final String uri, final HubResponsesPage<T> page) {
+        if (pageSizer.isPresent()) {
+            pageSizer.get().recordPageForUri(uri, page.getItems().size(), page.getByteCount(), page.getElapsedNanos());
+        }
+    }
+
+    private void recordCollection(final Request initialRequest, final int pageCount) {
+        final Optional<EndpointMetrics> endpointMetrics = hubRequestExecutor.getEndpointMetrics(initialRequest.getUri());
+        if (endpointMetrics.isPresent()) {
+            endpointMetrics.get().recordCollection(pageCount);
+        }
+    }
+
+    public <T extends HubResponse> HubResponsesPage<T> getPage(final PagedRequest pagedRequest, final Class<T> clazz, final Map<String, Class<? extends T>> typeMap) throws IntegrationException {
+        return getPage(pagedRequest.createRequest(), clazz, typeMap);
+    }
+
+    public <T extends HubResponse> HubResponsesPage<T> getPage(final Request request, final Class<T> clazz, final Map<String, Class<? extends T>> typeMap) throws IntegrationException {
+        final Optional<EndpointMetrics> endpointMetrics = hubRequestExecutor.getEndpointMetrics(request.getUri());
+        // the page is timed from when it is sent, so neither the page sizer nor the metrics count the wait for the concurrency limit
+        final long[] start = { System.nanoTime() };
+        // the items are decoded while the body is still being read, so the decode time is summed per item and taken out of the network time
+        final long[] decodeNanos = new long[1];
+        boolean successful = false;
+        try (Response response = hubRequestExecutor.execute(RequestFactory.addAcceptEncoding(request), sentNanos -> start[0] = sentNanos);
+                ResponseContentStream content = ResponseContentStream.open(response);
+                Reader reader = new InputStreamReader(content, content.getCharset())) {
+            final List<T> items = new LinkedList<>();
+            final PagedJsonReader pagedJsonReader = new PagedJsonReader(reader);
+            final TypeDiscriminatingDecoder<T> decoder = typeMap == null ? null : hubResponseTransformer.createTypeDiscriminatingDecoder(clazz, typeMap);
+            final int totalCount = pagedJsonReader.read(jsonReader -> {
+                final long decodeStart = System.nanoTime();
+                items.add(hubResponseTransformer.readResponse(jsonReader, clazz, decoder));
+                decodeNanos[0] += System.nanoTime() - decodeStart;
+            });
+            if (endpointMetrics.isPresent()) {
+                endpointMetrics.get().recordBytesReceived(content.getDecodedByteCount());
+                if (content.isInflated()) {
+                    endpointMetrics.get().recordCompressedBytesReceived(content.getEncodedByteCount());
                 }
+                endpointMetrics.get().recordPage();
             }
+            successful = true;
+            return new HubResponsesPage<>(items, totalCount, content.getDecodedByteCount(), System.nanoTime() - start[0]);
         } catch (final IOException e) {
             throw new HubIntegrationException(e.getMessage(), e);
+        } finally {
+            if (endpointMetrics.isPresent()) {
+                endpointMetrics.get().recordRequest(System.nanoTime() - start[0] - decodeNanos[0], successful);
+                endpointMetrics.get().recordDecode(decodeNanos[0]);
+            }
         }
-        return allResponses;
+    }
 
+    /**
+     * The pages after the first are requested concurrently, with at most maxPagesInFlight outstanding at a time, and are appended to allResponses in offset order. Every page reports the current totalCount, so if items are
+     * added or removed on the server during the walk, the remaining offsets are extended or the now out of range requests are cancelled.
+     * @return the number of pages read
+     */
+    private <T extends HubResponse> int getRemainingPagesInParallel(final List<T> allResponses, final Request.Builder requestBuilder, final String uri, final int startOffset, final Optional<AdaptivePageSizer> pageSizer,
+            final int defaultLimit, final Class<T> clazz, final Map<String, Class<? extends T>> typeMap, final int initialTotalCount) throws IntegrationException {
+        final Deque<PendingPage<T>> pendingPages = new ArrayDeque<>();
+        int totalCount = initialTotalCount;
+        int nextOffset = startOffset;
+        int pageCount = 0;
+        try {
+            while (true) {
+                while (pendingPages.size() < maxPagesInFlight && nextOffset < totalCount) {
+                    final int limit = pageSizer.isPresent() ? pageSizer.get().getLimitForUri(uri) : defaultLimit;
+                    // the Request is built on this thread since the Request.Builder is shared between all the pages
+                    final Request request = new PagedRequest(requestBuilder, nextOffset, limit).createRequest();
+                    final Future<HubResponsesPage<T>> future = executorService.get().submit(() -> getPage(request, clazz, typeMap));
+                    pendingPages.addLast(new PendingPage<>(nextOffset, limit, future));
+                    nextOffset += limit;
+                }
+                if (pendingPages.isEmpty()) {
+                    break;
+                }
+
+                final PendingPage<T> pendingPage = pendingPages.removeFirst();
+                final HubResponsesPage<T> page = waitForPage(pendingPage.future);
+                recordPageSize(pageSizer, uri, page);
+                allResponses.addAll(page.getItems());
+                pageCount++;
+                totalCount = page.getTotalCount();
+                if (page.getItems().isEmpty() || totalCount <= pendingPage.offset + pendingPage.limit) {
+                    // the collection ended at (or shrank to) this page, so anything still outstanding is past the end
+                    break;
+                }
+                while (!pendingPages.isEmpty() && pendingPages.peekLast().offset >= totalCount) {
+                    final PendingPage<T> pastTheEnd = pendingPages.removeLast();
+                    pastTheEnd.future.cancel(true);
+                    nextOffset = pastTheEnd.offset;
+                }
+            }
+        } finally {
+            cancelAll(pendingPages);
+        }
+        return pageCount;
+    }
+
+    /**
+     * Waits for a page fetched on another thread and rethrows the IntegrationException it failed with.
+     */
+    static <T extends HubResponse> HubResponsesPage<T> waitForPage(final Future<HubResponsesPage<T>> future) throws IntegrationException {
+        try {
+            return future.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HubIntegrationException("Interrupted while waiting for a page of responses.", e);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IntegrationException) {
+                throw (IntegrationException) cause;
+            }
+            throw new HubIntegrationException(cause.getMessage(), cause);
+        }
+    }
+
+    private <T extends HubResponse> void cancelAll(final Deque<PendingPage<T>> pendingPages) {
+        for (final PendingPage<T> pendingPage : pendingPages) {
+            pendingPage.future.cancel(true);
+        }
+        pendingPages.clear();
     }
 
     public <T extends HubResponse> List<T> getResponses(final JsonArray responsesArray, final Class<T> clazz) {
@@ -121,19 +324,24 @@ public class HubResponsesTransformer {
         final LinkedList<T> responseList = new LinkedList<>();
         final JsonElement responsesElement = jsonObject.get("items");
         final JsonArray responsesArray = responsesElement.getAsJsonArray();
+        final TypeDiscriminatingDecoder<T> decoder = hubResponseTransformer.createTypeDiscriminatingDecoder(clazz, typeMap);
         for (final JsonElement element : responsesArray) {
-            Class<? extends T> actualClass = clazz;
-            final JsonObject elementObject = element.getAsJsonObject();
-            if (elementObject.has("type")) {
-                final String type = elementObject.get("type").getAsString();
-                if (typeMap.containsKey(type)) {
-                    actualClass = typeMap.get(type);
-                }
-            }
-            final T item = hubResponseTransformer.getResponseAs(element, actualClass);
+            final T item = hubResponseTransformer.getResponseAs(element, decoder.getTypeAdapter(element));
             responseList.add(item);
         }
         return responseList;
     }
 
+    private static class PendingPage<T extends HubResponse> {
+        private final int offset;
+        private final int limit;
+        private final Future<HubResponsesPage<T>> future;
+
+        private PendingPage(final int offset, final int limit, final Future<HubResponsesPage<T>> future) {
+            this.offset = offset;
+            this.limit = limit;
+            this.future = future;
+        }
+    }
+
 }
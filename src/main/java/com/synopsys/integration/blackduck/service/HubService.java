@@ -29,6 +29,10 @@ import java.net.URL;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -44,8 +48,10 @@ import com.synopsys.integration.blackduck.api.core.LinkMultipleResponses;
 import com.synopsys.integration.blackduck.api.core.LinkSingleResponse;
 import com.synopsys.integration.blackduck.api.core.ResourceLink;
 import com.synopsys.integration.blackduck.api.core.ResourceMetadata;
+import com.synopsys.integration.blackduck.api.view.HubResponseJsonStore;
 import com.synopsys.integration.blackduck.api.view.MetaHandler;
 import com.synopsys.integration.blackduck.exception.HubIntegrationException;
+import com.synopsys.integration.blackduck.exception.HubIntegrationRuntimeException;
 import com.synopsys.integration.blackduck.rest.BlackduckRestConnection;
 import com.synopsys.integration.blackduck.service.model.PagedRequest;
 import com.synopsys.integration.blackduck.service.model.RequestFactory;
@@ -65,15 +71,21 @@ public class HubService {
     private final URL hubBaseUrl;
     private final JsonParser jsonParser;
     private final Gson gson;
+    private final HubServiceOptions hubServiceOptions;
 
     public HubService(final IntLogger logger, final BlackduckRestConnection restConnection, final Gson gson, final JsonParser jsonParser) {
+        this(logger, restConnection, gson, jsonParser, HubServiceOptions.defaultOptions());
+    }
+
+    public HubService(final IntLogger logger, final BlackduckRestConnection restConnection, final Gson gson, final JsonParser jsonParser, final HubServiceOptions hubServiceOptions) {
         this.restConnection = restConnection;
         hubBaseUrl = restConnection.getBaseUrl();
         this.jsonParser = jsonParser;
         this.gson = gson;
+        this.hubServiceOptions = hubServiceOptions;
         metaHandler = new MetaHandler(logger);
-        hubResponseTransformer = new HubResponseTransformer(restConnection, gson, jsonParser);
-        hubResponsesTransformer = new HubResponsesTransformer(restConnection, hubResponseTransformer, jsonParser);
+        hubResponseTransformer = new HubResponseTransformer(restConnection, gson, jsonParser, hubServiceOptions, logger);
+        hubResponsesTransformer = new HubResponsesTransformer(hubResponseTransformer, hubServiceOptions);
     }
 
     public BlackduckRestConnection getRestConnection() {
@@ -92,10 +104,21 @@ public class HubService {
         return gson;
     }
 
+    public HubServiceOptions getHubServiceOptions() {
+        return hubServiceOptions;
+    }
+
     public String convertToJson(final Object obj) {
         return gson.toJson(obj);
     }
 
+    /**
+     * @return the raw json of the response, however it was retained, or the response serialized by Gson if the raw json was discarded.
+     */
+    public String getJson(final HubResponse hubResponse) {
+        return HubResponseJsonStore.getJson(hubResponse).orElseGet(() -> gson.toJson(hubResponse));
+    }
+
     public boolean hasLink(final HubView view, final String linkKey) throws HubIntegrationException {
         return metaHandler.hasLink(view, linkKey);
     }
@@ -160,6 +183,20 @@ public class HubService {
         return hubResponsesTransformer.getResponses(new PagedRequest(requestBuilder), hubPathMultipleResponses.responseClass, getAll, typeMap);
     }
 
+    /**
+     * Reads every item of a collection that may change while it is read, without duplicates and without skipping the items that move between pages.
+     */
+    public <T extends HubResponse> List<T> getAllResponsesConsistently(final HubPathMultipleResponses<T> hubPathMultipleResponses, final Request.Builder requestBuilder) throws IntegrationException {
+        return getAllResponsesConsistently(hubPathMultipleResponses, requestBuilder, null);
+    }
+
+    public <T extends HubResponse> List<T> getAllResponsesConsistently(final HubPathMultipleResponses<T> hubPathMultipleResponses, final Request.Builder requestBuilder, final Map<String, Class<? extends T>> typeMap)
+            throws IntegrationException {
+        final String uri = pieceTogetherUri(hubBaseUrl, hubPathMultipleResponses.hubPath.getPath());
+        requestBuilder.uri(uri);
+        return hubResponsesTransformer.getConsistentResponses(new PagedRequest(requestBuilder), hubPathMultipleResponses.responseClass, typeMap);
+    }
+
     public <T extends HubResponse> T getResponse(final HubPathSingleResponse<T> hubPathSingleResponse) throws IntegrationException {
         final String uri = pieceTogetherUri(hubBaseUrl, hubPathSingleResponse.hubPath.getPath());
         final Request request = RequestFactory.createCommonGetRequest(uri);
@@ -230,6 +267,14 @@ public class HubService {
         return hubResponsesTransformer.getResponses(new PagedRequest(requestBuilder), responseClass, getAll, null);
     }
 
+    public <T extends HubResponse> List<T> getAllResponsesConsistently(final Request.Builder requestBuilder, final Class<T> responseClass) throws IntegrationException {
+        return getAllResponsesConsistently(requestBuilder, responseClass, null);
+    }
+
+    public <T extends HubResponse> List<T> getAllResponsesConsistently(final Request.Builder requestBuilder, final Class<T> responseClass, final Map<String, Class<? extends T>> typeMap) throws IntegrationException {
+        return hubResponsesTransformer.getConsistentResponses(new PagedRequest(requestBuilder), responseClass, typeMap);
+    }
+
     public <T extends HubResponse> T getResponse(final String uri, final Class<T> responseClass) throws IntegrationException {
         final Request request = RequestFactory.createCommonGetRequest(uri);
         return hubResponseTransformer.getResponse(request, responseClass);
@@ -243,16 +288,63 @@ public class HubService {
         return hubResponseTransformer.getResponse(request, uriSingleResponse.responseClass);
     }
 
+    // ------------------------------------------------
+    // streaming responses one page at a time, the Stream should be closed if it is not fully consumed
+    // ------------------------------------------------
+    public <T extends HubResponse> Stream<T> streamResponses(final HubPathMultipleResponses<T> hubPathMultipleResponses) {
+        final String uri = pieceTogetherStreamUri(hubPathMultipleResponses.hubPath);
+        return streamResponses(RequestFactory.createCommonGetRequestBuilder(uri), hubPathMultipleResponses.responseClass, null);
+    }
+
+    public <T extends HubResponse> Stream<T> streamResponses(final HubPathMultipleResponses<T> hubPathMultipleResponses, final Request.Builder requestBuilder) {
+        final String uri = pieceTogetherStreamUri(hubPathMultipleResponses.hubPath);
+        requestBuilder.uri(uri);
+        return streamResponses(requestBuilder, hubPathMultipleResponses.responseClass, null);
+    }
+
+    public <T extends HubResponse> Stream<T> streamResponses(final HubView hubView, final LinkMultipleResponses<T> linkMultipleResponses) {
+        final String uri = metaHandler.getFirstLinkSafely(hubView, linkMultipleResponses.link);
+        if (StringUtils.isBlank(uri)) {
+            return Stream.empty();
+        }
+        return streamResponses(RequestFactory.createCommonGetRequestBuilder(uri), linkMultipleResponses.responseClass, null);
+    }
+
+    public <T extends HubResponse> Stream<T> streamResponses(final String uri, final Class<T> responseClass) {
+        return streamResponses(RequestFactory.createCommonGetRequestBuilder(uri), responseClass, null);
+    }
+
+    public <T extends HubResponse> Stream<T> streamResponses(final Request.Builder requestBuilder, final Class<T> responseClass, final Map<String, Class<? extends T>> typeMap) {
+        final HubResponsesIterator<T> hubResponsesIterator = getResponsesIterator(requestBuilder, responseClass, typeMap);
+        final Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(hubResponsesIterator, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(hubResponsesIterator::close);
+    }
+
+    public <T extends HubResponse> HubResponsesIterator<T> getResponsesIterator(final Request.Builder requestBuilder, final Class<T> responseClass, final Map<String, Class<? extends T>> typeMap) {
+        final PagedRequest pagedRequest = new PagedRequest(requestBuilder);
+        if (hubServiceOptions.isPrefetchStreamedPages() && hubServiceOptions.getPageFetchExecutorService().isPresent()) {
+            return new HubResponsesIterator<>(hubResponsesTransformer, pagedRequest, responseClass, typeMap, hubServiceOptions.getPageFetchExecutorService().get());
+        }
+        return new HubResponsesIterator<>(hubResponsesTransformer, pagedRequest, responseClass, typeMap);
+    }
+
     // ------------------------------------------------
     // handling plain requests
     // ------------------------------------------------
+    /**
+     * @return the content at the uri, as text, from the response caches when they have it
+     */
+    public String getContentString(final String uri) throws IntegrationException {
+        return hubResponseTransformer.getContentString(RequestFactory.createCommonGetRequest(uri));
+    }
+
     public Response executeGetRequest(final String uri) throws IntegrationException {
-        return restConnection.executeRequest(RequestFactory.createCommonGetRequest(uri));
+        return executeRequest(RequestFactory.createCommonGetRequest(uri));
     }
 
     public Response executeGetRequest(final HubPath path) throws IntegrationException {
         final String uri = pieceTogetherUri(restConnection.getBaseUrl(), path.getPath());
-        return restConnection.executeRequest(RequestFactory.createCommonGetRequest(uri));
+        return executeRequest(RequestFactory.createCommonGetRequest(uri));
     }
 
     public Response executeRequest(final HubPath path, final Request.Builder requestBuilder) throws IntegrationException {
@@ -262,7 +354,7 @@ public class HubService {
     }
 
     public Response executeRequest(final Request request) throws IntegrationException {
-        return restConnection.executeRequest(request);
+        return hubResponseTransformer.getHubRequestExecutor().executeRequest(request);
     }
 
     // ------------------------------------------------
@@ -282,6 +374,17 @@ public class HubService {
         }
     }
 
+    /**
+     * A stream reports its failures as a HubIntegrationRuntimeException, like the HubResponsesIterator behind it.
+     */
+    private String pieceTogetherStreamUri(final HubPath hubPath) {
+        try {
+            return pieceTogetherUri(hubBaseUrl, hubPath.getPath());
+        } catch (final HubIntegrationException e) {
+            throw new HubIntegrationRuntimeException(e);
+        }
+    }
+
     private String pieceTogetherUri(final URL baseURL, final String spec) throws HubIntegrationException {
         final URL url;
         try {
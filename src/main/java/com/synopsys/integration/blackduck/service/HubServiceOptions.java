@@ -0,0 +1,328 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
+import com.synopsys.integration.blackduck.service.cache.HubResponseCache;
+import com.synopsys.integration.blackduck.service.cache.PersistentHubResponseCache;
+import com.synopsys.integration.blackduck.service.metrics.HubMetricsRegistry;
+import com.synopsys.integration.blackduck.service.model.AdaptiveConcurrencyLimiter;
+import com.synopsys.integration.blackduck.service.model.AdaptivePageSizer;
+import com.synopsys.integration.blackduck.service.model.HubExecutors;
+import com.synopsys.integration.blackduck.service.model.JsonRetention;
+import com.synopsys.integration.blackduck.service.model.SingleFlight;
+import com.synopsys.integration.util.Stringable;
+
+/**
+ * Options shared by every HubService created from a HubServicesFactory.
+ */
+public class HubServiceOptions extends Stringable {
+    public static final int DEFAULT_MAX_PAGES_IN_FLIGHT = 4;
+
+    private final Optional<ExecutorService> pageFetchExecutorService;
+    private final int maxPagesInFlight;
+    private final boolean prefetchStreamedPages;
+    private final JsonRetention jsonRetention;
+    private final Optional<HubResponseCache> responseCache;
+    private final Optional<SingleFlight<String, String>> inFlightGets;
+    private final Optional<ExecutorService> sharedExecutorService;
+    private final Optional<AdaptiveConcurrencyLimiter> concurrencyLimiter;
+    private final Optional<HubMetricsRegistry> metricsRegistry;
+    private final Optional<AdaptivePageSizer> adaptivePageSizer;
+    private final Optional<PersistentHubResponseCache> persistentResponseCache;
+
+    public static HubServiceOptions defaultOptions() {
+        return new Builder().build();
+    }
+
+    private HubServiceOptions(final Optional<ExecutorService> pageFetchExecutorService, final int maxPagesInFlight, final boolean prefetchStreamedPages, final JsonRetention jsonRetention, final Optional<HubResponseCache> responseCache,
+            final Optional<SingleFlight<String, String>> inFlightGets, final Optional<ExecutorService> sharedExecutorService,
+            final Optional<AdaptiveConcurrencyLimiter> concurrencyLimiter, final Optional<HubMetricsRegistry> metricsRegistry, final Optional<AdaptivePageSizer> adaptivePageSizer,
+            final Optional<PersistentHubResponseCache> persistentResponseCache) {
+        this.pageFetchExecutorService = pageFetchExecutorService;
+        this.maxPagesInFlight = maxPagesInFlight;
+        this.prefetchStreamedPages = prefetchStreamedPages;
+        this.jsonRetention = jsonRetention;
+        this.responseCache = responseCache;
+        this.inFlightGets = inFlightGets;
+        this.sharedExecutorService = sharedExecutorService;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.metricsRegistry = metricsRegistry;
+        this.adaptivePageSizer = adaptivePageSizer;
+        this.persistentResponseCache = persistentResponseCache;
+    }
+
+    /**
+     * When present, the pages after the first one are requested concurrently on this executor.
+     */
+    public Optional<ExecutorService> getPageFetchExecutorService() {
+        return pageFetchExecutorService;
+    }
+
+    public int getMaxPagesInFlight() {
+        return maxPagesInFlight;
+    }
+
+    /**
+     * When true, and a page fetch executor is present, streamed collections request the next page while the current page is being consumed.
+     */
+    public boolean isPrefetchStreamedPages() {
+        return prefetchStreamedPages;
+    }
+
+    public JsonRetention getJsonRetention() {
+        return jsonRetention;
+    }
+
+    /**
+     * When present, single responses are revalidated against this cache with conditional GET requests.
+     */
+    public Optional<HubResponseCache> getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * When present, concurrent GETs of the same request (uri, query and headers, see CacheKeyFactory) made by any HubService sharing these options are coalesced into one request.
+     */
+    public Optional<SingleFlight<String, String>> getInFlightGets() {
+        return inFlightGets;
+    }
+
+    /**
+     * When present, the fan out paths of the services created by a HubServicesFactory (buckets, phone home, and project lookups from createAsyncProjectService) run on this executor instead of sequentially. Scans never run here.
+     */
+    public Optional<ExecutorService> getSharedExecutorService() {
+        return sharedExecutorService;
+    }
+
+    /**
+     * When present, every request made by any HubService sharing these options waits for this limiter, so the load one JVM puts on the Hub adapts to how the Hub responds.
+     */
+    public Optional<AdaptiveConcurrencyLimiter> getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    /**
+     * When present, every request made by any HubService sharing these options is recorded in this registry, per templated endpoint.
+     */
+    public Optional<HubMetricsRegistry> getMetricsRegistry() {
+        return metricsRegistry;
+    }
+
+    /**
+     * When present, full walks of a collection at the default limit use the page size this sizer has learned for the endpoint, shared by every HubService sharing these options.
+     */
+    public Optional<AdaptivePageSizer> getAdaptivePageSizer() {
+        return adaptivePageSizer;
+    }
+
+    /**
+     * When present, the immutable resources it accepts are read from and written to disk, keyed by the Hub's version, without any request once they are there.
+     */
+    public Optional<PersistentHubResponseCache> getPersistentResponseCache() {
+        return persistentResponseCache;
+    }
+
+    public static class Builder {
+        private ExecutorService pageFetchExecutorService;
+        private int maxPagesInFlight = DEFAULT_MAX_PAGES_IN_FLIGHT;
+        private boolean prefetchStreamedPages;
+        private JsonRetention jsonRetention = JsonRetention.RETAIN;
+        private HubResponseCache responseCache;
+        private boolean coalesceGetRequests;
+        private ExecutorService sharedExecutorService;
+        private boolean virtualThreadExecution;
+        private int maxConcurrency = HubExecutors.DEFAULT_MAX_CONCURRENCY;
+        private AdaptiveConcurrencyLimiter concurrencyLimiter;
+        private HubMetricsRegistry metricsRegistry;
+        private AdaptivePageSizer adaptivePageSizer;
+        private PersistentHubResponseCache persistentResponseCache;
+
+        public HubServiceOptions build() {
+            if (maxPagesInFlight < 1) {
+                throw new IllegalStateException("The maximum number of pages in flight must be at least 1.");
+            }
+            if (jsonRetention == null) {
+                throw new IllegalStateException("A json retention must be provided.");
+            }
+            if (virtualThreadExecution && maxConcurrency < 1) {
+                throw new IllegalStateException("The maximum concurrency must be at least 1.");
+            }
+            ExecutorService executorService = sharedExecutorService;
+            if (executorService == null && virtualThreadExecution) {
+                executorService = HubExecutors.createSharedExecutorService(maxConcurrency);
+            }
+            return new HubServiceOptions(Optional.ofNullable(pageFetchExecutorService), maxPagesInFlight, prefetchStreamedPages, jsonRetention, Optional.ofNullable(responseCache),
+                    coalesceGetRequests ? Optional.of(new SingleFlight<>()) : Optional.empty(), Optional.ofNullable(executorService),
+                    Optional.ofNullable(concurrencyLimiter), Optional.ofNullable(metricsRegistry), Optional.ofNullable(adaptivePageSizer),
+                    Optional.ofNullable(persistentResponseCache));
+        }
+
+        public ExecutorService getPageFetchExecutorService() {
+            return pageFetchExecutorService;
+        }
+
+        /**
+         * NOTE: it is up to the caller to shutdown the executor
+         */
+        public Builder pageFetchExecutorService(final ExecutorService pageFetchExecutorService) {
+            this.pageFetchExecutorService = pageFetchExecutorService;
+            return this;
+        }
+
+        public int getMaxPagesInFlight() {
+            return maxPagesInFlight;
+        }
+
+        public Builder maxPagesInFlight(final int maxPagesInFlight) {
+            this.maxPagesInFlight = maxPagesInFlight;
+            return this;
+        }
+
+        public boolean isPrefetchStreamedPages() {
+            return prefetchStreamedPages;
+        }
+
+        public Builder prefetchStreamedPages(final boolean prefetchStreamedPages) {
+            this.prefetchStreamedPages = prefetchStreamedPages;
+            return this;
+        }
+
+        public JsonRetention getJsonRetention() {
+            return jsonRetention;
+        }
+
+        public Builder jsonRetention(final JsonRetention jsonRetention) {
+            this.jsonRetention = jsonRetention;
+            return this;
+        }
+
+        public HubResponseCache getResponseCache() {
+            return responseCache;
+        }
+
+        public Builder responseCache(final HubResponseCache responseCache) {
+            this.responseCache = responseCache;
+            return this;
+        }
+
+        public boolean isCoalesceGetRequests() {
+            return coalesceGetRequests;
+        }
+
+        public Builder coalesceGetRequests(final boolean coalesceGetRequests) {
+            this.coalesceGetRequests = coalesceGetRequests;
+            return this;
+        }
+
+        public ExecutorService getSharedExecutorService() {
+            return sharedExecutorService;
+        }
+
+        /**
+         * NOTE: it is up to the caller to shutdown the executor
+         */
+        public Builder sharedExecutorService(final ExecutorService sharedExecutorService) {
+            this.sharedExecutorService = sharedExecutorService;
+            return this;
+        }
+
+        public boolean isVirtualThreadExecution() {
+            return virtualThreadExecution;
+        }
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        /**
+         * Runs the fan out paths on a shared virtual thread per task executor (or daemon platform threads on JDKs without virtual threads) with at most maxConcurrency tasks running at once.
+         */
+        public Builder virtualThreadExecution(final int maxConcurrency) {
+            this.virtualThreadExecution = true;
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        public AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+            return concurrencyLimiter;
+        }
+
+        public Builder concurrencyLimiter(final AdaptiveConcurrencyLimiter concurrencyLimiter) {
+            this.concurrencyLimiter = concurrencyLimiter;
+            return this;
+        }
+
+        public Builder adaptiveConcurrencyLimit() {
+            return concurrencyLimiter(new AdaptiveConcurrencyLimiter());
+        }
+
+        public HubMetricsRegistry getMetricsRegistry() {
+            return metricsRegistry;
+        }
+
+        public Builder metricsRegistry(final HubMetricsRegistry metricsRegistry) {
+            this.metricsRegistry = metricsRegistry;
+            return this;
+        }
+
+        public AdaptivePageSizer getAdaptivePageSizer() {
+            return adaptivePageSizer;
+        }
+
+        public Builder adaptivePageSizer(final AdaptivePageSizer adaptivePageSizer) {
+            this.adaptivePageSizer = adaptivePageSizer;
+            return this;
+        }
+
+        public Builder adaptivePageSizing() {
+            return adaptivePageSizer(new AdaptivePageSizer());
+        }
+
+        public Builder adaptivePageSizing(final int minPageSize, final int maxPageSize) {
+            return adaptivePageSizer(new AdaptivePageSizer(minPageSize, maxPageSize));
+        }
+
+        public PersistentHubResponseCache getPersistentResponseCache() {
+            return persistentResponseCache;
+        }
+
+        /**
+         * NOTE: it is up to the caller to close the cache
+         */
+        public Builder persistentResponseCache(final PersistentHubResponseCache persistentResponseCache) {
+            this.persistentResponseCache = persistentResponseCache;
+            return this;
+        }
+
+        public Builder parallelPageFetching(final ExecutorService pageFetchExecutorService, final int maxPagesInFlight) {
+            this.pageFetchExecutorService = pageFetchExecutorService;
+            this.maxPagesInFlight = maxPagesInFlight;
+            return this;
+        }
+    }
+
+}
@@ -34,10 +34,15 @@ import org.apache.http.impl.client.HttpClientBuilder;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonParser;
+import com.synopsys.integration.blackduck.configuration.HubServerConfig;
 import com.synopsys.integration.blackduck.notification.content.detail.NotificationContentDetailFactory;
 import com.synopsys.integration.blackduck.rest.BlackduckRestConnection;
 import com.synopsys.integration.blackduck.service.bucket.HubBucketService;
 import com.synopsys.integration.blackduck.service.model.BlackDuckPhoneHomeCallable;
+import com.synopsys.integration.blackduck.service.model.HubExecutors;
+import com.synopsys.integration.blackduck.signaturescanner.ScanJobManager;
+import com.synopsys.integration.blackduck.signaturescanner.command.ScanResourceBudget;
+import com.synopsys.integration.exception.EncryptionException;
 import com.synopsys.integration.exception.IntegrationException;
 import com.synopsys.integration.log.IntLogger;
 import com.synopsys.integration.phonehome.PhoneHomeCallable;
@@ -55,6 +60,7 @@ public class HubServicesFactory {
     private final JsonParser jsonParser;
     private final BlackduckRestConnection restConnection;
     private final IntLogger logger;
+    private final HubServiceOptions hubServiceOptions;
 
     public static Gson createDefaultGson() {
         return createDefaultGsonBuilder().create();
@@ -69,12 +75,17 @@ public class HubServicesFactory {
     }
 
     public HubServicesFactory(final Gson gson, final JsonParser jsonParser, final BlackduckRestConnection restConnection, final IntLogger logger) {
+        this(gson, jsonParser, restConnection, logger, HubServiceOptions.defaultOptions());
+    }
+
+    public HubServicesFactory(final Gson gson, final JsonParser jsonParser, final BlackduckRestConnection restConnection, final IntLogger logger, final HubServiceOptions hubServiceOptions) {
         intEnvironmentVariables = new IntEnvironmentVariables();
 
         this.gson = gson;
         this.jsonParser = jsonParser;
         this.restConnection = restConnection;
         this.logger = logger;
+        this.hubServiceOptions = hubServiceOptions;
     }
 
     public void addEnvironmentVariable(final String key, final String value) {
@@ -89,6 +100,13 @@ public class HubServicesFactory {
         return new BinaryScannerService(createHubService(), logger);
     }
 
+    /**
+     * Uses the shared executor of the HubServiceOptions, or a single daemon thread when there is none.
+     */
+    public PhoneHomeService createPhoneHomeService() {
+        return createPhoneHomeService(hubServiceOptions.getSharedExecutorService().orElseGet(() -> HubExecutors.createPlatformExecutorService(1)));
+    }
+
     public PhoneHomeService createPhoneHomeService(final ExecutorService executorService) {
         return new PhoneHomeService(logger, executorService);
     }
@@ -147,7 +165,23 @@ public class HubServicesFactory {
     }
 
     public HubService createHubService() {
-        return new HubService(logger, restConnection, gson, jsonParser);
+        return new HubService(logger, restConnection, gson, jsonParser, hubServiceOptions);
+    }
+
+    /**
+     * Requires a shared executor in the HubServiceOptions.
+     */
+    public AsyncHubService createAsyncHubService() {
+        final ExecutorService executorService = hubServiceOptions.getSharedExecutorService()
+                                                    .orElseThrow(() -> new IllegalStateException("No shared executor was configured, use createAsyncHubService(ExecutorService) instead."));
+        return createAsyncHubService(executorService);
+    }
+
+    /**
+     * It is up to the user of the async service to shutdown the executor.
+     */
+    public AsyncHubService createAsyncHubService(final ExecutorService executorService) {
+        return new AsyncHubService(createHubService(), executorService);
     }
 
     public ComponentService createComponentService() {
@@ -165,11 +199,31 @@ public class HubServicesFactory {
         return new ProjectService(hubService, logger, projectGetService, projectUpdateService, createComponentService());
     }
 
+    /**
+     * Fans the per-item requests of the ProjectService out on the shared executor of the HubServiceOptions, or runs them in order when there is none.
+     */
+    public ProjectService createAsyncProjectService() {
+        if (hubServiceOptions.getSharedExecutorService().isPresent()) {
+            return createProjectService(hubServiceOptions.getSharedExecutorService().get());
+        }
+        return createProjectService();
+    }
+
+    public ProjectService createProjectService(final ExecutorService executorService) {
+        final HubService hubService = createHubService();
+        final ProjectGetService projectGetService = new ProjectGetService(hubService, logger);
+        final ProjectUpdateService projectUpdateService = new ProjectUpdateService(hubService, logger, projectGetService);
+        return new ProjectService(hubService, logger, projectGetService, projectUpdateService, createComponentService(), new AsyncHubService(hubService, executorService));
+    }
+
     public UserGroupService createUserGroupService() {
         return new UserGroupService(createHubService(), logger);
     }
 
     public HubBucketService createHubBucketService() {
+        if (hubServiceOptions.getSharedExecutorService().isPresent()) {
+            return createHubBucketService(hubServiceOptions.getSharedExecutorService().get());
+        }
         return new HubBucketService(createHubService(), logger);
     }
 
@@ -177,6 +231,29 @@ public class HubServicesFactory {
         return new HubBucketService(createHubService(), logger, executorService);
     }
 
+    public HubTraversalService createHubTraversalService() {
+        if (hubServiceOptions.getSharedExecutorService().isPresent()) {
+            return createHubTraversalService(hubServiceOptions.getSharedExecutorService().get());
+        }
+        return new HubTraversalService(createHubService(), logger);
+    }
+
+    public HubTraversalService createHubTraversalService(final ExecutorService executorService) {
+        return new HubTraversalService(createHubService(), logger, executorService);
+    }
+
+    public ScanJobManager createScanJobManager(final HubServerConfig hubServerConfig) throws EncryptionException {
+        return ScanJobManager.createDefaultScanManager(logger, hubServerConfig);
+    }
+
+    /**
+     * Runs the scans in parallel on the executorService, which should not be the shared executor of the HubServiceOptions since every scan holds its thread for as long as the scanner runs. The scans are admitted only
+     * while their memory fits a ScanResourceBudget taken from this host. It is up to the caller to shutdown the executor.
+     */
+    public ScanJobManager createScanJobManager(final HubServerConfig hubServerConfig, final ExecutorService executorService) throws EncryptionException {
+        return ScanJobManager.createDefaultScanManager(logger, hubServerConfig, executorService, ScanResourceBudget.fromHost());
+    }
+
     public BlackduckRestConnection getRestConnection() {
         return restConnection;
     }
@@ -189,6 +266,10 @@ public class HubServicesFactory {
         return gson;
     }
 
+    public HubServiceOptions getHubServiceOptions() {
+        return hubServiceOptions;
+    }
+
     public IntEnvironmentVariables getEnvironmentVariables() {
         return intEnvironmentVariables;
     }
@@ -0,0 +1,135 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+import com.synopsys.integration.blackduck.api.core.HubResponse;
+import com.synopsys.integration.blackduck.api.core.HubView;
+import com.synopsys.integration.blackduck.api.core.LinkMultipleResponses;
+import com.synopsys.integration.blackduck.api.core.LinkSingleResponse;
+
+/**
+ * A path through the Hub's links, declared once and run by a HubTraversalService instead of nested loops over getAllResponses, for example:
+ * <pre>
+ * HubTraversal.from(ProjectView.class)
+ *     .filter(project -&gt; project.name.startsWith("team-"))
+ *     .followAll(ProjectView.VERSIONS_LINK_RESPONSE)
+ *     .followAll(ProjectVersionView.COMPONENTS_LINK_RESPONSE)
+ * </pre>
+ * Every filter applies to the level declared just before it, so the responses it rejects are never followed any further. Each HubTraversal is immutable.
+ * @param <S> the class of the views the traversal starts from
+ * @param <T> the class of the responses the traversal ends with
+ */
+public class HubTraversal<S extends HubView, T extends HubResponse> {
+    private final List<TraversalLevel<?>> previousLevels;
+    private final TraversalLevel<T> lastLevel;
+
+    private HubTraversal(final List<TraversalLevel<?>> previousLevels, final TraversalLevel<T> lastLevel) {
+        this.previousLevels = Collections.unmodifiableList(previousLevels);
+        this.lastLevel = lastLevel;
+    }
+
+    public static <S extends HubView> HubTraversal<S, S> from(final Class<S> startClass) {
+        return new HubTraversal<>(Collections.emptyList(), new TraversalLevel<>(null, startClass, false, Collections.emptyList()));
+    }
+
+    public HubTraversal<S, T> filter(final Predicate<? super T> predicate) {
+        return new HubTraversal<>(previousLevels, lastLevel.withFilter(predicate));
+    }
+
+    /**
+     * Every response so far must be a HubView with the link.
+     */
+    public <U extends HubResponse> HubTraversal<S, U> followAll(final LinkMultipleResponses<U> linkMultipleResponses) {
+        return follow(new TraversalLevel<>(linkMultipleResponses.link, linkMultipleResponses.responseClass, true, Collections.emptyList()));
+    }
+
+    /**
+     * Every response so far must be a HubView with the link.
+     */
+    public <U extends HubResponse> HubTraversal<S, U> follow(final LinkSingleResponse<U> linkSingleResponse) {
+        return follow(new TraversalLevel<>(linkSingleResponse.link, linkSingleResponse.responseClass, false, Collections.emptyList()));
+    }
+
+    private <U extends HubResponse> HubTraversal<S, U> follow(final TraversalLevel<U> nextLevel) {
+        final List<TraversalLevel<?>> followedLevels = new ArrayList<>(previousLevels);
+        followedLevels.add(lastLevel);
+        return new HubTraversal<>(followedLevels, nextLevel);
+    }
+
+    List<TraversalLevel<?>> getLevels() {
+        final List<TraversalLevel<?>> levels = new ArrayList<>(previousLevels);
+        levels.add(lastLevel);
+        return levels;
+    }
+
+    Class<T> getResultClass() {
+        return lastLevel.getResponseClass();
+    }
+
+    static class TraversalLevel<R extends HubResponse> {
+        private final String link;
+        private final Class<R> responseClass;
+        private final boolean multipleResponses;
+        private final List<Predicate<? super R>> filters;
+
+        private TraversalLevel(final String link, final Class<R> responseClass, final boolean multipleResponses, final List<Predicate<? super R>> filters) {
+            this.link = link;
+            this.responseClass = responseClass;
+            this.multipleResponses = multipleResponses;
+            this.filters = filters;
+        }
+
+        private TraversalLevel<R> withFilter(final Predicate<? super R> predicate) {
+            final List<Predicate<? super R>> allFilters = new ArrayList<>(filters);
+            allFilters.add(predicate);
+            return new TraversalLevel<>(link, responseClass, multipleResponses, Collections.unmodifiableList(allFilters));
+        }
+
+        /**
+         * @throws ClassCastException if the response is not of this level's response class
+         */
+        boolean accepts(final HubResponse hubResponse) {
+            final R response = responseClass.cast(hubResponse);
+            return filters.stream().allMatch(filter -> filter.test(response));
+        }
+
+        String getLink() {
+            return link;
+        }
+
+        Class<R> getResponseClass() {
+            return responseClass;
+        }
+
+        boolean isMultipleResponses() {
+            return multipleResponses;
+        }
+    }
+
+}
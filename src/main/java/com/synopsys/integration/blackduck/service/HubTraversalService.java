@@ -0,0 +1,164 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+import com.synopsys.integration.blackduck.api.core.HubPathMultipleResponses;
+import com.synopsys.integration.blackduck.api.core.HubResponse;
+import com.synopsys.integration.blackduck.api.core.HubView;
+import com.synopsys.integration.blackduck.exception.HubIntegrationException;
+import com.synopsys.integration.blackduck.service.model.DistinctHubResponses;
+import com.synopsys.integration.exception.IntegrationException;
+import com.synopsys.integration.log.IntLogger;
+
+/**
+ * Runs HubTraversals. Every response is followed as soon as it arrives rather than level by level, and with an executor the links are requested concurrently. Within one run, a view reached from several parents
+ * (same _meta.href) is only followed and returned once, and a link uri shared by several views is only requested once.
+ */
+public class HubTraversalService extends DataService {
+    private static final Object END_OF_RESULTS = new Object();
+
+    private final AsyncHubService asyncHubService;
+
+    public HubTraversalService(final HubService hubService, final IntLogger logger) {
+        super(hubService, logger);
+        // without an executor every request runs on the calling thread, one at a time
+        asyncHubService = new AsyncHubService(hubService, Runnable::run);
+    }
+
+    public HubTraversalService(final HubService hubService, final IntLogger logger, final ExecutorService executorService) {
+        super(hubService, logger);
+        asyncHubService = new AsyncHubService(hubService, executorService);
+    }
+
+    public <S extends HubView, T extends HubResponse> List<T> getAllResponses(final HubPathMultipleResponses<S> hubPathMultipleResponses, final HubTraversal<S, T> hubTraversal) throws IntegrationException {
+        return getAllResponses(hubService.getAllResponses(hubPathMultipleResponses), hubTraversal);
+    }
+
+    public <S extends HubView, T extends HubResponse> List<T> getAllResponses(final Collection<? extends S> startViews, final HubTraversal<S, T> hubTraversal) throws IntegrationException {
+        final List<T> results = new ArrayList<>();
+        traverse(startViews, hubTraversal, results::add);
+        return results;
+    }
+
+    public <S extends HubView, T extends HubResponse> void traverse(final HubPathMultipleResponses<S> hubPathMultipleResponses, final HubTraversal<S, T> hubTraversal, final Consumer<T> resultConsumer) throws IntegrationException {
+        traverse(hubService.getAllResponses(hubPathMultipleResponses), hubTraversal, resultConsumer);
+    }
+
+    /**
+     * The resultConsumer is called on this thread with each result as soon as it arrives, so it can start working before the traversal is finished.
+     */
+    public <S extends HubView, T extends HubResponse> void traverse(final Collection<? extends S> startViews, final HubTraversal<S, T> hubTraversal, final Consumer<T> resultConsumer) throws IntegrationException {
+        final Traversal traversal = new Traversal(hubTraversal.getLevels());
+        final Class<T> resultClass = hubTraversal.getResultClass();
+        final List<CompletableFuture<Void>> startFutures = new ArrayList<>();
+        for (final S startView : startViews) {
+            startFutures.add(traversal.visit(startView, 0));
+        }
+        final CompletableFuture<Void> allVisited = CompletableFuture.allOf(startFutures.toArray(new CompletableFuture[startFutures.size()]));
+        allVisited.whenComplete((ignored, throwable) -> traversal.results.add(END_OF_RESULTS));
+
+        while (true) {
+            final Object result;
+            try {
+                result = traversal.results.take();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new HubIntegrationException("Interrupted while traversing: " + e.getMessage(), e);
+            }
+            if (result == END_OF_RESULTS) {
+                break;
+            }
+            resultConsumer.accept(resultClass.cast(result));
+        }
+        AsyncHubService.await(allVisited);
+    }
+
+    private class Traversal {
+        private final List<HubTraversal.TraversalLevel<?>> levels;
+        private final List<Set<String>> visitedHrefs = new ArrayList<>();
+        private final Map<String, CompletableFuture<List<HubResponse>>> requestedUris = new ConcurrentHashMap<>();
+        private final BlockingQueue<Object> results = new LinkedBlockingQueue<>();
+
+        private Traversal(final List<HubTraversal.TraversalLevel<?>> levels) {
+            this.levels = levels;
+            for (int i = 0; i < levels.size(); i++) {
+                visitedHrefs.add(ConcurrentHashMap.newKeySet());
+            }
+        }
+
+        private CompletableFuture<Void> visit(final HubResponse hubResponse, final int levelIndex) {
+            if (!levels.get(levelIndex).accepts(hubResponse)) {
+                return CompletableFuture.completedFuture(null);
+            }
+            final String href = DistinctHubResponses.getHref(hubResponse);
+            if (href != null && !visitedHrefs.get(levelIndex).add(href)) {
+                return CompletableFuture.completedFuture(null);
+            }
+            if (levelIndex == levels.size() - 1) {
+                results.add(hubResponse);
+                return CompletableFuture.completedFuture(null);
+            }
+
+            final HubTraversal.TraversalLevel<?> nextLevel = levels.get(levelIndex + 1);
+            if (!(hubResponse instanceof HubView)) {
+                final CompletableFuture<Void> notAView = new CompletableFuture<>();
+                notAView.completeExceptionally(new HubIntegrationException(String.format("Can't follow the '%s' link of a %s, it is not a view.", nextLevel.getLink(), hubResponse.getClass().getSimpleName())));
+                return notAView;
+            }
+            final String uri = hubService.getFirstLinkSafely((HubView) hubResponse, nextLevel.getLink());
+            if (uri == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            final CompletableFuture<List<HubResponse>> children = requestedUris.computeIfAbsent(uri, ignored -> request(uri, nextLevel));
+            return children.thenCompose(childResponses -> {
+                final List<CompletableFuture<Void>> childFutures = new ArrayList<>();
+                for (final HubResponse childResponse : childResponses) {
+                    childFutures.add(visit(childResponse, levelIndex + 1));
+                }
+                return CompletableFuture.allOf(childFutures.toArray(new CompletableFuture[childFutures.size()]));
+            });
+        }
+
+        private <R extends HubResponse> CompletableFuture<List<HubResponse>> request(final String uri, final HubTraversal.TraversalLevel<R> level) {
+            if (level.isMultipleResponses()) {
+                return asyncHubService.getAllResponses(uri, level.getResponseClass()).thenApply(responses -> Collections.<HubResponse> unmodifiableList(responses));
+            }
+            return asyncHubService.getResponse(uri, level.getResponseClass()).thenApply(response -> Collections.<HubResponse> singletonList(response));
+        }
+    }
+
+}
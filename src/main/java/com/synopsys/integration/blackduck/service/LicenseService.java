@@ -23,8 +23,6 @@
  */
 package com.synopsys.integration.blackduck.service;
 
-import java.io.IOException;
-
 import com.synopsys.integration.blackduck.api.generated.component.VersionBomLicenseView;
 import com.synopsys.integration.blackduck.api.generated.view.ComplexLicenseView;
 import com.synopsys.integration.blackduck.api.generated.view.ComponentSearchResultView;
@@ -33,7 +31,6 @@ import com.synopsys.integration.blackduck.api.generated.view.LicenseView;
 import com.synopsys.integration.exception.IntegrationException;
 import com.synopsys.integration.hub.bdio.model.externalid.ExternalId;
 import com.synopsys.integration.log.IntLogger;
-import com.synopsys.integration.rest.request.Response;
 
 public class LicenseService extends DataService {
     private final ComponentService componentDataService;
@@ -69,10 +66,6 @@ public class LicenseService extends DataService {
 
     public String getLicenseText(final LicenseView licenseView) throws IntegrationException {
         final String licenseTextUrl = hubService.getFirstLinkSafely(licenseView, LicenseView.TEXT_LINK);
-        try (Response response = hubService.executeGetRequest(licenseTextUrl)) {
-            return response.getContentString();
-        } catch (final IOException e) {
-            throw new IntegrationException(e.getMessage(), e);
-        }
+        return hubService.getContentString(licenseTextUrl);
     }
 }
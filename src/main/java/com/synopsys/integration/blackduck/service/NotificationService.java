@@ -27,14 +27,18 @@ import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.ListIterator;
 import java.util.TimeZone;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import com.synopsys.integration.blackduck.api.core.HubView;
 import com.synopsys.integration.blackduck.api.generated.discovery.ApiDiscovery;
 import com.synopsys.integration.blackduck.api.generated.enumeration.NotificationType;
 import com.synopsys.integration.blackduck.api.generated.view.NotificationUserView;
 import com.synopsys.integration.blackduck.api.generated.view.NotificationView;
 import com.synopsys.integration.blackduck.api.generated.view.UserView;
+import com.synopsys.integration.blackduck.service.model.DistinctHubResponses;
 import com.synopsys.integration.blackduck.service.model.HubFilter;
 import com.synopsys.integration.blackduck.service.model.RequestFactory;
 import com.synopsys.integration.exception.IntegrationException;
@@ -79,6 +83,42 @@ public class NotificationService extends DataService {
         return allUserNotificationItems;
     }
 
+    /**
+     * Like getAllNotifications, but walks the date range with a cursor on createdAt so notifications added during the walk do not shift the pages.
+     */
+    public List<NotificationView> getAllNotificationsByDateCursor(final Date startDate, final Date endDate) throws IntegrationException {
+        final List<String> allKnownNotificationTypes = getAllKnownTypesToInclude();
+        return getFilteredNotificationsByDateCursor(startDate, endDate, allKnownNotificationTypes);
+    }
+
+    /**
+     * Like getAllUserNotifications, but walks the date range with a cursor on createdAt so notifications added during the walk do not shift the pages.
+     */
+    public List<NotificationUserView> getAllUserNotificationsByDateCursor(final UserView user, final Date startDate, final Date endDate) throws IntegrationException {
+        final List<String> allKnownNotificationTypes = getAllKnownTypesToInclude();
+        return getFilteredUserNotificationsByDateCursor(user, startDate, endDate, allKnownNotificationTypes);
+    }
+
+    /**
+     * Like getFilteredNotifications, but walks the date range with a cursor on createdAt so notifications added during the walk do not shift the pages.
+     */
+    public List<NotificationView> getFilteredNotificationsByDateCursor(final Date startDate, final Date endDate, final List<String> notificationTypesToInclude) throws IntegrationException {
+        final NotificationPageReader<NotificationView> pageReader = requestBuilder -> hubService.getResponses(ApiDiscovery.NOTIFICATIONS_LINK_RESPONSE, requestBuilder, false);
+        return getNotificationsByDateCursor(startDate, endDate, notificationTypesToInclude, pageReader, notificationView -> notificationView.createdAt);
+    }
+
+    /**
+     * Like getFilteredUserNotifications, but walks the date range with a cursor on createdAt so notifications added during the walk do not shift the pages.
+     */
+    public List<NotificationUserView> getFilteredUserNotificationsByDateCursor(final UserView user, final Date startDate, final Date endDate, final List<String> notificationTypesToInclude) throws IntegrationException {
+        final String userNotificationsUri = hubService.getFirstLink(user, UserView.NOTIFICATIONS_LINK);
+        final NotificationPageReader<NotificationUserView> pageReader = requestBuilder -> {
+            requestBuilder.uri(userNotificationsUri);
+            return hubService.getResponses(requestBuilder, NotificationUserView.class, false);
+        };
+        return getNotificationsByDateCursor(startDate, endDate, notificationTypesToInclude, pageReader, notificationUserView -> notificationUserView.createdAt);
+    }
+
     /**
      * @return The java.util.Date of the most recent notification. If there are no notifications, the current date will be returned. This can set an initial start time window for all future notifications.
      * @throws IntegrationException
@@ -93,14 +133,70 @@ public class NotificationService extends DataService {
         }
     }
 
+    /**
+     * The Hub returns notifications newest first, so instead of paging through the whole date range by offset, which drifts as notifications are added, each page after the first moves the endDate back to the oldest
+     * notification read so far. Only the notifications sharing that oldest timestamp are skipped by offset, and any read twice are dropped by href. If a page is not newest first, or a page brings nothing new, the walk
+     * pages by offset within the current date range instead.
+     */
+    private <T extends HubView> List<T> getNotificationsByDateCursor(final Date startDate, final Date endDate, final List<String> notificationTypesToInclude, final NotificationPageReader<T> pageReader,
+            final Function<T, Date> createdAt) throws IntegrationException {
+        final DistinctHubResponses<T> notifications = new DistinctHubResponses<>();
+        final int limit = RequestFactory.DEFAULT_LIMIT;
+        Date windowEnd = endDate;
+        int offset = RequestFactory.DEFAULT_OFFSET;
+        while (true) {
+            final Request.Builder requestBuilder = createNotificationRequestBuilder(startDate, windowEnd, notificationTypesToInclude, limit, offset);
+            final List<T> page = pageReader.readPage(requestBuilder);
+            final int added = notifications.addAll(page);
+            if (page.size() < limit) {
+                break;
+            }
+
+            final Date oldest = createdAt.apply(page.get(page.size() - 1));
+            if (added == 0 || !isNewestFirst(page, createdAt)) {
+                offset += limit;
+            } else {
+                offset = countOldest(notifications.getResponses(), createdAt, oldest);
+                // one millisecond later so the oldest notifications are in the range whether or not the Hub treats endDate as inclusive
+                windowEnd = new Date(oldest.getTime() + 1);
+            }
+        }
+        return notifications.getResponses();
+    }
+
+    private <T extends HubView> boolean isNewestFirst(final List<T> page, final Function<T, Date> createdAt) {
+        Date previous = null;
+        for (final T notification : page) {
+            final Date current = createdAt.apply(notification);
+            if (current == null || (previous != null && current.after(previous))) {
+                return false;
+            }
+            previous = current;
+        }
+        return true;
+    }
+
+    private <T extends HubView> int countOldest(final List<T> notifications, final Function<T, Date> createdAt, final Date oldest) {
+        int count = 0;
+        final ListIterator<T> iterator = notifications.listIterator(notifications.size());
+        while (iterator.hasPrevious() && oldest.equals(createdAt.apply(iterator.previous()))) {
+            count++;
+        }
+        return count;
+    }
+
     private Request.Builder createNotificationRequestBuilder(final Date startDate, final Date endDate, final List<String> notificationTypesToInclude) {
+        return createNotificationRequestBuilder(startDate, endDate, notificationTypesToInclude, RequestFactory.DEFAULT_LIMIT, RequestFactory.DEFAULT_OFFSET);
+    }
+
+    private Request.Builder createNotificationRequestBuilder(final Date startDate, final Date endDate, final List<String> notificationTypesToInclude, final int limit, final int offset) {
         final SimpleDateFormat sdf = new SimpleDateFormat(RestConstants.JSON_DATE_FORMAT);
         sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
         final String startDateString = sdf.format(startDate);
         final String endDateString = sdf.format(endDate);
 
         final HubFilter hubFilter = HubFilter.createFilterWithMultipleValues("notificationType", notificationTypesToInclude);
-        final Request.Builder requestBuilder = RequestFactory.createCommonGetRequestBuilder().addQueryParameter("startDate", startDateString).addQueryParameter("endDate", endDateString);
+        final Request.Builder requestBuilder = RequestFactory.createCommonGetRequestBuilder(limit, offset).addQueryParameter("startDate", startDateString).addQueryParameter("endDate", endDateString);
         RequestFactory.addHubFilter(requestBuilder, hubFilter);
         return requestBuilder;
     }
@@ -109,4 +205,9 @@ public class NotificationService extends DataService {
         return Arrays.stream(NotificationType.values()).map(NotificationType::name).collect(Collectors.toList());
     }
 
+    @FunctionalInterface
+    private interface NotificationPageReader<T extends HubView> {
+        List<T> readPage(Request.Builder requestBuilder) throws IntegrationException;
+    }
+
 }
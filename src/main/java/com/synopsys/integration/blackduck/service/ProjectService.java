@@ -27,7 +27,9 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
@@ -63,12 +65,26 @@ public class ProjectService extends DataService {
     private final ProjectGetService projectGetService;
     private final ProjectUpdateService projectUpdateService;
     private final ComponentService componentDataService;
+    private final Optional<AsyncHubService> asyncHubService;
 
     public ProjectService(final HubService hubService, final IntLogger logger, final ProjectGetService projectGetService, final ProjectUpdateService projectUpdateService, final ComponentService componentDataService) {
         super(hubService, logger);
         this.projectGetService = projectGetService;
         this.projectUpdateService = projectUpdateService;
         this.componentDataService = componentDataService;
+        this.asyncHubService = Optional.empty();
+    }
+
+    /**
+     * The AsyncHubService is used to retrieve the per-item lookups (users, groups, component versions) concurrently instead of one after another.
+     */
+    public ProjectService(final HubService hubService, final IntLogger logger, final ProjectGetService projectGetService, final ProjectUpdateService projectUpdateService, final ComponentService componentDataService,
+            final AsyncHubService asyncHubService) {
+        super(hubService, logger);
+        this.projectGetService = projectGetService;
+        this.projectUpdateService = projectUpdateService;
+        this.componentDataService = componentDataService;
+        this.asyncHubService = Optional.of(asyncHubService);
     }
 
     public List<ProjectView> getAllProjectMatches(final String projectName) throws IntegrationException {
@@ -109,6 +125,10 @@ public class ProjectService extends DataService {
     public List<UserView> getUsersForProject(final ProjectView project) throws IntegrationException {
         logger.debug("Attempting to get the assigned users for Project: " + project.name);
         final List<AssignedUserView> assignedUsers = getAssignedUsersToProject(project);
+        if (asyncHubService.isPresent()) {
+            final CompletableFuture<List<UserView>> userViews = asyncHubService.get().fanOut(assignedUsers, assigned -> asyncHubService.get().getResponse(assigned.user, UserView.class));
+            return removeNulls(AsyncHubService.await(userViews));
+        }
 
         final List<UserView> resolvedUserViews = new ArrayList<>();
         for (final AssignedUserView assigned : assignedUsers) {
@@ -138,6 +158,10 @@ public class ProjectService extends DataService {
     public List<UserGroupView> getGroupsForProject(final ProjectView project) throws IntegrationException {
         logger.debug("Attempting to get the assigned users for Project: " + project.name);
         final List<AssignedUserGroupView> assignedGroups = getAssignedGroupsToProject(project);
+        if (asyncHubService.isPresent()) {
+            final CompletableFuture<List<UserGroupView>> groupViews = asyncHubService.get().fanOut(assignedGroups, assigned -> asyncHubService.get().getResponse(assigned.group, UserGroupView.class));
+            return removeNulls(AsyncHubService.await(groupViews));
+        }
 
         final List<UserGroupView> resolvedGroupViews = new ArrayList<>();
         for (final AssignedUserGroupView assigned : assignedGroups) {
@@ -162,6 +186,10 @@ public class ProjectService extends DataService {
      * This will get all explicitly assigned users for a project, as well as all users who are assigned to groups that are explicitly assigned to a project.
      */
     public Set<UserView> getAllActiveUsersForProject(final ProjectView projectView) throws IntegrationException {
+        if (asyncHubService.isPresent()) {
+            return getAllActiveUsersForProject(projectView, asyncHubService.get());
+        }
+
         final Set<UserView> users = new HashSet<>();
 
         final List<AssignedUserGroupView> assignedGroups = getAssignedGroupsToProject(projectView);
@@ -187,6 +215,30 @@ public class ProjectService extends DataService {
                    .collect(Collectors.toSet());
     }
 
+    private Set<UserView> getAllActiveUsersForProject(final ProjectView projectView, final AsyncHubService async) throws IntegrationException {
+        final List<AssignedUserGroupView> activeGroups = getAssignedGroupsToProject(projectView)
+                                                             .stream()
+                                                             .filter(assignedUserGroupView -> assignedUserGroupView.active)
+                                                             .collect(Collectors.toList());
+        final CompletableFuture<List<List<UserView>>> groupUsers = async.fanOut(activeGroups, assignedUserGroupView -> {
+            return async.getResponse(assignedUserGroupView.group, UserGroupView.class)
+                       .thenCompose(userGroupView -> userGroupView.active ? async.getAllResponses(userGroupView, UserGroupView.USERS_LINK_RESPONSE) : CompletableFuture.completedFuture(new ArrayList<UserView>()));
+        });
+        final List<AssignedUserView> assignedUsers = getAssignedUsersToProject(projectView);
+        final CompletableFuture<List<UserView>> users = async.fanOut(assignedUsers, assignedUser -> async.getResponse(assignedUser.user, UserView.class));
+
+        final Set<UserView> allUsers = new HashSet<>();
+        for (final List<UserView> usersInGroup : AsyncHubService.await(groupUsers)) {
+            allUsers.addAll(usersInGroup);
+        }
+        allUsers.addAll(AsyncHubService.await(users));
+
+        return allUsers
+                   .stream()
+                   .filter(userView -> userView.active)
+                   .collect(Collectors.toSet());
+    }
+
     public List<VersionBomComponentView> getComponentsForProjectVersion(final String projectName, final String projectVersionName) throws IntegrationException {
         final ProjectView projectItem = getProjectByName(projectName);
         final ProjectVersionView projectVersionView = getProjectVersion(projectItem, projectVersionName);
@@ -211,6 +263,10 @@ public class ProjectService extends DataService {
 
     public List<ComponentVersionVulnerabilities> getComponentVersionVulnerabilities(final ProjectVersionView projectVersionView) throws IntegrationException {
         final List<VersionBomComponentView> versionBomComponentViews = getComponentsForProjectVersion(projectVersionView);
+        if (asyncHubService.isPresent()) {
+            return getComponentVersionVulnerabilities(versionBomComponentViews, asyncHubService.get());
+        }
+
         final List<ComponentVersionView> componentVersionViews = new ArrayList<>();
         for (final VersionBomComponentView versionBomComponentView : versionBomComponentViews) {
             if (StringUtils.isNotBlank(versionBomComponentView.componentVersion)) {
@@ -227,6 +283,26 @@ public class ProjectService extends DataService {
         return componentVersionVulnerabilitiesList;
     }
 
+    private List<ComponentVersionVulnerabilities> getComponentVersionVulnerabilities(final List<VersionBomComponentView> versionBomComponentViews, final AsyncHubService async) throws IntegrationException {
+        final List<String> componentVersionUrls = versionBomComponentViews
+                                                      .stream()
+                                                      .map(versionBomComponentView -> versionBomComponentView.componentVersion)
+                                                      .filter(StringUtils::isNotBlank)
+                                                      .collect(Collectors.toList());
+        final CompletableFuture<List<ComponentVersionVulnerabilities>> vulnerabilities = async.fanOut(componentVersionUrls, componentVersionUrl -> {
+            return async.getResponse(componentVersionUrl, ComponentVersionView.class)
+                       .thenCompose(componentVersionView -> async.supply(() -> componentDataService.getComponentVersionVulnerabilities(componentVersionView)));
+        });
+        return AsyncHubService.await(vulnerabilities);
+    }
+
+    private <T> List<T> removeNulls(final List<T> views) {
+        return views
+                   .stream()
+                   .filter(view -> view != null)
+                   .collect(Collectors.toList());
+    }
+
     public List<ComponentVersionVulnerabilities> getComponentVersionVulnerabilities(final String projectName, final String projectVersionName) throws IntegrationException {
         final ProjectVersionWrapper projectVersionWrapper = getProjectVersion(projectName, projectVersionName);
         final ProjectVersionView projectVersionView = projectVersionWrapper.getProjectVersionView();
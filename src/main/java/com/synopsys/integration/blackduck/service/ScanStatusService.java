@@ -178,7 +178,7 @@ public class ScanStatusService extends DataService {
             pendingScans = new ArrayList<>();
             for (final ScanSummaryView scanSummaryItem : allScanSummaries) {
                 if (isPending(scanSummaryItem.status)) {
-                    logger.debug("Adding pending scan: " + scanSummaryItem.json);
+                    logger.debug("Adding pending scan: " + hubService.getJson(scanSummaryItem));
                     pendingScans.add(scanSummaryItem);
                 }
             }
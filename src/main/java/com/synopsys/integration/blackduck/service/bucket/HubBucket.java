@@ -23,27 +23,196 @@
  */
 package com.synopsys.integration.blackduck.service.bucket;
 
+import java.lang.ref.SoftReference;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.ToLongFunction;
 
 import com.synopsys.integration.blackduck.api.UriSingleResponse;
 import com.synopsys.integration.blackduck.api.core.HubResponse;
+import com.synopsys.integration.blackduck.api.view.HubResponseJsonStore;
+import com.synopsys.integration.blackduck.service.model.JsonRetention;
 
+/**
+ * The responses (or errors) of the uris added so far. A new HubBucket keeps everything it is given, which suits a single batch. For a bucket that is reused for a long time, the Builder can bound it by entries or by
+ * weight (the least recently used items are evicted first), expire valid and error items after separate times to live, and hold items by soft reference so the garbage collector can reclaim them under memory pressure.
+ * <p>
+ * An unbounded bucket keeps its items in a ConcurrentHashMap, so reads never block. A bounded bucket is split into segments by uri, each a small least recently used map with its share of the bounds behind its own lock, so
+ * the eviction order is only exact within a segment. Small bounds use a single segment.
+ * <p>
+ * A uri that is being loaded has a future, so it is only requested once however many times it is added, and consumers can await the item instead of polling for it.
+ */
 public class HubBucket {
-    private final Map<String, HubBucketItem<HubResponse>> bucket = new ConcurrentHashMap<>();
+    public static final long NO_EXPIRATION = Long.MAX_VALUE;
+
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_ENTRIES_PER_SEGMENT = 64;
+    private static final long MIN_WEIGHT_PER_SEGMENT = 1024L * 1024L;
+
+    private final int maxEntries;
+    private final long maxWeight;
+    private final ToLongFunction<HubBucketItem<HubResponse>> weigher;
+    private final long validTimeToLiveMillis;
+    private final long errorTimeToLiveMillis;
+    private final boolean softValues;
+    private final HubBucketStatistics statistics = new HubBucketStatistics();
+    private final Map<String, CompletableFuture<HubBucketItem<HubResponse>>> loading = new ConcurrentHashMap<>();
+    // exactly one of these is set, depending on whether the bucket is bounded
+    private final ConcurrentHashMap<String, BucketEntry> unboundedBucket;
+    private final Segment[] segments;
+
+    public HubBucket() {
+        this(Integer.MAX_VALUE, Long.MAX_VALUE, HubBucket::weighByJsonLength, NO_EXPIRATION, NO_EXPIRATION, false);
+    }
+
+    private HubBucket(final int maxEntries, final long maxWeight, final ToLongFunction<HubBucketItem<HubResponse>> weigher, final long validTimeToLiveMillis, final long errorTimeToLiveMillis, final boolean softValues) {
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.validTimeToLiveMillis = validTimeToLiveMillis;
+        this.errorTimeToLiveMillis = errorTimeToLiveMillis;
+        this.softValues = softValues;
+        if (Integer.MAX_VALUE == maxEntries && Long.MAX_VALUE == maxWeight) {
+            unboundedBucket = new ConcurrentHashMap<>();
+            segments = null;
+        } else {
+            unboundedBucket = null;
+            int segmentCount = MAX_SEGMENTS;
+            while (segmentCount > 1 && (maxEntries / segmentCount < MIN_ENTRIES_PER_SEGMENT || maxWeight / segmentCount < MIN_WEIGHT_PER_SEGMENT)) {
+                segmentCount >>= 1;
+            }
+            final int segmentMaxEntries = Integer.MAX_VALUE == maxEntries ? maxEntries : maxEntries / segmentCount;
+            final long segmentMaxWeight = Long.MAX_VALUE == maxWeight ? maxWeight : maxWeight / segmentCount;
+            segments = new Segment[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                segments[i] = new Segment(segmentMaxEntries, segmentMaxWeight);
+            }
+        }
+    }
+
+    /**
+     * The default weight of an item is the length of its response's json, or the length of the deflated json when the response was decoded with JsonRetention.COMPRESS. Errors weigh 1.
+     * @throws IllegalStateException if the response has no json to weigh, as with JsonRetention.DISCARD, in which case the bucket needs its own weigher
+     */
+    public static long weighByJsonLength(final HubBucketItem<HubResponse> bucketItem) {
+        final Optional<HubResponse> hubResponse = bucketItem.getHubResponse();
+        if (!hubResponse.isPresent()) {
+            return 1;
+        }
+        if (hubResponse.get().json != null) {
+            return Math.max(1, hubResponse.get().json.length());
+        }
+        final Optional<Integer> compressedLength = HubResponseJsonStore.getCompressedLength(hubResponse.get());
+        if (compressedLength.isPresent()) {
+            return Math.max(1, compressedLength.get());
+        }
+        throw new IllegalStateException(String.format("The response of %s has no json to weigh (was it decoded with JsonRetention.%s?), a bucket bounded by weight needs a weigher for it.", bucketItem.getUri(), JsonRetention.DISCARD));
+    }
 
     public boolean contains(final String uri) {
-        return bucket.containsKey(uri);
+        return getLiveItem(uri) != null;
+    }
+
+    public boolean isLoading(final String uri) {
+        return loading.containsKey(uri);
+    }
+
+    /**
+     * Marks the uri as loading unless it is already in the bucket or being loaded. The caller that gets true must eventually add a valid response or an error for the uri, which completes its future.
+     * @return true if the caller should load the uri
+     */
+    public boolean startLoading(final String uri) {
+        if (getLiveItem(uri) != null) {
+            return false;
+        }
+        final CompletableFuture<HubBucketItem<HubResponse>> future = new CompletableFuture<>();
+        if (loading.putIfAbsent(uri, future) != null) {
+            return false;
+        }
+        // put stores the item before it completes the loading future, so an item added since the first check is seen here
+        final HubBucketItem<HubResponse> bucketItem = getLiveItem(uri);
+        if (bucketItem != null) {
+            loading.remove(uri, future);
+            future.complete(bucketItem);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return a future of the item, already completed if the uri is in the bucket, or empty if the uri is neither in the bucket nor being loaded
+     */
+    public Optional<CompletableFuture<HubBucketItem<HubResponse>>> getFuture(final String uri) {
+        final HubBucketItem<HubResponse> bucketItem = getLiveItem(uri);
+        if (bucketItem != null) {
+            return Optional.of(CompletableFuture.completedFuture(bucketItem));
+        }
+        final CompletableFuture<HubBucketItem<HubResponse>> future = loading.get(uri);
+        if (future != null) {
+            return Optional.of(future);
+        }
+        // the item may have been added between the two lookups
+        return Optional.ofNullable(getLiveItem(uri)).map(CompletableFuture::completedFuture);
+    }
+
+    /**
+     * Waits for the uri to finish loading, if it is being loaded.
+     * @return the item, or empty if the uri is neither in the bucket nor being loaded
+     * @throws TimeoutException if the uri is still loading after the timeout
+     */
+    public Optional<HubBucketItem<HubResponse>> await(final String uri, final long timeout, final TimeUnit unit) throws InterruptedException, TimeoutException {
+        final Optional<CompletableFuture<HubBucketItem<HubResponse>>> future = getFuture(uri);
+        if (!future.isPresent()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(future.get().get(timeout, unit));
+        } catch (final ExecutionException e) {
+            // the futures are only ever completed normally, errors are items too
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public <T extends HubResponse> Optional<T> await(final UriSingleResponse<T> uriSingleResponse, final long timeout, final TimeUnit unit) throws InterruptedException, TimeoutException {
+        final Optional<HubBucketItem<HubResponse>> bucketItem = await(uriSingleResponse.uri, timeout, unit);
+        if (bucketItem.isPresent() && bucketItem.get().hasValidResponse()) {
+            final HubResponse hubResponse = bucketItem.get().getHubResponse().orElse(null);
+            if (hubResponse != null && hubResponse.getClass().equals(uriSingleResponse.responseClass)) {
+                return Optional.of(getResponseFromBucket(bucketItem.get()));
+            }
+        }
+        return Optional.empty();
     }
 
     public Set<String> getAvailableUris() {
-        return bucket.keySet();
+        evictExpired();
+        if (unboundedBucket != null) {
+            return new HashSet<>(unboundedBucket.keySet());
+        }
+        final Set<String> uris = new HashSet<>();
+        for (final Segment segment : segments) {
+            segment.addUris(uris);
+        }
+        return uris;
     }
 
     public HubBucketItem<HubResponse> get(final String uri) {
-        return bucket.get(uri);
+        final HubBucketItem<HubResponse> bucketItem = getLiveItem(uri);
+        if (bucketItem == null) {
+            statistics.recordMiss();
+        } else {
+            statistics.recordHit();
+        }
+        return bucketItem;
     }
 
     public <T extends HubResponse> T get(final String uri, final Class<T> responseClass) {
@@ -52,16 +221,13 @@ public class HubBucket {
     }
 
     public <T extends HubResponse> T get(final UriSingleResponse<T> uriSingleResponse) {
-        final String uri = uriSingleResponse.uri;
-        if (contains(uri)) {
-            final HubBucketItem<HubResponse> bucketItem = get(uri);
-            if (bucketItem.hasValidResponse()) {
-                final Optional<HubResponse> optionalHubResponse = bucketItem.getHubResponse();
-                if (optionalHubResponse.isPresent()) {
-                    final HubResponse hubResponse = optionalHubResponse.get();
-                    if (hubResponse.getClass().equals(uriSingleResponse.responseClass)) {
-                        return getResponseFromBucket(bucketItem);
-                    }
+        final HubBucketItem<HubResponse> bucketItem = get(uriSingleResponse.uri);
+        if (bucketItem != null && bucketItem.hasValidResponse()) {
+            final Optional<HubResponse> optionalHubResponse = bucketItem.getHubResponse();
+            if (optionalHubResponse.isPresent()) {
+                final HubResponse hubResponse = optionalHubResponse.get();
+                if (hubResponse.getClass().equals(uriSingleResponse.responseClass)) {
+                    return getResponseFromBucket(bucketItem);
                 }
             }
         }
@@ -74,23 +240,326 @@ public class HubBucket {
     }
 
     public Optional<HubResponse> getResponse(final String uri) {
-        return bucket.get(uri).getHubResponse();
+        final HubBucketItem<HubResponse> bucketItem = get(uri);
+        return bucketItem == null ? Optional.empty() : bucketItem.getHubResponse();
     }
 
     public Optional<Exception> getError(final String uri) {
-        return bucket.get(uri).getE();
+        final HubBucketItem<HubResponse> bucketItem = get(uri);
+        return bucketItem == null ? Optional.empty() : bucketItem.getE();
     }
 
     public void addValid(final String uri, final HubResponse hubResponse) {
-        bucket.put(uri, new HubBucketItem<>(uri, hubResponse));
+        put(new HubBucketItem<>(uri, hubResponse));
     }
 
     public void addError(final String uri, final Exception e) {
-        bucket.put(uri, new HubBucketItem<>(uri, e));
+        put(new HubBucketItem<>(uri, e));
+    }
+
+    /**
+     * @throws IllegalStateException if the weigher can not weigh the item, which is then not stored, though anyone awaiting the uri still gets the item and the uri can be loaded again
+     */
+    public void put(final HubBucketItem<HubResponse> bucketItem) {
+        final String uri = bucketItem.getUri();
+        try {
+            if (unboundedBucket != null) {
+                unboundedBucket.put(uri, new BucketEntry(bucketItem, 0, softValues));
+            } else {
+                final long weight = Long.MAX_VALUE == maxWeight ? 1 : weigher.applyAsLong(bucketItem);
+                segmentFor(uri).put(uri, new BucketEntry(bucketItem, weight, softValues));
+            }
+        } finally {
+            // completed after the item is stored, and outside of any lock since the waiters' callbacks run on this thread
+            final CompletableFuture<HubBucketItem<HubResponse>> future = loading.remove(uri);
+            if (future != null) {
+                future.complete(bucketItem);
+            }
+        }
     }
 
     public HubBucketItem<HubResponse> remove(final String uri) {
-        return bucket.remove(uri);
+        final BucketEntry removed = unboundedBucket != null ? unboundedBucket.remove(uri) : segmentFor(uri).remove(uri);
+        return removed == null ? null : removed.getItem();
+    }
+
+    public void clear() {
+        if (unboundedBucket != null) {
+            unboundedBucket.clear();
+        } else {
+            for (final Segment segment : segments) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Removes every expired or reclaimed item, rather than waiting for them to be requested or pushed out.
+     */
+    public void evictExpired() {
+        final long now = System.currentTimeMillis();
+        if (unboundedBucket != null) {
+            for (final Map.Entry<String, BucketEntry> entry : unboundedBucket.entrySet()) {
+                evictIfDead(entry.getKey(), entry.getValue(), now);
+            }
+        } else {
+            for (final Segment segment : segments) {
+                segment.evictExpired(now);
+            }
+        }
+    }
+
+    public int size() {
+        if (unboundedBucket != null) {
+            return unboundedBucket.size();
+        }
+        int size = 0;
+        for (final Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return the total weight of the items, which are only weighed when the bucket is bounded by weight (otherwise each weighs 1 in a bounded bucket and 0 in an unbounded one)
+     */
+    public long getTotalWeight() {
+        if (unboundedBucket != null) {
+            return 0;
+        }
+        long totalWeight = 0;
+        for (final Segment segment : segments) {
+            totalWeight += segment.getTotalWeight();
+        }
+        return totalWeight;
+    }
+
+    public HubBucketStatistics getStatistics() {
+        return statistics;
+    }
+
+    private HubBucketItem<HubResponse> getLiveItem(final String uri) {
+        final BucketEntry bucketEntry = unboundedBucket != null ? unboundedBucket.get(uri) : segmentFor(uri).get(uri);
+        if (bucketEntry == null) {
+            return null;
+        }
+        final HubBucketItem<HubResponse> bucketItem = bucketEntry.getItem();
+        if (bucketItem == null || isExpired(bucketItem, System.currentTimeMillis())) {
+            evictIfDead(uri, bucketEntry, System.currentTimeMillis());
+            return null;
+        }
+        return bucketItem;
+    }
+
+    /**
+     * Removes the entry if it is still the one stored for the uri and has been reclaimed or has expired, so a newer item for the uri is never removed by mistake.
+     */
+    private void evictIfDead(final String uri, final BucketEntry bucketEntry, final long now) {
+        final HubBucketItem<HubResponse> bucketItem = bucketEntry.getItem();
+        final boolean reclaimed = bucketItem == null;
+        if (!reclaimed && !isExpired(bucketItem, now)) {
+            return;
+        }
+        final boolean removed = unboundedBucket != null ? unboundedBucket.remove(uri, bucketEntry) : segmentFor(uri).remove(uri, bucketEntry);
+        if (removed && reclaimed) {
+            statistics.recordEviction();
+        } else if (removed) {
+            statistics.recordExpiration();
+        }
+    }
+
+    private Segment segmentFor(final String uri) {
+        final int hash = uri.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    private boolean isExpired(final HubBucketItem<HubResponse> bucketItem, final long now) {
+        final long timeToLiveMillis = bucketItem.hasValidResponse() ? validTimeToLiveMillis : errorTimeToLiveMillis;
+        return timeToLiveMillis != NO_EXPIRATION && now - bucketItem.getStoredAtMillis() > timeToLiveMillis;
+    }
+
+    /**
+     * A least recently used map with its share of the bucket's bounds.
+     */
+    private class Segment {
+        private final int maxEntries;
+        private final long maxWeight;
+        private final LinkedHashMap<String, BucketEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long totalWeight;
+
+        private Segment(final int maxEntries, final long maxWeight) {
+            this.maxEntries = maxEntries;
+            this.maxWeight = maxWeight;
+        }
+
+        private synchronized BucketEntry get(final String uri) {
+            return entries.get(uri);
+        }
+
+        private synchronized void put(final String uri, final BucketEntry bucketEntry) {
+            final BucketEntry replaced = entries.put(uri, bucketEntry);
+            if (replaced != null) {
+                totalWeight -= replaced.weight;
+            }
+            totalWeight += bucketEntry.weight;
+            evictToBounds();
+        }
+
+        private synchronized BucketEntry remove(final String uri) {
+            final BucketEntry removed = entries.remove(uri);
+            if (removed != null) {
+                totalWeight -= removed.weight;
+            }
+            return removed;
+        }
+
+        private synchronized boolean remove(final String uri, final BucketEntry bucketEntry) {
+            if (entries.get(uri) != bucketEntry) {
+                return false;
+            }
+            remove(uri);
+            return true;
+        }
+
+        private synchronized void clear() {
+            entries.clear();
+            totalWeight = 0;
+        }
+
+        private synchronized void evictExpired(final long now) {
+            final Iterator<BucketEntry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                final BucketEntry bucketEntry = iterator.next();
+                final HubBucketItem<HubResponse> bucketItem = bucketEntry.getItem();
+                if (bucketItem == null) {
+                    iterator.remove();
+                    totalWeight -= bucketEntry.weight;
+                    statistics.recordEviction();
+                } else if (isExpired(bucketItem, now)) {
+                    iterator.remove();
+                    totalWeight -= bucketEntry.weight;
+                    statistics.recordExpiration();
+                }
+            }
+        }
+
+        private synchronized void addUris(final Set<String> uris) {
+            uris.addAll(entries.keySet());
+        }
+
+        private synchronized int size() {
+            return entries.size();
+        }
+
+        private synchronized long getTotalWeight() {
+            return totalWeight;
+        }
+
+        private void evictToBounds() {
+            final Iterator<BucketEntry> iterator = entries.values().iterator();
+            // the newest item is always kept, even when it is heavier than the segment allows
+            while (entries.size() > 1 && (entries.size() > maxEntries || totalWeight > maxWeight) && iterator.hasNext()) {
+                final BucketEntry eldest = iterator.next();
+                iterator.remove();
+                totalWeight -= eldest.weight;
+                statistics.recordEviction();
+            }
+        }
+    }
+
+    private static class BucketEntry {
+        private final HubBucketItem<HubResponse> strongItem;
+        private final SoftReference<HubBucketItem<HubResponse>> softItem;
+        private final long weight;
+
+        private BucketEntry(final HubBucketItem<HubResponse> bucketItem, final long weight, final boolean soft) {
+            strongItem = soft ? null : bucketItem;
+            softItem = soft ? new SoftReference<>(bucketItem) : null;
+            this.weight = weight;
+        }
+
+        private HubBucketItem<HubResponse> getItem() {
+            return strongItem != null ? strongItem : softItem.get();
+        }
+    }
+
+    public static class Builder {
+        private int maxEntries = Integer.MAX_VALUE;
+        private long maxWeight = Long.MAX_VALUE;
+        private ToLongFunction<HubBucketItem<HubResponse>> weigher = HubBucket::weighByJsonLength;
+        private long validTimeToLiveMillis = NO_EXPIRATION;
+        private long errorTimeToLiveMillis = NO_EXPIRATION;
+        private boolean softValues;
+
+        public HubBucket build() {
+            if (maxEntries < 1) {
+                throw new IllegalStateException("The bucket must allow at least one entry.");
+            }
+            if (maxWeight < 1) {
+                throw new IllegalStateException("The bucket must allow a weight of at least 1.");
+            }
+            if (weigher == null) {
+                throw new IllegalStateException("A weigher must be provided.");
+            }
+            if (validTimeToLiveMillis < 0 || errorTimeToLiveMillis < 0) {
+                throw new IllegalStateException("The times to live can not be negative.");
+            }
+            return new HubBucket(maxEntries, maxWeight, weigher, validTimeToLiveMillis, errorTimeToLiveMillis, softValues);
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public Builder maxEntries(final int maxEntries) {
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        public long getMaxWeight() {
+            return maxWeight;
+        }
+
+        public Builder maxWeight(final long maxWeight) {
+            this.maxWeight = maxWeight;
+            return this;
+        }
+
+        public Builder maxWeight(final long maxWeight, final ToLongFunction<HubBucketItem<HubResponse>> weigher) {
+            this.maxWeight = maxWeight;
+            this.weigher = weigher;
+            return this;
+        }
+
+        public long getValidTimeToLiveMillis() {
+            return validTimeToLiveMillis;
+        }
+
+        public Builder validTimeToLiveMillis(final long validTimeToLiveMillis) {
+            this.validTimeToLiveMillis = validTimeToLiveMillis;
+            return this;
+        }
+
+        public long getErrorTimeToLiveMillis() {
+            return errorTimeToLiveMillis;
+        }
+
+        /**
+         * Errors are usually worth retrying much sooner than valid responses need refreshing.
+         */
+        public Builder errorTimeToLiveMillis(final long errorTimeToLiveMillis) {
+            this.errorTimeToLiveMillis = errorTimeToLiveMillis;
+            return this;
+        }
+
+        public boolean isSoftValues() {
+            return softValues;
+        }
+
+        public Builder softValues(final boolean softValues) {
+            this.softValues = softValues;
+            return this;
+        }
     }
 
 }
@@ -31,24 +31,40 @@ public class HubBucketFillTask implements Runnable {
     private final HubService hubService;
     private final HubBucket hubBucket;
     private final UriSingleResponse<? extends HubResponse> uriSingleResponse;
+    private final boolean startedLoading;
 
     public HubBucketFillTask(final HubService hubService, final HubBucket hubBucket, final UriSingleResponse<? extends HubResponse> uriSingleResponse) {
+        this(hubService, hubBucket, uriSingleResponse, false);
+    }
+
+    /**
+     * @param startedLoading true when the caller already got true from HubBucket.startLoading for the uri
+     */
+    public HubBucketFillTask(final HubService hubService, final HubBucket hubBucket, final UriSingleResponse<? extends HubResponse> uriSingleResponse, final boolean startedLoading) {
         this.hubService = hubService;
         this.hubBucket = hubBucket;
         this.uriSingleResponse = uriSingleResponse;
+        this.startedLoading = startedLoading;
     }
 
     @Override
     public void run() {
-        if (!hubBucket.contains(uriSingleResponse.uri)) {
+        if (startedLoading || hubBucket.startLoading(uriSingleResponse.uri)) {
+            final long start = System.nanoTime();
             try {
                 final HubResponse hubResponse = hubService.getResponse(uriSingleResponse);
+                hubBucket.getStatistics().recordLoad(System.nanoTime() - start, true);
                 hubBucket.addValid(uriSingleResponse.uri, hubResponse);
             } catch (final Exception e) {
+                hubBucket.getStatistics().recordLoad(System.nanoTime() - start, false);
                 // it is up to the consumer of the bucket to log or handle any/all Exceptions
                 hubBucket.addError(uriSingleResponse.uri, e);
             }
         }
     }
 
+    public String getUri() {
+        return uriSingleResponse.uri;
+    }
+
 }
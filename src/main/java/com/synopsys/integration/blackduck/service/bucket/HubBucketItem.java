@@ -32,17 +32,28 @@ public class HubBucketItem<T extends HubResponse> extends Stringable {
     private final String uri;
     private final Optional<T> hubResponse;
     private final Optional<Exception> e;
+    private final long storedAtMillis;
 
     public HubBucketItem(final String uri, final T hubResponse) {
+        this(uri, hubResponse, System.currentTimeMillis());
+    }
+
+    public HubBucketItem(final String uri, final T hubResponse, final long storedAtMillis) {
         this.uri = uri;
         this.hubResponse = Optional.of(hubResponse);
         e = Optional.empty();
+        this.storedAtMillis = storedAtMillis;
     }
 
     public HubBucketItem(final String uri, final Exception e) {
+        this(uri, e, System.currentTimeMillis());
+    }
+
+    public HubBucketItem(final String uri, final Exception e, final long storedAtMillis) {
         this.uri = uri;
         hubResponse = Optional.empty();
         this.e = Optional.of(e);
+        this.storedAtMillis = storedAtMillis;
     }
 
     public boolean hasException() {
@@ -65,4 +76,8 @@ public class HubBucketItem<T extends HubResponse> extends Stringable {
         return e;
     }
 
+    public long getStoredAtMillis() {
+        return storedAtMillis;
+    }
+
 }
@@ -0,0 +1,137 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service.bucket;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.synopsys.integration.blackduck.api.core.HubResponse;
+import com.synopsys.integration.blackduck.api.core.HubView;
+import com.synopsys.integration.blackduck.api.core.LinkMultipleResponses;
+import com.synopsys.integration.blackduck.api.core.LinkSingleResponse;
+
+/**
+ * Which links to follow from the views put in a HubBucket, for example "for every ProjectVersionView also fetch its project". The plan is applied to the views it fetches too, up to maxDepth hops from the uris that were
+ * asked for.
+ * <p>
+ * A link to a collection, for example the components of a version, is read in full and every item is put in the bucket under its own _meta.href, so the items can be looked up and followed like any other view.
+ */
+public class HubBucketPrefetchPlan {
+    public static final int DEFAULT_MAX_DEPTH = 3;
+
+    private final List<PrefetchRule<LinkSingleResponse<? extends HubResponse>>> prefetchRules;
+    private final List<PrefetchRule<LinkMultipleResponses<? extends HubResponse>>> collectionPrefetchRules;
+    private final int maxDepth;
+
+    private HubBucketPrefetchPlan(final List<PrefetchRule<LinkSingleResponse<? extends HubResponse>>> prefetchRules, final List<PrefetchRule<LinkMultipleResponses<? extends HubResponse>>> collectionPrefetchRules,
+            final int maxDepth) {
+        this.prefetchRules = prefetchRules;
+        this.collectionPrefetchRules = collectionPrefetchRules;
+        this.maxDepth = maxDepth;
+    }
+
+    public List<LinkSingleResponse<? extends HubResponse>> getLinksToFollow(final HubView hubView) {
+        return getLinksToFollow(hubView, prefetchRules);
+    }
+
+    public List<LinkMultipleResponses<? extends HubResponse>> getCollectionLinksToFollow(final HubView hubView) {
+        return getLinksToFollow(hubView, collectionPrefetchRules);
+    }
+
+    private <L> List<L> getLinksToFollow(final HubView hubView, final List<PrefetchRule<L>> rules) {
+        final List<L> linksToFollow = new ArrayList<>();
+        for (final PrefetchRule<L> prefetchRule : rules) {
+            if (prefetchRule.viewClass.isInstance(hubView)) {
+                linksToFollow.add(prefetchRule.link);
+            }
+        }
+        return linksToFollow;
+    }
+
+    public boolean isEmpty() {
+        return prefetchRules.isEmpty() && collectionPrefetchRules.isEmpty();
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    private static class PrefetchRule<L> {
+        private final Class<? extends HubView> viewClass;
+        private final L link;
+
+        private PrefetchRule(final Class<? extends HubView> viewClass, final L link) {
+            this.viewClass = viewClass;
+            this.link = link;
+        }
+    }
+
+    public static class Builder {
+        private final List<PrefetchRule<LinkSingleResponse<? extends HubResponse>>> prefetchRules = new ArrayList<>();
+        private final List<PrefetchRule<LinkMultipleResponses<? extends HubResponse>>> collectionPrefetchRules = new ArrayList<>();
+        private int maxDepth = DEFAULT_MAX_DEPTH;
+
+        public HubBucketPrefetchPlan build() {
+            if (maxDepth < 0) {
+                throw new IllegalStateException("The maximum depth can not be negative.");
+            }
+            return new HubBucketPrefetchPlan(Collections.unmodifiableList(new ArrayList<>(prefetchRules)), Collections.unmodifiableList(new ArrayList<>(collectionPrefetchRules)), maxDepth);
+        }
+
+        /**
+         * For every view of the given class (or a subclass) in the bucket, also fetch the response of the link.
+         */
+        public Builder follow(final Class<? extends HubView> viewClass, final LinkSingleResponse<? extends HubResponse> linkSingleResponse) {
+            prefetchRules.add(new PrefetchRule<>(viewClass, linkSingleResponse));
+            return this;
+        }
+
+        public <T extends HubResponse> Builder follow(final Class<? extends HubView> viewClass, final String link, final Class<T> responseClass) {
+            return follow(viewClass, new LinkSingleResponse<>(link, responseClass));
+        }
+
+        /**
+         * For every view of the given class (or a subclass) in the bucket, also fetch every response of the collection the link points to.
+         */
+        public Builder followAll(final Class<? extends HubView> viewClass, final LinkMultipleResponses<? extends HubResponse> linkMultipleResponses) {
+            collectionPrefetchRules.add(new PrefetchRule<>(viewClass, linkMultipleResponses));
+            return this;
+        }
+
+        public <T extends HubResponse> Builder followAll(final Class<? extends HubView> viewClass, final String link, final Class<T> responseClass) {
+            return followAll(viewClass, new LinkMultipleResponses<>(link, responseClass));
+        }
+
+        public int getMaxDepth() {
+            return maxDepth;
+        }
+
+        public Builder maxDepth(final int maxDepth) {
+            this.maxDepth = maxDepth;
+            return this;
+        }
+    }
+
+}
@@ -24,16 +24,28 @@
 package com.synopsys.integration.blackduck.service.bucket;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 import com.synopsys.integration.blackduck.api.UriSingleResponse;
 import com.synopsys.integration.blackduck.api.core.HubResponse;
+import com.synopsys.integration.blackduck.api.core.HubView;
+import com.synopsys.integration.blackduck.api.core.LinkMultipleResponses;
+import com.synopsys.integration.blackduck.api.core.LinkSingleResponse;
+import com.synopsys.integration.blackduck.exception.HubIntegrationException;
 import com.synopsys.integration.blackduck.service.DataService;
 import com.synopsys.integration.blackduck.service.HubService;
+import com.synopsys.integration.blackduck.service.model.DistinctHubResponses;
 import com.synopsys.integration.exception.IntegrationException;
 import com.synopsys.integration.log.IntLogger;
 
@@ -70,15 +82,26 @@ public class HubBucketService extends DataService {
         addToTheBucket(hubBucket, uriSingleResponses);
     }
 
+    /**
+     * Only the uris that are neither in the bucket nor already loading are requested. With an executor this returns as soon as the requests are submitted, and HubBucket.await can be used to wait for each uri as needed.
+     */
     public void addToTheBucket(final HubBucket hubBucket, final List<UriSingleResponse<? extends HubResponse>> uriSingleResponses) throws IntegrationException {
-        final List<HubBucketFillTask> taskList = uriSingleResponses.stream().map(uriSingleResponse -> {
-            return new HubBucketFillTask(hubService, hubBucket, uriSingleResponse);
-        }).collect(Collectors.toList());
+        // marking the uris as loading here, rather than in the tasks, means a uri added twice is only requested once and can be awaited right away
+        final List<HubBucketFillTask> taskList = uriSingleResponses.stream()
+                                                         .filter(uriSingleResponse -> hubBucket.startLoading(uriSingleResponse.uri))
+                                                         .map(uriSingleResponse -> new HubBucketFillTask(hubService, hubBucket, uriSingleResponse, true))
+                                                         .collect(Collectors.toList());
         if (executorService.isPresent()) {
             // NOTE: it is up to the user of the bucket service to shutdown the executor
-            taskList.forEach(task -> {
-                executorService.get().execute(task);
-            });
+            for (int i = 0; i < taskList.size(); i++) {
+                try {
+                    executorService.get().execute(taskList.get(i));
+                } catch (final RejectedExecutionException e) {
+                    // the uris that could not be submitted still have to be completed so nobody waits on them forever
+                    taskList.subList(i, taskList.size()).forEach(task -> hubBucket.addError(task.getUri(), e));
+                    throw new HubIntegrationException("Could not fill the bucket: " + e.getMessage(), e);
+                }
+            }
         } else {
             taskList.forEach(task -> {
                 task.run();
@@ -86,4 +109,117 @@ public class HubBucketService extends DataService {
         }
     }
 
+    /**
+     * Adds the uris and then, as each one arrives, the links the plan says to follow from it, breadth first, until the plan's maximum depth. Every uri is requested at most once, and the requests run on the
+     * executor (which bounds how many are in flight) while this thread only follows the links, so no task waits on another. The items of a collection the plan follows are added under their _meta.href (items without
+     * one are skipped), and a collection that could not be read is added as an error under its own uri.
+     */
+    public void addToTheBucket(final HubBucket hubBucket, final List<UriSingleResponse<? extends HubResponse>> uriSingleResponses, final HubBucketPrefetchPlan prefetchPlan) throws IntegrationException {
+        final BlockingQueue<Arrival> arrivals = new LinkedBlockingQueue<>();
+        final Set<String> plannedUris = new HashSet<>();
+        int pendingCount = planUris(hubBucket, uriSingleResponses, 0, plannedUris, arrivals);
+        while (pendingCount > 0) {
+            final Arrival arrival;
+            try {
+                arrival = arrivals.take();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new HubIntegrationException("Interrupted while prefetching the bucket: " + e.getMessage(), e);
+            }
+            pendingCount--;
+            for (final HubResponse hubResponse : arrival.hubResponses) {
+                if (arrival.collectionItems) {
+                    final String href = DistinctHubResponses.getHref(hubResponse);
+                    if (href == null || !plannedUris.add(href)) {
+                        continue;
+                    }
+                    hubBucket.addValid(href, hubResponse);
+                }
+                if (arrival.depth < prefetchPlan.getMaxDepth() && hubResponse instanceof HubView) {
+                    final HubView hubView = (HubView) hubResponse;
+                    pendingCount += planUris(hubBucket, getNextHops(hubView, prefetchPlan), arrival.depth + 1, plannedUris, arrivals);
+                    pendingCount += planCollections(hubBucket, hubView, prefetchPlan, arrival.depth + 1, plannedUris, arrivals);
+                }
+            }
+        }
+    }
+
+    private List<UriSingleResponse<? extends HubResponse>> getNextHops(final HubView hubView, final HubBucketPrefetchPlan prefetchPlan) {
+        final List<UriSingleResponse<? extends HubResponse>> nextHops = new ArrayList<>();
+        for (final LinkSingleResponse<? extends HubResponse> linkSingleResponse : prefetchPlan.getLinksToFollow(hubView)) {
+            final String uri = hubService.getFirstLinkSafely(hubView, linkSingleResponse.link);
+            if (uri != null) {
+                nextHops.add(new UriSingleResponse<>(uri, linkSingleResponse.responseClass));
+            }
+        }
+        return nextHops;
+    }
+
+    private int planUris(final HubBucket hubBucket, final List<UriSingleResponse<? extends HubResponse>> uriSingleResponses, final int depth, final Set<String> plannedUris, final BlockingQueue<Arrival> arrivals)
+            throws IntegrationException {
+        final List<UriSingleResponse<? extends HubResponse>> newUriSingleResponses = uriSingleResponses.stream()
+                                                                                          .filter(uriSingleResponse -> plannedUris.add(uriSingleResponse.uri))
+                                                                                          .collect(Collectors.toList());
+        addToTheBucket(hubBucket, newUriSingleResponses);
+
+        int plannedCount = 0;
+        for (final UriSingleResponse<? extends HubResponse> uriSingleResponse : newUriSingleResponses) {
+            // a uri evicted from a bounded bucket before we got here has no future, and nothing to follow
+            final Optional<CompletableFuture<HubBucketItem<HubResponse>>> future = hubBucket.getFuture(uriSingleResponse.uri);
+            if (future.isPresent()) {
+                future.get().thenAccept(bucketItem -> {
+                    final List<HubResponse> validResponses = bucketItem.hasValidResponse() ? Collections.singletonList(bucketItem.getHubResponse().get()) : Collections.emptyList();
+                    arrivals.add(new Arrival(validResponses, false, depth));
+                });
+                plannedCount++;
+            }
+        }
+        return plannedCount;
+    }
+
+    private int planCollections(final HubBucket hubBucket, final HubView hubView, final HubBucketPrefetchPlan prefetchPlan, final int depth, final Set<String> plannedUris, final BlockingQueue<Arrival> arrivals)
+            throws IntegrationException {
+        int plannedCount = 0;
+        for (final LinkMultipleResponses<? extends HubResponse> linkMultipleResponses : prefetchPlan.getCollectionLinksToFollow(hubView)) {
+            final String uri = hubService.getFirstLinkSafely(hubView, linkMultipleResponses.link);
+            if (uri == null || !plannedUris.add(uri)) {
+                continue;
+            }
+            final Runnable collectionTask = () -> {
+                List<HubResponse> items = Collections.emptyList();
+                try {
+                    items = new ArrayList<>(hubService.getAllResponses(uri, linkMultipleResponses.responseClass));
+                } catch (final Exception e) {
+                    hubBucket.addError(uri, e);
+                } finally {
+                    arrivals.add(new Arrival(items, true, depth));
+                }
+            };
+            if (executorService.isPresent()) {
+                try {
+                    executorService.get().execute(collectionTask);
+                } catch (final RejectedExecutionException e) {
+                    hubBucket.addError(uri, e);
+                    throw new HubIntegrationException("Could not fill the bucket: " + e.getMessage(), e);
+                }
+            } else {
+                collectionTask.run();
+            }
+            plannedCount++;
+        }
+        return plannedCount;
+    }
+
+    private static class Arrival {
+        private final List<HubResponse> hubResponses;
+        private final boolean collectionItems;
+        private final int depth;
+
+        private Arrival(final List<HubResponse> hubResponses, final boolean collectionItems, final int depth) {
+            this.hubResponses = hubResponses;
+            this.collectionItems = collectionItems;
+            this.depth = depth;
+        }
+    }
+
 }
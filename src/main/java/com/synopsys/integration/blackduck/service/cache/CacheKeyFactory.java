@@ -0,0 +1,90 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service.cache;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.synopsys.integration.blackduck.service.model.RequestFactory;
+import com.synopsys.integration.rest.request.Request;
+
+/**
+ * Builds the key that the response caches and the in-flight GETs share for a request. Everything that can change the response is part of it: the uri, the query parameters (sorted, so their order doesn't matter), the
+ * Accept mime type, and any additional header except the conditional and encoding headers the HubService adds itself.
+ */
+public class CacheKeyFactory {
+    private static final Set<String> IGNORED_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        IGNORED_HEADERS.add("If-None-Match");
+        IGNORED_HEADERS.add("If-Modified-Since");
+        IGNORED_HEADERS.add(RequestFactory.ACCEPT_ENCODING_HEADER);
+    }
+
+    public static String createKey(final Request request) {
+        final StringBuilder key = new StringBuilder(request.getUri());
+        final Map<String, Set<String>> queryParameters = request.getQueryParameters();
+        if (queryParameters != null && !queryParameters.isEmpty()) {
+            char separator = request.getUri().contains("?") ? '&' : '?';
+            for (final Map.Entry<String, Set<String>> queryParameter : new TreeMap<>(queryParameters).entrySet()) {
+                for (final String value : new TreeSet<>(queryParameter.getValue())) {
+                    key.append(separator).append(encode(queryParameter.getKey())).append('=').append(encode(value));
+                    separator = '&';
+                }
+            }
+        }
+
+        if (StringUtils.isNotBlank(request.getMimeType())) {
+            key.append("\nAccept: ").append(request.getMimeType());
+        }
+        final Map<String, String> additionalHeaders = request.getAdditionalHeaders();
+        if (additionalHeaders != null) {
+            final Map<String, String> sortedHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            sortedHeaders.putAll(additionalHeaders);
+            for (final Map.Entry<String, String> header : sortedHeaders.entrySet()) {
+                if (!IGNORED_HEADERS.contains(header.getKey())) {
+                    key.append('\n').append(header.getKey().toLowerCase()).append(": ").append(header.getValue());
+                }
+            }
+        }
+        return key.toString();
+    }
+
+    private static String encode(final String value) {
+        try {
+            return URLEncoder.encode(value, StandardCharsets.UTF_8.name());
+        } catch (final UnsupportedEncodingException e) {
+            // UTF-8 is always supported
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,74 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service.cache;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.synopsys.integration.util.Stringable;
+
+public class CachedHubResponse extends Stringable {
+    private final String json;
+    private final String eTag;
+    private final String lastModified;
+    private final long storedAtMillis;
+
+    public CachedHubResponse(final String json, final String eTag, final String lastModified) {
+        this(json, eTag, lastModified, System.currentTimeMillis());
+    }
+
+    public CachedHubResponse(final String json, final String eTag, final String lastModified, final long storedAtMillis) {
+        this.json = json;
+        this.eTag = eTag;
+        this.lastModified = lastModified;
+        this.storedAtMillis = storedAtMillis;
+    }
+
+    /**
+     * @return a copy of this response that was confirmed as current by the Hub just now.
+     */
+    public CachedHubResponse revalidated() {
+        return new CachedHubResponse(json, eTag, lastModified);
+    }
+
+    public boolean hasValidator() {
+        return StringUtils.isNotBlank(eTag) || StringUtils.isNotBlank(lastModified);
+    }
+
+    public String getJson() {
+        return json;
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    public long getStoredAtMillis() {
+        return storedAtMillis;
+    }
+
+}
@@ -0,0 +1,45 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service.cache;
+
+import java.util.Optional;
+
+/**
+ * A cache of the raw json of single Hub responses, along with the validators the Hub returned for them. A HubService revalidates a cached response with a conditional GET and, when the Hub answers 304 Not Modified, decodes the
+ * view from the cache instead of the network.
+ * <p>
+ * Responses are keyed by CacheKeyFactory.createKey, which includes the query and the headers that change the response, not just the uri.
+ */
+public interface HubResponseCache {
+    Optional<CachedHubResponse> get(String key);
+
+    void put(String key, CachedHubResponse cachedHubResponse);
+
+    void remove(String key);
+
+    void clear();
+
+    HubResponseCacheStatistics getStatistics();
+
+}
@@ -0,0 +1,123 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A least recently used HubResponseCache holding at most maxEntries responses, each for at most timeToLiveMillis since the Hub last confirmed it.
+ */
+public class InMemoryHubResponseCache implements HubResponseCache {
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+    public static final long DEFAULT_TIME_TO_LIVE_MILLIS = 30L * 60L * 1000L;
+
+    private final int maxEntries;
+    private final long timeToLiveMillis;
+    private final HubResponseCacheStatistics statistics = new HubResponseCacheStatistics();
+    private final LinkedHashMap<String, CachedHubResponse> cache;
+
+    public InMemoryHubResponseCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_TIME_TO_LIVE_MILLIS);
+    }
+
+    public InMemoryHubResponseCache(final int maxEntries, final long timeToLiveMillis) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("The cache must allow at least one entry.");
+        }
+        this.maxEntries = maxEntries;
+        this.timeToLiveMillis = timeToLiveMillis;
+        cache = new LinkedHashMap<String, CachedHubResponse>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, CachedHubResponse> eldest) {
+                if (size() > InMemoryHubResponseCache.this.maxEntries) {
+                    statistics.recordEviction();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public synchronized Optional<CachedHubResponse> get(final String key) {
+        final CachedHubResponse cachedHubResponse = cache.get(key);
+        if (cachedHubResponse == null) {
+            return Optional.empty();
+        }
+        if (isExpired(cachedHubResponse, System.currentTimeMillis())) {
+            cache.remove(key);
+            statistics.recordEviction();
+            return Optional.empty();
+        }
+        return Optional.of(cachedHubResponse);
+    }
+
+    @Override
+    public synchronized void put(final String key, final CachedHubResponse cachedHubResponse) {
+        cache.put(key, cachedHubResponse);
+    }
+
+    @Override
+    public synchronized void remove(final String key) {
+        cache.remove(key);
+    }
+
+    @Override
+    public synchronized void clear() {
+        cache.clear();
+    }
+
+    /**
+     * Removes every expired response, rather than waiting for them to be requested or pushed out.
+     */
+    public synchronized void evictExpired() {
+        final long now = System.currentTimeMillis();
+        final Iterator<CachedHubResponse> iterator = cache.values().iterator();
+        while (iterator.hasNext()) {
+            if (isExpired(iterator.next(), now)) {
+                iterator.remove();
+                statistics.recordEviction();
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    @Override
+    public HubResponseCacheStatistics getStatistics() {
+        return statistics;
+    }
+
+    private boolean isExpired(final CachedHubResponse cachedHubResponse, final long now) {
+        return now - cachedHubResponse.getStoredAtMillis() > timeToLiveMillis;
+    }
+
+}
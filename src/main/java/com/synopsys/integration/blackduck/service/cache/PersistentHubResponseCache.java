@@ -0,0 +1,139 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service.cache;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the content of Hub resources that don't change on disk, so a new JVM doesn't download them again. Unlike a HubResponseCache, a hit makes no request at all and an entry never expires, so only uris matching the
+ * immutable uri patterns are kept, and every entry is keyed by the Hub's version as well as its uri: upgrading the Hub leaves the old entries to be compacted away.
+ * <p>
+ * By default only component versions are kept. Licenses, their text and vulnerabilities are edited and rescored on a running Hub, so they are left to a HubResponseCache, which revalidates them.
+ */
+public class PersistentHubResponseCache implements Closeable {
+    public static final String DEFAULT_FILE_NAME = "hub-responses.store";
+    public static final long DEFAULT_MAX_BYTES = 256L * 1024L * 1024L;
+    public static final long DEFAULT_SERVER_VERSION_RETRY_MILLIS = 5L * 60L * 1000L;
+    public static final List<Pattern> DEFAULT_IMMUTABLE_URI_PATTERNS = Collections.singletonList(Pattern.compile(".*/api/components/[^/?]+/versions/[^/?]+"));
+
+    private final SegmentFileStore segmentFileStore;
+    private final List<Pattern> immutableUriPatterns;
+    private final HubResponseCacheStatistics statistics = new HubResponseCacheStatistics();
+    private final Map<String, String> serverVersions = new ConcurrentHashMap<>();
+    private final Map<String, Long> serverVersionFailures = new ConcurrentHashMap<>();
+
+    public PersistentHubResponseCache(final File directory) throws IOException {
+        this(directory, DEFAULT_MAX_BYTES, DEFAULT_IMMUTABLE_URI_PATTERNS);
+    }
+
+    public PersistentHubResponseCache(final File directory, final long maxBytes, final List<Pattern> immutableUriPatterns) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create the cache directory: " + directory);
+        }
+        segmentFileStore = new SegmentFileStore(new File(directory, DEFAULT_FILE_NAME), maxBytes);
+        this.immutableUriPatterns = new ArrayList<>(immutableUriPatterns);
+    }
+
+    /**
+     * Matches the uri alone, the entries themselves are keyed by CacheKeyFactory.createKey so a query or Accept header that changes the response gets its own entry.
+     */
+    public boolean isCacheable(final String uri) {
+        return immutableUriPatterns.stream().anyMatch(pattern -> pattern.matcher(uri).matches());
+    }
+
+    public Optional<String> get(final String serverVersion, final String requestKey) throws IOException {
+        final Optional<String> content = segmentFileStore.get(createKey(serverVersion, requestKey));
+        if (content.isPresent()) {
+            statistics.recordHit();
+        } else {
+            statistics.recordMiss();
+        }
+        return content;
+    }
+
+    public void put(final String serverVersion, final String requestKey, final String content) throws IOException {
+        final long droppedBefore = segmentFileStore.getDroppedCount();
+        segmentFileStore.put(createKey(serverVersion, requestKey), content);
+        statistics.recordEvictions(segmentFileStore.getDroppedCount() - droppedBefore);
+    }
+
+    public void remove(final String serverVersion, final String requestKey) throws IOException {
+        segmentFileStore.remove(createKey(serverVersion, requestKey));
+    }
+
+    public void clear() throws IOException {
+        segmentFileStore.clear();
+    }
+
+    /**
+     * The version is requested once per Hub per JVM, the first time a cacheable uri of that Hub is requested.
+     */
+    public Optional<String> getServerVersion(final String baseUrl) {
+        return Optional.ofNullable(serverVersions.get(baseUrl));
+    }
+
+    public void setServerVersion(final String baseUrl, final String serverVersion) {
+        serverVersions.put(baseUrl, serverVersion);
+        serverVersionFailures.remove(baseUrl);
+    }
+
+    /**
+     * Records that the version of the Hub could not be determined, so it is not asked for again, and nothing is cached for the Hub, until DEFAULT_SERVER_VERSION_RETRY_MILLIS have passed.
+     */
+    public void setServerVersionUnavailable(final String baseUrl) {
+        serverVersionFailures.put(baseUrl, System.currentTimeMillis());
+    }
+
+    public boolean isServerVersionUnavailable(final String baseUrl) {
+        final Long failedAt = serverVersionFailures.get(baseUrl);
+        return failedAt != null && System.currentTimeMillis() - failedAt < DEFAULT_SERVER_VERSION_RETRY_MILLIS;
+    }
+
+    public HubResponseCacheStatistics getStatistics() {
+        return statistics;
+    }
+
+    public SegmentFileStore getSegmentFileStore() {
+        return segmentFileStore;
+    }
+
+    @Override
+    public void close() throws IOException {
+        segmentFileStore.close();
+    }
+
+    private String createKey(final String serverVersion, final String requestKey) {
+        return serverVersion + " " + requestKey;
+    }
+
+}
@@ -0,0 +1,407 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service.cache;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+/**
+ * A persistent map of strings kept in a single append-only file with an in-memory index of where each value is. A put or remove only appends a record, and a get is one positional read. When the file grows past maxBytes
+ * it is compacted: the live values are copied to a new file, dropping the oldest written ones if they alone are over three quarters of maxBytes, and the new file replaces the old one.
+ * <p>
+ * Every record has a checksum, so a file cut short by a crash is truncated back to its last whole record when it is opened. The file is locked while open, so only one store at a time can use it.
+ * <p>
+ * If a compaction can not replace the file, the original file is opened again. If even that fails the store is disabled, and every later read or write throws an IOException.
+ */
+public class SegmentFileStore implements Closeable {
+    private static final int MAGIC = 0x48554243;
+    private static final int FORMAT_VERSION = 1;
+    private static final int FILE_HEADER_LENGTH = 8;
+    private static final int RECORD_HEADER_LENGTH = 12;
+    private static final int TOMBSTONE = -1;
+
+    private final File file;
+    private final long maxBytes;
+    // in write order, so compaction knows which values are the oldest
+    private final LinkedHashMap<String, IndexEntry> index = new LinkedHashMap<>();
+    private FileChannel channel;
+    private FileLock fileLock;
+    private long fileLength;
+    private long liveBytes;
+    private long droppedCount;
+
+    public SegmentFileStore(final File file, final long maxBytes) throws IOException {
+        if (maxBytes < FILE_HEADER_LENGTH + RECORD_HEADER_LENGTH) {
+            throw new IllegalArgumentException("The store must allow at least one record.");
+        }
+        this.file = file;
+        this.maxBytes = maxBytes;
+        open();
+    }
+
+    public synchronized Optional<String> get(final String key) throws IOException {
+        ensureOpen();
+        final IndexEntry indexEntry = index.get(key);
+        if (indexEntry == null) {
+            return Optional.empty();
+        }
+        final ByteBuffer value = ByteBuffer.allocate(indexEntry.valueLength);
+        long position = indexEntry.getValuePosition();
+        while (value.hasRemaining()) {
+            final int read = channel.read(value, position);
+            if (read < 0) {
+                throw new EOFException("The store file ended before the value of " + key);
+            }
+            position += read;
+        }
+        return Optional.of(new String(value.array(), StandardCharsets.UTF_8));
+    }
+
+    public synchronized boolean contains(final String key) {
+        return index.containsKey(key);
+    }
+
+    public synchronized void put(final String key, final String value) throws IOException {
+        ensureOpen();
+        final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        final byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+        final long position = append(keyBytes, valueBytes);
+        removeFromIndex(key);
+        final IndexEntry indexEntry = new IndexEntry(position, keyBytes.length, valueBytes.length);
+        index.put(key, indexEntry);
+        liveBytes += indexEntry.getRecordLength();
+        if (fileLength > maxBytes) {
+            compact();
+        }
+    }
+
+    public synchronized void remove(final String key) throws IOException {
+        ensureOpen();
+        if (index.containsKey(key)) {
+            append(key.getBytes(StandardCharsets.UTF_8), null);
+            removeFromIndex(key);
+        }
+    }
+
+    public synchronized void clear() throws IOException {
+        index.clear();
+        liveBytes = 0;
+        compact();
+    }
+
+    /**
+     * Rewrites the file with only the live values, which also happens on its own whenever the file grows past maxBytes.
+     */
+    public synchronized void compact() throws IOException {
+        ensureOpen();
+        final long targetBytes = maxBytes / 4 * 3;
+        final Iterator<Map.Entry<String, IndexEntry>> oldestFirst = index.entrySet().iterator();
+        while (FILE_HEADER_LENGTH + liveBytes > targetBytes && oldestFirst.hasNext()) {
+            liveBytes -= oldestFirst.next().getValue().getRecordLength();
+            oldestFirst.remove();
+            droppedCount++;
+        }
+
+        final File compactedFile = new File(file.getParentFile(), file.getName() + ".compacting");
+        try (FileChannel compactedChannel = FileChannel.open(compactedFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(compactedChannel, createFileHeader(), 0);
+            long position = FILE_HEADER_LENGTH;
+            for (final IndexEntry indexEntry : index.values()) {
+                final ByteBuffer record = ByteBuffer.allocate(indexEntry.getRecordLength());
+                readFully(record, indexEntry.position);
+                record.flip();
+                writeFully(compactedChannel, record, position);
+                position += indexEntry.getRecordLength();
+            }
+            compactedChannel.force(true);
+        } catch (final IOException e) {
+            // the original file is still open and untouched, only the values dropped from the index are lost
+            Files.deleteIfExists(compactedFile.toPath());
+            throw e;
+        }
+
+        // the lock has to be released before the file can be replaced on every platform
+        closeChannel();
+        try {
+            Files.move(compactedFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final IOException e) {
+            Files.deleteIfExists(compactedFile.toPath());
+            reopenAfterFailure(e);
+            throw e;
+        }
+        // re-reading the compacted file keeps open() the only place the index is built
+        reopenAfterFailure(null);
+    }
+
+    /**
+     * Opens the file again after the channel was closed for a compaction, whether or not the file was replaced. If it can not be opened the store stays disabled rather than left with a closed channel.
+     */
+    private void reopenAfterFailure(final IOException compactionFailure) throws IOException {
+        try {
+            open();
+        } catch (final IOException e) {
+            try {
+                closeChannel();
+            } catch (final IOException closeFailure) {
+                e.addSuppressed(closeFailure);
+            }
+            index.clear();
+            liveBytes = 0;
+            if (compactionFailure != null) {
+                e.addSuppressed(compactionFailure);
+            }
+            throw new IOException("The store file could not be reopened and the store is now disabled: " + file, e);
+        }
+    }
+
+    /**
+     * @return false once the store is closed, or disabled by a failed compaction
+     */
+    public synchronized boolean isOpen() {
+        return channel != null;
+    }
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    public synchronized long getFileLength() {
+        return fileLength;
+    }
+
+    public synchronized long getLiveBytes() {
+        return liveBytes;
+    }
+
+    /**
+     * @return how many values compaction dropped to stay within maxBytes
+     */
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.force(false);
+        }
+        closeChannel();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (channel == null) {
+            throw new IOException("The store is closed or was disabled by a failed compaction: " + file);
+        }
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            fileLock = channel.tryLock();
+        } catch (final OverlappingFileLockException e) {
+            // another store in this JVM holds the lock
+            fileLock = null;
+        }
+        if (fileLock == null) {
+            channel.close();
+            channel = null;
+            throw new IOException("The store file is in use by another store: " + file);
+        }
+        index.clear();
+        liveBytes = 0;
+        if (channel.size() < FILE_HEADER_LENGTH) {
+            channel.truncate(0);
+            writeFully(channel, createFileHeader(), 0);
+            fileLength = FILE_HEADER_LENGTH;
+            return;
+        }
+        fileLength = readIndex();
+        if (fileLength < channel.size()) {
+            // the end of the file is not a whole record, most likely a write cut short by a crash
+            channel.truncate(fileLength);
+        }
+    }
+
+    private long readIndex() throws IOException {
+        final InputStream channelStream = Channels.newInputStream(channel.position(0));
+        final DataInputStream input = new DataInputStream(new BufferedInputStream(channelStream, 64 * 1024));
+        if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION) {
+            throw new IOException("Not a store file of this version: " + file);
+        }
+        long position = FILE_HEADER_LENGTH;
+        final CRC32 crc = new CRC32();
+        while (true) {
+            final int checksum;
+            final int keyLength;
+            final int valueLength;
+            final byte[] keyBytes;
+            final byte[] valueBytes;
+            try {
+                checksum = input.readInt();
+                keyLength = input.readInt();
+                valueLength = input.readInt();
+                if (keyLength < 0 || valueLength < TOMBSTONE || position + RECORD_HEADER_LENGTH + keyLength + Math.max(0, valueLength) > channel.size()) {
+                    return position;
+                }
+                keyBytes = new byte[keyLength];
+                input.readFully(keyBytes);
+                valueBytes = new byte[Math.max(0, valueLength)];
+                input.readFully(valueBytes);
+            } catch (final EOFException e) {
+                return position;
+            }
+            crc.reset();
+            crc.update(keyBytes);
+            crc.update(valueBytes);
+            if ((int) crc.getValue() != checksum) {
+                return position;
+            }
+
+            final String key = new String(keyBytes, StandardCharsets.UTF_8);
+            removeFromIndex(key);
+            final IndexEntry indexEntry = new IndexEntry(position, keyLength, Math.max(0, valueLength));
+            if (TOMBSTONE != valueLength) {
+                index.put(key, indexEntry);
+                liveBytes += indexEntry.getRecordLength();
+            }
+            position += indexEntry.getRecordLength();
+        }
+    }
+
+    private long append(final byte[] keyBytes, final byte[] valueBytes) throws IOException {
+        final int valueLength = valueBytes == null ? 0 : valueBytes.length;
+        final CRC32 crc = new CRC32();
+        crc.update(keyBytes);
+        if (valueBytes != null) {
+            crc.update(valueBytes);
+        }
+        final ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_LENGTH + keyBytes.length + valueLength);
+        record.putInt((int) crc.getValue());
+        record.putInt(keyBytes.length);
+        record.putInt(valueBytes == null ? TOMBSTONE : valueLength);
+        record.put(keyBytes);
+        if (valueBytes != null) {
+            record.put(valueBytes);
+        }
+        record.flip();
+
+        final long position = fileLength;
+        writeFully(channel, record, position);
+        fileLength += record.limit();
+        return position;
+    }
+
+    private void removeFromIndex(final String key) {
+        final IndexEntry removed = index.remove(key);
+        if (removed != null) {
+            liveBytes -= removed.getRecordLength();
+        }
+    }
+
+    private ByteBuffer createFileHeader() {
+        final ByteBuffer fileHeader = ByteBuffer.allocate(FILE_HEADER_LENGTH);
+        fileHeader.putInt(MAGIC);
+        fileHeader.putInt(FORMAT_VERSION);
+        fileHeader.flip();
+        return fileHeader;
+    }
+
+    private void readFully(final ByteBuffer buffer, final long startPosition) throws IOException {
+        long position = startPosition;
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("The store file ended unexpectedly: " + file);
+            }
+            position += read;
+        }
+    }
+
+    private void writeFully(final FileChannel fileChannel, final ByteBuffer buffer, final long startPosition) throws IOException {
+        long position = startPosition;
+        while (buffer.hasRemaining()) {
+            position += fileChannel.write(buffer, position);
+        }
+    }
+
+    private void closeChannel() throws IOException {
+        final FileChannel closing = channel;
+        final FileLock releasing = fileLock;
+        channel = null;
+        fileLock = null;
+        try {
+            if (releasing != null && releasing.isValid()) {
+                releasing.release();
+            }
+        } finally {
+            if (closing != null) {
+                closing.close();
+            }
+        }
+    }
+
+    private static class IndexEntry {
+        private final long position;
+        private final int keyLength;
+        private final int valueLength;
+
+        private IndexEntry(final long position, final int keyLength, final int valueLength) {
+            this.position = position;
+            this.keyLength = keyLength;
+            this.valueLength = valueLength;
+        }
+
+        private long getValuePosition() {
+            return position + RECORD_HEADER_LENGTH + keyLength;
+        }
+
+        private int getRecordLength() {
+            return RECORD_HEADER_LENGTH + keyLength + valueLength;
+        }
+    }
+
+}
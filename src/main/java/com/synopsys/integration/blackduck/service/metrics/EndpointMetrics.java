@@ -0,0 +1,236 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request metrics of one templated Hub endpoint, such as /api/projects/{id}/versions. Network time runs from sending the request until the body has been read, without the time spent decoding json into views, which is recorded
+ * separately. Latencies are recorded in microseconds. The bytes received are the decoded body; for the responses that were inflated by ResponseContentStream, the compressed size on the wire is recorded as well.
+ */
+public class EndpointMetrics implements EndpointMetricsMXBean {
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final String endpoint;
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder errorCount = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final LongAdder compressedBytesReceived = new LongAdder();
+    private final LongAdder compressedResponseCount = new LongAdder();
+    private final LongAdder pageCount = new LongAdder();
+    private final Histogram pagesPerCollection = new Histogram();
+    private final Histogram networkMicros = new Histogram();
+    private final Histogram decodeMicros = new Histogram();
+
+    public EndpointMetrics(final String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public void recordRequest(final long networkNanos, final boolean successful) {
+        requestCount.increment();
+        if (!successful) {
+            errorCount.increment();
+        }
+        networkMicros.record(TimeUnit.NANOSECONDS.toMicros(networkNanos));
+    }
+
+    public void recordDecode(final long decodeNanos) {
+        decodeMicros.record(TimeUnit.NANOSECONDS.toMicros(decodeNanos));
+    }
+
+    public void recordBytesReceived(final long bytes) {
+        if (bytes > 0) {
+            bytesReceived.add(bytes);
+        }
+    }
+
+    /**
+     * Records the wire size of a compressed response, whose decoded size is recorded with recordBytesReceived.
+     */
+    public void recordCompressedBytesReceived(final long bytes) {
+        compressedResponseCount.increment();
+        if (bytes > 0) {
+            compressedBytesReceived.add(bytes);
+        }
+    }
+
+    public void recordPage() {
+        pageCount.increment();
+    }
+
+    public void recordCollection(final int pages) {
+        pagesPerCollection.record(pages);
+    }
+
+    /**
+     * The number of bytes of the UTF-8 encoding of the content, computed without encoding it.
+     */
+    public static long utf8Length(final CharSequence content) {
+        if (content == null) {
+            return 0L;
+        }
+        long length = 0;
+        for (int i = 0; i < content.length(); i++) {
+            final char c = content.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < content.length() && Character.isLowSurrogate(content.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    public Histogram getNetworkMicros() {
+        return networkMicros;
+    }
+
+    public Histogram getDecodeMicros() {
+        return decodeMicros;
+    }
+
+    public Histogram getPagesPerCollection() {
+        return pagesPerCollection;
+    }
+
+    @Override
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    @Override
+    public long getRequestCount() {
+        return requestCount.sum();
+    }
+
+    @Override
+    public long getErrorCount() {
+        return errorCount.sum();
+    }
+
+    @Override
+    public long getBytesReceived() {
+        return bytesReceived.sum();
+    }
+
+    @Override
+    public long getCompressedBytesReceived() {
+        return compressedBytesReceived.sum();
+    }
+
+    @Override
+    public long getCompressedResponseCount() {
+        return compressedResponseCount.sum();
+    }
+
+    @Override
+    public long getPageCount() {
+        return pageCount.sum();
+    }
+
+    @Override
+    public long getCollectionCount() {
+        return pagesPerCollection.getCount();
+    }
+
+    @Override
+    public double getMeanPagesPerCollection() {
+        return pagesPerCollection.getMean();
+    }
+
+    @Override
+    public long getMaxPagesPerCollection() {
+        return pagesPerCollection.getMax();
+    }
+
+    @Override
+    public double getNetworkMeanMillis() {
+        return networkMicros.getMean() / MICROS_PER_MILLI;
+    }
+
+    @Override
+    public double getNetworkP50Millis() {
+        return networkMicros.getValueAtPercentile(50.0) / MICROS_PER_MILLI;
+    }
+
+    @Override
+    public double getNetworkP90Millis() {
+        return networkMicros.getValueAtPercentile(90.0) / MICROS_PER_MILLI;
+    }
+
+    @Override
+    public double getNetworkP99Millis() {
+        return networkMicros.getValueAtPercentile(99.0) / MICROS_PER_MILLI;
+    }
+
+    @Override
+    public double getNetworkMaxMillis() {
+        return networkMicros.getMax() / MICROS_PER_MILLI;
+    }
+
+    @Override
+    public double getDecodeMeanMillis() {
+        return decodeMicros.getMean() / MICROS_PER_MILLI;
+    }
+
+    @Override
+    public double getDecodeP50Millis() {
+        return decodeMicros.getValueAtPercentile(50.0) / MICROS_PER_MILLI;
+    }
+
+    @Override
+    public double getDecodeP90Millis() {
+        return decodeMicros.getValueAtPercentile(90.0) / MICROS_PER_MILLI;
+    }
+
+    @Override
+    public double getDecodeP99Millis() {
+        return decodeMicros.getValueAtPercentile(99.0) / MICROS_PER_MILLI;
+    }
+
+    @Override
+    public double getDecodeMaxMillis() {
+        return decodeMicros.getMax() / MICROS_PER_MILLI;
+    }
+
+    @Override
+    public void reset() {
+        requestCount.reset();
+        errorCount.reset();
+        bytesReceived.reset();
+        compressedBytesReceived.reset();
+        compressedResponseCount.reset();
+        pageCount.reset();
+        pagesPerCollection.reset();
+        networkMicros.reset();
+        decodeMicros.reset();
+    }
+
+}
@@ -0,0 +1,182 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Collects EndpointMetrics per templated endpoint. Ids in a uri (numbers, uuids and long hex strings) are replaced by {id} and the scheme, host and query are dropped, so /api/projects/3f6a.../versions/9c1e...?limit=100 is
+ * recorded as /api/projects/{id}/versions/{id}.
+ */
+public class HubMetricsRegistry {
+    public static final String DEFAULT_JMX_DOMAIN = "com.synopsys.integration.blackduck";
+    public static final String ID_PLACEHOLDER = "{id}";
+
+    private static final int MIN_HEX_ID_LENGTH = 16;
+
+    private final ConcurrentHashMap<String, EndpointMetrics> endpointMetrics = new ConcurrentHashMap<>();
+    private Optional<MBeanServer> mBeanServer = Optional.empty();
+    private String jmxDomain = DEFAULT_JMX_DOMAIN;
+
+    public EndpointMetrics getEndpointMetricsForUri(final String uri) {
+        return getEndpointMetrics(toEndpointTemplate(uri));
+    }
+
+    public EndpointMetrics getEndpointMetrics(final String endpoint) {
+        final EndpointMetrics existing = endpointMetrics.get(endpoint);
+        if (existing != null) {
+            return existing;
+        }
+        return endpointMetrics.computeIfAbsent(endpoint, key -> {
+            final EndpointMetrics created = new EndpointMetrics(key);
+            registerMBean(created);
+            return created;
+        });
+    }
+
+    /**
+     * @return the metrics of every endpoint seen so far, sorted by endpoint
+     */
+    public Map<String, EndpointMetrics> getAllEndpointMetrics() {
+        return Collections.unmodifiableMap(new TreeMap<>(endpointMetrics));
+    }
+
+    public void reset() {
+        endpointMetrics.values().forEach(EndpointMetrics::reset);
+    }
+
+    public synchronized void registerWithJmx() throws JMException {
+        registerWithJmx(ManagementFactory.getPlatformMBeanServer(), DEFAULT_JMX_DOMAIN);
+    }
+
+    /**
+     * Registers an EndpointMetricsMXBean for every endpoint seen so far and for every endpoint seen from now on.
+     */
+    public synchronized void registerWithJmx(final MBeanServer server, final String domain) throws JMException {
+        jmxDomain = domain;
+        mBeanServer = Optional.of(server);
+        for (final EndpointMetrics metrics : endpointMetrics.values()) {
+            registerMBean(metrics);
+        }
+    }
+
+    public synchronized void unregisterFromJmx() throws JMException {
+        if (mBeanServer.isPresent()) {
+            for (final EndpointMetrics metrics : endpointMetrics.values()) {
+                final ObjectName objectName = createObjectName(metrics.getEndpoint());
+                if (mBeanServer.get().isRegistered(objectName)) {
+                    mBeanServer.get().unregisterMBean(objectName);
+                }
+            }
+            mBeanServer = Optional.empty();
+        }
+    }
+
+    private synchronized void registerMBean(final EndpointMetrics metrics) {
+        if (!mBeanServer.isPresent()) {
+            return;
+        }
+        try {
+            mBeanServer.get().registerMBean(metrics, createObjectName(metrics.getEndpoint()));
+        } catch (final InstanceAlreadyExistsException e) {
+            // already visible through JMX
+        } catch (final JMException e) {
+            throw new IllegalStateException("Could not register the metrics of " + metrics.getEndpoint() + " with JMX", e);
+        }
+    }
+
+    private ObjectName createObjectName(final String endpoint) throws JMException {
+        return new ObjectName(jmxDomain + ":type=HubEndpoint,name=" + ObjectName.quote(endpoint));
+    }
+
+    public static String toEndpointTemplate(final String uri) {
+        if (uri == null) {
+            return "";
+        }
+        int start = 0;
+        final int schemeEnd = uri.indexOf("://");
+        if (schemeEnd >= 0) {
+            final int pathStart = uri.indexOf('/', schemeEnd + 3);
+            start = pathStart < 0 ? uri.length() : pathStart;
+        }
+        int end = uri.length();
+        final int queryStart = uri.indexOf('?', start);
+        if (queryStart >= 0) {
+            end = queryStart;
+        }
+        final int fragmentStart = uri.indexOf('#', start);
+        if (fragmentStart >= 0 && fragmentStart < end) {
+            end = fragmentStart;
+        }
+
+        final StringBuilder template = new StringBuilder(end - start);
+        int segmentStart = start;
+        while (segmentStart < end) {
+            int segmentEnd = uri.indexOf('/', segmentStart);
+            if (segmentEnd < 0 || segmentEnd > end) {
+                segmentEnd = end;
+            }
+            if (isId(uri, segmentStart, segmentEnd)) {
+                template.append(ID_PLACEHOLDER);
+            } else {
+                template.append(uri, segmentStart, segmentEnd);
+            }
+            if (segmentEnd < end) {
+                template.append('/');
+            }
+            segmentStart = segmentEnd + 1;
+        }
+        return template.length() == 0 ? "/" : template.toString();
+    }
+
+    private static boolean isId(final String uri, final int start, final int end) {
+        if (start >= end) {
+            return false;
+        }
+        boolean allDigits = true;
+        boolean allHex = true;
+        for (int i = start; i < end; i++) {
+            final char c = uri.charAt(i);
+            final boolean digit = c >= '0' && c <= '9';
+            final boolean hex = digit || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F') || c == '-';
+            allDigits &= digit;
+            allHex &= hex;
+            if (!allHex) {
+                return false;
+            }
+        }
+        return allDigits || end - start >= MIN_HEX_ID_LENGTH;
+    }
+
+}
@@ -0,0 +1,242 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service.model;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounds the number of requests in flight to the Hub with an additive increase, multiplicative decrease (AIMD) limit. Every successful request made while the limit was nearly in use grows the limit by 1/limit, so a full
+ * window of successes grows it by about one. The limit is cut by the backoff ratio when the Hub sheds load (429, 502, 503, 504, or a timeout) or a response takes much longer than usual, at most once per latency window so a
+ * burst of failures from the same congestion only counts once. Callers over the limit wait until a request completes, every release wakes all of them so they are not guaranteed to proceed in the order they arrived.
+ */
+public class AdaptiveConcurrencyLimiter {
+    public static final int DEFAULT_INITIAL_LIMIT = 8;
+    public static final int DEFAULT_MIN_LIMIT = 1;
+    public static final int DEFAULT_MAX_LIMIT = 200;
+    public static final double DEFAULT_BACKOFF_RATIO = 0.9;
+    public static final long DEFAULT_LATENCY_THRESHOLD_MILLIS = 0L;
+    public static final double DEFAULT_LATENCY_TOLERANCE = 2.0;
+
+    private static final double LATENCY_SMOOTHING = 0.05;
+    private static final int LATENCY_WARMUP_SAMPLES = 20;
+    private static final long INITIAL_LATENCY_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+    private final double latencyTolerance;
+    private final LongSupplier nanoClock;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition permitAvailable = lock.newCondition();
+    private double limit;
+    private int inFlight;
+    private int queueDepth;
+    private double smoothedLatencyNanos;
+    private long latencySamples;
+    private boolean decreased;
+    private long lastDecreaseNanos;
+
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder drops = new LongAdder();
+    private final LongAdder slowResponses = new LongAdder();
+
+    public enum Outcome {
+        SUCCESS,
+        /**
+         * The Hub refused the request or it timed out, both signs of overload.
+         */
+        DROPPED,
+        /**
+         * The request failed for a reason unrelated to load, the limit is left alone.
+         */
+        IGNORED
+    }
+
+    public AdaptiveConcurrencyLimiter() {
+        this(DEFAULT_INITIAL_LIMIT, DEFAULT_MIN_LIMIT, DEFAULT_MAX_LIMIT, DEFAULT_BACKOFF_RATIO, DEFAULT_LATENCY_THRESHOLD_MILLIS, DEFAULT_LATENCY_TOLERANCE);
+    }
+
+    public AdaptiveConcurrencyLimiter(final int initialLimit, final int minLimit, final int maxLimit) {
+        this(initialLimit, minLimit, maxLimit, DEFAULT_BACKOFF_RATIO, DEFAULT_LATENCY_THRESHOLD_MILLIS, DEFAULT_LATENCY_TOLERANCE);
+    }
+
+    /**
+     * @param latencyThresholdMillis a response slower than this is always treated as a sign of overload, 0 or less turns this off (the default) and only the latency tolerance applies
+     * @param latencyTolerance       a response slower than this multiple of the smoothed latency is treated as a sign of overload
+     */
+    public AdaptiveConcurrencyLimiter(final int initialLimit, final int minLimit, final int maxLimit, final double backoffRatio, final long latencyThresholdMillis, final double latencyTolerance) {
+        this(initialLimit, minLimit, maxLimit, backoffRatio, latencyThresholdMillis, latencyTolerance, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(final int initialLimit, final int minLimit, final int maxLimit, final double backoffRatio, final long latencyThresholdMillis, final double latencyTolerance, final LongSupplier nanoClock) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException(String.format("The limits must satisfy 1 <= min (%d) <= initial (%d) <= max (%d).", minLimit, initialLimit, maxLimit));
+        }
+        if (backoffRatio <= 0.0 || backoffRatio >= 1.0) {
+            throw new IllegalArgumentException("The backoff ratio must be between 0 and 1.");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMillis);
+        this.latencyTolerance = latencyTolerance;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Waits until a request may be sent. Every successful acquire must be followed by exactly one release.
+     */
+    public void acquire() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            queueDepth++;
+            try {
+                while (inFlight >= (int) limit) {
+                    permitAvailable.await();
+                }
+            } finally {
+                queueDepth--;
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(final long latencyNanos, final Outcome outcome) {
+        lock.lock();
+        try {
+            final boolean nearlySaturated = inFlight * 2 >= (int) limit;
+            inFlight--;
+            if (Outcome.DROPPED == outcome) {
+                drops.increment();
+                decreaseLimit();
+            } else if (Outcome.SUCCESS == outcome) {
+                successes.increment();
+                if (isSlow(latencyNanos)) {
+                    slowResponses.increment();
+                    decreaseLimit();
+                } else if (nearlySaturated) {
+                    limit = Math.min(maxLimit, limit + 1.0 / limit);
+                }
+                recordLatency(latencyNanos);
+            }
+            permitAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isSlow(final long latencyNanos) {
+        if (latencyThresholdNanos > 0 && latencyNanos > latencyThresholdNanos) {
+            return true;
+        }
+        return latencySamples >= LATENCY_WARMUP_SAMPLES && latencyNanos > smoothedLatencyNanos * latencyTolerance;
+    }
+
+    private void recordLatency(final long latencyNanos) {
+        if (latencySamples == 0) {
+            smoothedLatencyNanos = latencyNanos;
+        } else {
+            smoothedLatencyNanos += (latencyNanos - smoothedLatencyNanos) * LATENCY_SMOOTHING;
+        }
+        latencySamples++;
+    }
+
+    private void decreaseLimit() {
+        final long now = nanoClock.getAsLong();
+        if (decreased && now - lastDecreaseNanos < getLatencyWindowNanos()) {
+            return;
+        }
+        decreased = true;
+        lastDecreaseNanos = now;
+        limit = Math.max(minLimit, limit * backoffRatio);
+    }
+
+    /**
+     * The smoothed latency once it is known, otherwise the latency threshold, or a second when there is none.
+     */
+    private long getLatencyWindowNanos() {
+        if (latencySamples == 0) {
+            return latencyThresholdNanos > 0 ? latencyThresholdNanos : INITIAL_LATENCY_WINDOW_NANOS;
+        }
+        return (long) smoothedLatencyNanos;
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return queueDepth;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getSmoothedLatencyMillis() {
+        lock.lock();
+        try {
+            return TimeUnit.NANOSECONDS.toMillis((long) smoothedLatencyNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getSuccessCount() {
+        return successes.sum();
+    }
+
+    public long getDropCount() {
+        return drops.sum();
+    }
+
+    public long getSlowResponseCount() {
+        return slowResponses.sum();
+    }
+
+}
@@ -0,0 +1,110 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service.model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import com.synopsys.integration.blackduck.service.metrics.HubMetricsRegistry;
+
+/**
+ * Learns a page size (limit) per templated endpoint from the bytes and the time of the pages read so far. The size aims at pages of about the target bytes that take about the target time, stays within the bounds, and at most
+ * doubles or halves from one page to the next. Small views end up with large pages (fewer round trips), heavy views with small ones.
+ */
+public class AdaptivePageSizer {
+    public static final int DEFAULT_MIN_LIMIT = 25;
+    public static final int DEFAULT_MAX_LIMIT = 500;
+    public static final long DEFAULT_TARGET_PAGE_BYTES = 1024L * 1024L;
+    public static final long DEFAULT_TARGET_PAGE_MILLIS = 1000L;
+
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetPageBytes;
+    private final long targetPageNanos;
+    private final Map<String, Integer> learnedLimits = new ConcurrentHashMap<>();
+
+    public AdaptivePageSizer() {
+        this(RequestFactory.DEFAULT_LIMIT, DEFAULT_MIN_LIMIT, DEFAULT_MAX_LIMIT, DEFAULT_TARGET_PAGE_BYTES, DEFAULT_TARGET_PAGE_MILLIS);
+    }
+
+    public AdaptivePageSizer(final int minLimit, final int maxLimit) {
+        this(Math.max(minLimit, Math.min(maxLimit, RequestFactory.DEFAULT_LIMIT)), minLimit, maxLimit, DEFAULT_TARGET_PAGE_BYTES, DEFAULT_TARGET_PAGE_MILLIS);
+    }
+
+    public AdaptivePageSizer(final int initialLimit, final int minLimit, final int maxLimit, final long targetPageBytes, final long targetPageMillis) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException(String.format("The page sizes must satisfy 1 <= min (%d) <= initial (%d) <= max (%d).", minLimit, initialLimit, maxLimit));
+        }
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetPageBytes = targetPageBytes;
+        this.targetPageNanos = TimeUnit.MILLISECONDS.toNanos(targetPageMillis);
+    }
+
+    public int getLimitForUri(final String uri) {
+        return getLimit(HubMetricsRegistry.toEndpointTemplate(uri));
+    }
+
+    public int getLimit(final String endpoint) {
+        return learnedLimits.getOrDefault(endpoint, initialLimit);
+    }
+
+    public void recordPageForUri(final String uri, final int itemCount, final long bytes, final long nanos) {
+        recordPage(HubMetricsRegistry.toEndpointTemplate(uri), itemCount, bytes, nanos);
+    }
+
+    public void recordPage(final String endpoint, final int itemCount, final long bytes, final long nanos) {
+        if (itemCount <= 0) {
+            return;
+        }
+        final double bytesPerItem = Math.max(1.0, (double) bytes / itemCount);
+        final double nanosPerItem = Math.max(1.0, (double) nanos / itemCount);
+        final double idealLimit = Math.min(targetPageBytes / bytesPerItem, targetPageNanos / nanosPerItem);
+        learnedLimits.merge(endpoint, nextLimit(initialLimit, idealLimit), (current, ignored) -> nextLimit(current, idealLimit));
+    }
+
+    private int nextLimit(final int currentLimit, final double idealLimit) {
+        final double stepped = Math.max(currentLimit / 2.0, Math.min(currentLimit * 2.0, idealLimit));
+        return (int) Math.max(minLimit, Math.min(maxLimit, Math.round(stepped)));
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    /**
+     * @return the page size learned for every endpoint seen so far
+     */
+    public Map<String, Integer> getLearnedLimits() {
+        return new ConcurrentHashMap<>(learnedLimits);
+    }
+
+}
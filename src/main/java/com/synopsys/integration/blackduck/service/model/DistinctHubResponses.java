@@ -0,0 +1,90 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.synopsys.integration.blackduck.api.core.HubResponse;
+import com.synopsys.integration.blackduck.api.core.HubView;
+
+/**
+ * Collects the items of a paged walk in the order they were read, keeping only the first copy of each view (by _meta.href). Items without an href can't be told apart and are always kept.
+ */
+public class DistinctHubResponses<T extends HubResponse> {
+    private final List<T> responses = new ArrayList<>();
+    private final Set<String> hrefs = new HashSet<>();
+
+    public static String getHref(final HubResponse hubResponse) {
+        if (hubResponse instanceof HubView) {
+            final HubView hubView = (HubView) hubResponse;
+            if (hubView._meta != null) {
+                return hubView._meta.href;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return true if the response had not been seen before
+     */
+    public boolean add(final T hubResponse) {
+        final String href = getHref(hubResponse);
+        if (href != null && !hrefs.add(href)) {
+            return false;
+        }
+        responses.add(hubResponse);
+        return true;
+    }
+
+    /**
+     * @return the number of responses that had not been seen before
+     */
+    public int addAll(final Collection<T> hubResponses) {
+        int added = 0;
+        for (final T hubResponse : hubResponses) {
+            if (add(hubResponse)) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    public boolean contains(final T hubResponse) {
+        final String href = getHref(hubResponse);
+        return href != null && hrefs.contains(href);
+    }
+
+    public int size() {
+        return responses.size();
+    }
+
+    public List<T> getResponses() {
+        return responses;
+    }
+
+}
@@ -0,0 +1,101 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service.model;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the executors used for fan out to the Hub. Virtual threads are used when the running JDK has them (21+), they are looked up reflectively so this library still runs on Java 8.
+ */
+public class HubExecutors {
+    public static final int DEFAULT_MAX_CONCURRENCY = 32;
+    public static final long IDLE_THREAD_TIMEOUT_SECONDS = 60L;
+
+    private static final String VIRTUAL_THREAD_FACTORY_METHOD = "newVirtualThreadPerTaskExecutor";
+
+    public static boolean isVirtualThreadSupported() {
+        return findVirtualThreadFactoryMethod().isPresent();
+    }
+
+    /**
+     * A virtual thread per task executor allowing at most maxConcurrency tasks to run at once, or, when virtual threads are not supported, a pool of at most maxConcurrency daemon platform threads. Neither keeps idle threads alive, so
+     * neither needs to be shutdown for the JVM to exit.
+     */
+    public static ExecutorService createSharedExecutorService(final int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("The maximum concurrency must be at least 1.");
+        }
+        final Optional<ExecutorService> virtualThreadExecutorService = createVirtualThreadPerTaskExecutor();
+        if (virtualThreadExecutorService.isPresent()) {
+            return new ConcurrencyLimitedExecutorService(virtualThreadExecutorService.get(), maxConcurrency);
+        }
+        return createPlatformExecutorService(maxConcurrency);
+    }
+
+    public static Optional<ExecutorService> createVirtualThreadPerTaskExecutor() {
+        final Optional<Method> factoryMethod = findVirtualThreadFactoryMethod();
+        if (!factoryMethod.isPresent()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of((ExecutorService) factoryMethod.get().invoke(null));
+        } catch (final ReflectiveOperationException | RuntimeException e) {
+            // virtual threads can be present but disabled (preview builds), the platform threads will do
+            return Optional.empty();
+        }
+    }
+
+    public static ExecutorService createPlatformExecutorService(final int maxThreads) {
+        final ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(maxThreads, maxThreads, IDLE_THREAD_TIMEOUT_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new DaemonThreadFactory());
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+        return threadPoolExecutor;
+    }
+
+    private static Optional<Method> findVirtualThreadFactoryMethod() {
+        try {
+            return Optional.of(java.util.concurrent.Executors.class.getMethod(VIRTUAL_THREAD_FACTORY_METHOD));
+        } catch (final NoSuchMethodException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "hub-executor-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
@@ -0,0 +1,69 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service.model;
+
+import java.util.List;
+
+import com.synopsys.integration.blackduck.api.core.HubResponse;
+
+public class HubResponsesPage<T extends HubResponse> {
+    private final List<T> items;
+    private final int totalCount;
+    private final long byteCount;
+    private final long elapsedNanos;
+
+    public HubResponsesPage(final List<T> items, final int totalCount) {
+        this(items, totalCount, 0L, 0L);
+    }
+
+    public HubResponsesPage(final List<T> items, final int totalCount, final long byteCount, final long elapsedNanos) {
+        this.items = items;
+        this.totalCount = totalCount;
+        this.byteCount = byteCount;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * @return the size of the page's body as received
+     */
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    /**
+     * @return the time taken to request, read and decode the page
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+}
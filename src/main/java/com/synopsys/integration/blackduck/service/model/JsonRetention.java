@@ -0,0 +1,65 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service.model;
+
+import com.synopsys.integration.blackduck.api.core.HubResponse;
+import com.synopsys.integration.blackduck.api.view.HubResponseJsonStore;
+
+/**
+ * How much of the raw json a HubResponse keeps once it has been bound to its view class.
+ */
+public enum JsonRetention {
+    /**
+     * The raw json is kept in the json field of the view. This is the default.
+     */
+    RETAIN,
+    /**
+     * The raw json is dropped. Only use this when nothing downstream needs the json of the view. In particular:
+     * <ul>
+     * <li>NotificationContentDetailFactory.generateContentDetails throws an IllegalStateException, since the notification content is only in the raw json.</li>
+     * <li>HubService.getJson returns the view serialized by Gson, without any field the view class does not declare.</li>
+     * <li>HubBucket.weighByJsonLength throws an IllegalStateException, so a bucket bounded by weight needs its own weigher.</li>
+     * </ul>
+     */
+    DISCARD,
+    /**
+     * The json field is left empty and the raw json is kept deflated in the HubResponseJsonStore, to be inflated on demand.
+     */
+    COMPRESS;
+
+    /**
+     * Keeps as much of the raw json of a freshly bound view as this retention asks for.
+     */
+    public void retain(final HubResponse hubResponse, final String json) {
+        if (RETAIN == this) {
+            hubResponse.json = json;
+        } else if (COMPRESS == this) {
+            hubResponse.json = null;
+            HubResponseJsonStore.storeCompressed(hubResponse, json);
+        } else {
+            hubResponse.json = null;
+        }
+    }
+
+}
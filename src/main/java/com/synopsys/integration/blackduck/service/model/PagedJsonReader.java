@@ -0,0 +1,154 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service.model;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
+import com.synopsys.integration.blackduck.exception.HubIntegrationException;
+import com.synopsys.integration.exception.IntegrationException;
+
+/**
+ * Reads a page of Hub responses ({"totalCount":n,"items":[...],...}) in a single pass over the character stream with a Gson JsonReader. The reader is handed to the consumer positioned at each element of 'items', so the element
+ * can be bound straight to its view class, for example with gson.getAdapter(clazz).read(jsonReader), while the rest of the page is still being read.
+ */
+public class PagedJsonReader {
+    private final JsonReader jsonReader;
+
+    public PagedJsonReader(final Reader reader) {
+        jsonReader = new JsonReader(reader);
+    }
+
+    /**
+     * @return the totalCount of the page, or the number of items if no totalCount was present.
+     */
+    public int read(final ItemReader itemReader) throws IOException, IntegrationException {
+        try {
+            return readPage(itemReader);
+        } catch (final EOFException | MalformedJsonException | IllegalStateException | JsonParseException e) {
+            throw new HubIntegrationException("The page could not be read: " + e.getMessage(), e);
+        }
+    }
+
+    private int readPage(final ItemReader itemReader) throws IOException, IntegrationException {
+        int totalCount = -1;
+        int itemCount = 0;
+
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            final String name = jsonReader.nextName();
+            if ("items".equals(name) && JsonToken.BEGIN_ARRAY == jsonReader.peek()) {
+                jsonReader.beginArray();
+                while (jsonReader.hasNext()) {
+                    itemReader.read(jsonReader);
+                    itemCount++;
+                }
+                jsonReader.endArray();
+            } else if ("totalCount".equals(name)) {
+                try {
+                    totalCount = jsonReader.nextInt();
+                } catch (final NumberFormatException | IllegalStateException e) {
+                    throw new HubIntegrationException("The totalCount was not a number: " + e.getMessage(), e);
+                }
+            } else {
+                jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+
+        return totalCount < 0 ? itemCount : totalCount;
+    }
+
+    /**
+     * Consumes the next value of the reader token by token and writes it back out, so the text of an item can be kept without building a JsonElement. Whitespace is dropped and strings are re-escaped, so the text is
+     * equivalent to, but not always identical to, the original.
+     */
+    public static String readRawValue(final JsonReader jsonReader) throws IOException {
+        final StringWriter stringWriter = new StringWriter();
+        final JsonWriter jsonWriter = new JsonWriter(stringWriter);
+        jsonWriter.setSerializeNulls(true);
+        int depth = 0;
+        do {
+            switch (jsonReader.peek()) {
+            case BEGIN_OBJECT:
+                jsonReader.beginObject();
+                jsonWriter.beginObject();
+                depth++;
+                break;
+            case END_OBJECT:
+                jsonReader.endObject();
+                jsonWriter.endObject();
+                depth--;
+                break;
+            case BEGIN_ARRAY:
+                jsonReader.beginArray();
+                jsonWriter.beginArray();
+                depth++;
+                break;
+            case END_ARRAY:
+                jsonReader.endArray();
+                jsonWriter.endArray();
+                depth--;
+                break;
+            case NAME:
+                jsonWriter.name(jsonReader.nextName());
+                break;
+            case STRING:
+                jsonWriter.value(jsonReader.nextString());
+                break;
+            case NUMBER:
+                // the literal is copied as it was written, so a long is not rounded through a double
+                jsonWriter.jsonValue(jsonReader.nextString());
+                break;
+            case BOOLEAN:
+                jsonWriter.value(jsonReader.nextBoolean());
+                break;
+            case NULL:
+                jsonReader.nextNull();
+                jsonWriter.nullValue();
+                break;
+            default:
+                throw new EOFException("The value ended early at " + jsonReader.getPath());
+            }
+        } while (depth > 0);
+        jsonWriter.flush();
+        return stringWriter.toString();
+    }
+
+    @FunctionalInterface
+    public interface ItemReader {
+        /**
+         * Must consume exactly one value from the reader.
+         */
+        void read(JsonReader jsonReader) throws IOException, IntegrationException;
+    }
+
+}
@@ -41,6 +41,9 @@ public class RequestFactory {
     public static final String Q_PARAMETER = "q";
     public static final String FILTER_PARAMETER = "filter";
 
+    public static final String ACCEPT_ENCODING_HEADER = "Accept-Encoding";
+    public static final String ACCEPTED_CONTENT_ENCODINGS = ResponseContentStream.GZIP_ENCODING + ", " + ResponseContentStream.DEFLATE_ENCODING;
+
     public static final int DEFAULT_LIMIT = 100;
     public static final int DEFAULT_OFFSET = 0;
 
@@ -102,6 +105,25 @@ public class RequestFactory {
         return requestBuilder;
     }
 
+    /**
+     * Asks the Hub for a gzip or deflate body even when the HttpClient of the connection has content compression disabled. Json compresses very well, and ResponseContentStream inflates the body while it is read, so the whole
+     * page never has to be held compressed or uncompressed. Only add this to requests whose response is read through ResponseContentStream.
+     */
+    public static Request.Builder addAcceptEncoding(final Request.Builder requestBuilder) {
+        requestBuilder.addAdditionalHeader(ACCEPT_ENCODING_HEADER, ACCEPTED_CONTENT_ENCODINGS);
+        return requestBuilder;
+    }
+
+    /**
+     * @return a copy of the request with the Accept-Encoding of addAcceptEncoding, or the request itself when it already asks for an encoding. The request is never changed, so the caller can send it again as it was.
+     */
+    public static Request addAcceptEncoding(final Request request) {
+        if (request.getAdditionalHeaders().containsKey(ACCEPT_ENCODING_HEADER)) {
+            return request;
+        }
+        return addAcceptEncoding(new Request.Builder(request)).build();
+    }
+
     public static Request.Builder addHubQuery(final Request.Builder requestBuilder, final Optional<HubQuery> hubQuery) {
         if (hubQuery.isPresent()) {
             requestBuilder.addQueryParameter(Q_PARAMETER, hubQuery.get().getParameter());
@@ -0,0 +1,166 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service.model;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.commons.io.input.CountingInputStream;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.entity.ContentType;
+
+import com.synopsys.integration.exception.IntegrationException;
+import com.synopsys.integration.rest.request.Response;
+
+/**
+ * The body of a response, inflated while it is read when the Hub sent it gzip or deflate encoded. Both the bytes that came over the wire and the bytes handed to the reader are counted.
+ * <p>
+ * The HttpClient of a RestConnection negotiates gzip and deflate itself, inflates the body and removes the Content-Encoding header, so with the connections of HubServerConfig the body arrives already inflated, is passed
+ * through and only its decoded size is known. The body is only inflated here, and its size on the wire only counted, with a connection whose HttpClient has content compression disabled.
+ */
+public class ResponseContentStream extends FilterInputStream {
+    public static final String CONTENT_ENCODING_HEADER = "Content-Encoding";
+    public static final String GZIP_ENCODING = "gzip";
+    public static final String DEFLATE_ENCODING = "deflate";
+
+    private static final int INFLATER_BUFFER_SIZE = 8192;
+
+    private final CountingInputStream encodedContent;
+    private final CountingInputStream decodedContent;
+    private final boolean inflated;
+    private final Charset charset;
+    private Inflater inflater;
+
+    public static ResponseContentStream open(final Response response) throws IntegrationException, IOException {
+        final String contentEncoding = StringUtils.defaultIfBlank(response.getHeaderValue(CONTENT_ENCODING_HEADER), response.getContentEncoding());
+        return new ResponseContentStream(response.getContent(), contentEncoding, determineCharset(response.getContentType()));
+    }
+
+    public ResponseContentStream(final InputStream content, final String contentEncoding) throws IOException {
+        this(content, contentEncoding, StandardCharsets.UTF_8);
+    }
+
+    public ResponseContentStream(final InputStream content, final String contentEncoding, final Charset charset) throws IOException {
+        this(new CountingInputStream(content), StringUtils.trimToEmpty(contentEncoding).toLowerCase(), charset);
+    }
+
+    private ResponseContentStream(final CountingInputStream encodedContent, final String contentEncoding, final Charset charset) throws IOException {
+        super(null);
+        this.encodedContent = encodedContent;
+        this.charset = charset;
+        if (GZIP_ENCODING.equals(contentEncoding) || "x-gzip".equals(contentEncoding)) {
+            this.decodedContent = new CountingInputStream(new GZIPInputStream(encodedContent, INFLATER_BUFFER_SIZE));
+            this.inflated = true;
+        } else if (DEFLATE_ENCODING.equals(contentEncoding)) {
+            this.decodedContent = new CountingInputStream(createDeflateStream(encodedContent));
+            this.inflated = true;
+        } else {
+            this.decodedContent = encodedContent;
+            this.inflated = false;
+        }
+        in = decodedContent;
+    }
+
+    /**
+     * Servers disagree on whether deflate means a zlib stream or a raw deflate stream, so the first two bytes are checked for a zlib header.
+     */
+    private InputStream createDeflateStream(final InputStream content) throws IOException {
+        final PushbackInputStream pushbackContent = new PushbackInputStream(content, 2);
+        final byte[] header = new byte[2];
+        int headerLength = 0;
+        while (headerLength < header.length) {
+            final int read = pushbackContent.read(header, headerLength, header.length - headerLength);
+            if (read < 0) {
+                break;
+            }
+            headerLength += read;
+        }
+        if (headerLength > 0) {
+            pushbackContent.unread(header, 0, headerLength);
+        }
+        final boolean zlibWrapped = headerLength == 2 && (header[0] & 0x0F) == 8 && (((header[0] & 0xFF) << 8) | (header[1] & 0xFF)) % 31 == 0;
+        inflater = new Inflater(!zlibWrapped);
+        return new InflaterInputStream(pushbackContent, inflater, INFLATER_BUFFER_SIZE);
+    }
+
+    /**
+     * The charset of the Content-Type, or UTF-8, the default for json, when there is none or it is not supported.
+     */
+    public static Charset determineCharset(final String contentType) {
+        if (StringUtils.isBlank(contentType)) {
+            return StandardCharsets.UTF_8;
+        }
+        try {
+            final Charset charset = ContentType.parse(contentType).getCharset();
+            return charset != null ? charset : StandardCharsets.UTF_8;
+        } catch (final RuntimeException e) {
+            // ParseException and UnsupportedCharsetException
+            return StandardCharsets.UTF_8;
+        }
+    }
+
+    /**
+     * The charset to decode the inflated body with.
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    public boolean isInflated() {
+        return inflated;
+    }
+
+    /**
+     * The number of bytes read from the response so far, compressed if the body was inflated.
+     */
+    public long getEncodedByteCount() {
+        return encodedContent.getByteCount();
+    }
+
+    /**
+     * The number of bytes handed to the reader so far.
+     */
+    public long getDecodedByteCount() {
+        return decodedContent.getByteCount();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            if (inflater != null) {
+                inflater.end();
+            }
+        }
+    }
+
+}
@@ -26,13 +26,30 @@ package com.synopsys.integration.blackduck.service.model;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 import org.apache.commons.lang3.StringUtils;
 
 import com.synopsys.integration.log.IntLogger;
 
+/**
+ * Copies the output of the scan cli to a file and logs its ERROR, WARN and INFO messages. The bytes are decoded as UTF-8 through reused buffers, so a character or a line split across writes is handled, and only the last
+ * maxRetainedLines logged lines, each at most maxMessageLength characters, are kept as the output. An optional line consumer is given every line of the output as it is read, for example to parse the progress of the scan.
+ */
 public class ScannerSplitStream extends OutputStream {
+    public static final int DEFAULT_MAX_RETAINED_LINES = 1000;
+
+    public static final int DEFAULT_MAX_MESSAGE_LENGTH = 64 * 1024;
+
     // https://www.cs.cmu.edu/~pattis/15-1XX/common/handouts/ascii.html
     private static final int EOF = -1; // End of file
 
@@ -44,6 +61,8 @@ public class ScannerSplitStream extends OutputStream {
 
     private static final int CR = 13; // Carriage return
 
+    private static final int BUFFER_SIZE = 8192;
+
     private static final String EXCEPTION = "Exception:";
 
     private static final String FINISHED = "Finished in";
@@ -64,25 +83,57 @@ public class ScannerSplitStream extends OutputStream {
 
     private final IntLogger logger;
 
-    private String output = "";
+    private final int maxRetainedLines;
+
+    private final int maxMessageLength;
+
+    private final Optional<Consumer<String>> lineConsumer;
+
+    private final Deque<String> output = new ArrayDeque<>();
+
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
 
-    private String lineBuffer = "";
+    private final ByteBuffer undecodedBytes = ByteBuffer.allocate(BUFFER_SIZE);
 
-    private String currentLine = "";
+    private final CharBuffer decodedChars = CharBuffer.allocate(BUFFER_SIZE);
 
-    private int previousCodePoint = -1;
+    private final StringBuilder lineBuffer = new StringBuilder();
+
+    private final StringBuilder currentLine = new StringBuilder();
+
+    private int previousCharacter = -1;
 
     public ScannerSplitStream(final IntLogger logger, final OutputStream outputFileStream) {
+        this(logger, outputFileStream, DEFAULT_MAX_RETAINED_LINES, DEFAULT_MAX_MESSAGE_LENGTH, Optional.empty());
+    }
+
+    public ScannerSplitStream(final IntLogger logger, final OutputStream outputFileStream, final Consumer<String> lineConsumer) {
+        this(logger, outputFileStream, DEFAULT_MAX_RETAINED_LINES, DEFAULT_MAX_MESSAGE_LENGTH, Optional.of(lineConsumer));
+    }
+
+    public ScannerSplitStream(final IntLogger logger, final OutputStream outputFileStream, final int maxRetainedLines, final int maxMessageLength) {
+        this(logger, outputFileStream, maxRetainedLines, maxMessageLength, Optional.empty());
+    }
+
+    public ScannerSplitStream(final IntLogger logger, final OutputStream outputFileStream, final int maxRetainedLines, final int maxMessageLength, final Optional<Consumer<String>> lineConsumer) {
         this.outputFileStream = outputFileStream;
         this.logger = logger;
+        this.maxRetainedLines = maxRetainedLines;
+        this.maxMessageLength = maxMessageLength;
+        this.lineConsumer = lineConsumer;
     }
 
     public String getOutput() {
-        return output;
+        final StringBuilder outputBuilder = new StringBuilder();
+        for (final String line : output) {
+            outputBuilder.append(line);
+            outputBuilder.append(LINE_SEPARATOR);
+        }
+        return outputBuilder.toString();
     }
 
     public Boolean hasOutput() {
-        return StringUtils.isNotBlank(output);
+        return !output.isEmpty();
     }
 
     @Override
@@ -93,110 +144,129 @@ public class ScannerSplitStream extends OutputStream {
             throw new EOFException();
         }
 
-        boolean atLineEnd = false;
-        if (ETX == codePoint || EOT == codePoint) {
-            atLineEnd = true;
-        } else if (LF == codePoint && CR != previousCodePoint) {
-            atLineEnd = true;
-        } else if (LF == codePoint && CR == previousCodePoint) {
-            atLineEnd = true;
-            // also need to remove the previously consumed CR
-            currentLine = currentLine.substring(0, currentLine.length() - 1);
-        } else if (LF != codePoint && CR == previousCodePoint) {
-            processLine(currentLine);
-            currentLine = "";
+        undecodedBytes.put((byte) codePoint);
+        decodeBytes();
+    }
+
+    @Override
+    public void write(final byte[] byteArray) throws IOException {
+        write(byteArray, 0, byteArray.length);
+    }
+
+    @Override
+    public void write(final byte[] byteArray, final int offset, final int length) throws IOException {
+        outputFileStream.write(byteArray, offset, length);
+
+        int position = offset;
+        final int end = offset + length;
+        while (position < end) {
+            final int count = Math.min(end - position, undecodedBytes.remaining());
+            undecodedBytes.put(byteArray, position, count);
+            position += count;
+            decodeBytes();
         }
-        previousCodePoint = codePoint;
-
-        if (atLineEnd) {
-            processLine(currentLine);
-            currentLine = "";
-        } else {
-            final String stringAscii = new String(Character.toChars(codePoint));
-            currentLine += stringAscii;
+    }
+
+    /**
+     * Decodes as much of the buffered bytes as possible. The bytes of a character that is not complete yet stay in the buffer until the next write.
+     */
+    private void decodeBytes() {
+        undecodedBytes.flip();
+        CoderResult result;
+        do {
+            result = decoder.decode(undecodedBytes, decodedChars, false);
+            decodedChars.flip();
+            splitLines(decodedChars);
+            decodedChars.clear();
+        } while (result.isOverflow());
+        undecodedBytes.compact();
+    }
+
+    private void splitLines(final CharBuffer characters) {
+        while (characters.hasRemaining()) {
+            final char character = characters.get();
+            if (ETX == character || EOT == character || CR == character) {
+                endLine();
+            } else if (LF == character) {
+                // a CR LF pair was already ended by the CR
+                if (CR != previousCharacter) {
+                    endLine();
+                }
+            } else if (currentLine.length() < maxMessageLength) {
+                currentLine.append(character);
+            }
+            previousCharacter = character;
         }
     }
 
-    private Boolean isLoggableLine(final String line) {
-        final String trimmedLine = line.trim();
-        if (trimmedLine.startsWith(ERROR)) {
+    private void endLine() {
+        if (lineConsumer.isPresent()) {
+            lineConsumer.get().accept(currentLine.toString());
+        }
+        processLine(currentLine);
+        currentLine.setLength(0);
+    }
+
+    private boolean isLoggableLine(final CharSequence line) {
+        if (startsWithAfterWhitespace(line, ERROR)) {
             return true;
         }
-        if (trimmedLine.startsWith(WARN)) {
+        if (startsWithAfterWhitespace(line, WARN)) {
             return true;
         }
-        if (trimmedLine.startsWith(INFO)) {
+        if (startsWithAfterWhitespace(line, INFO)) {
             return true;
         }
-        if (trimmedLine.startsWith(DEBUG)) {
+        if (startsWithAfterWhitespace(line, DEBUG)) {
             return true;
         }
-        if (trimmedLine.startsWith(TRACE)) {
+        if (startsWithAfterWhitespace(line, TRACE)) {
             return true;
         }
-        if (StringUtils.containsIgnoreCase(trimmedLine, EXCEPTION)) {
+        if (StringUtils.containsIgnoreCase(line, EXCEPTION)) {
             return true;
         }
-        if (StringUtils.containsIgnoreCase(trimmedLine, FINISHED)) {
+        if (StringUtils.containsIgnoreCase(line, FINISHED)) {
             return true;
         }
         return false;
     }
 
-    private void processLine(final String line) throws UnsupportedEncodingException {
+    private boolean startsWithAfterWhitespace(final CharSequence line, final String prefix) {
+        int start = 0;
+        while (start < line.length() && line.charAt(start) <= ' ') {
+            start++;
+        }
+        if (line.length() - start < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (line.charAt(start + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void processLine(final CharSequence line) {
         if (lineBuffer.length() == 0) {
             // First log line found, put it in the buffer
-            lineBuffer = line;
+            lineBuffer.append(line);
         } else if (isLoggableLine(line)) {
             // next real log message came in, print the log in the buffer
             // print stored lines
             writeToConsole(lineBuffer);
 
             // replace with the current line
-            lineBuffer = line;
-        } else {
+            lineBuffer.setLength(0);
+            lineBuffer.append(line);
+        } else if (lineBuffer.length() < maxMessageLength) {
             // We assume that each new log starts with the log level, if this
             // line does not contain a log level it
             // must only be a piece of a log
-            // needs to be added into the buffer
-            final StringBuilder builder = new StringBuilder();
-            builder.append(lineBuffer);
-
-            builder.append(LINE_SEPARATOR);
-            builder.append(line);
-            lineBuffer = builder.toString();
-        }
-    }
-
-    @Override
-    public void write(final byte[] byteArray) throws IOException {
-        outputFileStream.write(byteArray);
-
-        final String currentLine = new String(byteArray, "UTF-8");
-        if (currentLine.contains(LINE_SEPARATOR)) {
-            final String[] splitLines = currentLine.split(LINE_SEPARATOR);
-
-            for (final String line : splitLines) {
-                processLine(line);
-            }
-        } else {
-            processLine(currentLine);
-        }
-    }
-
-    @Override
-    public void write(final byte[] byteArray, final int offset, final int length) throws IOException {
-        outputFileStream.write(byteArray, offset, length);
-
-        final String currentLine = new String(byteArray, offset, length, "UTF-8");
-        if (currentLine.contains(LINE_SEPARATOR)) {
-            final String[] splitLines = currentLine.split(LINE_SEPARATOR);
-
-            for (final String line : splitLines) {
-                processLine(line);
-            }
-        } else {
-            processLine(currentLine);
+            // needs to be added into the buffer, up to the maximum message length
+            lineBuffer.append(LINE_SEPARATOR);
+            lineBuffer.append(line, 0, Math.min(line.length(), maxMessageLength - lineBuffer.length()));
         }
     }
 
@@ -206,11 +276,14 @@ public class ScannerSplitStream extends OutputStream {
 
         // Print whatever is left in the buffer
         writeToConsole(lineBuffer);
-        lineBuffer = "";
+        lineBuffer.setLength(0);
         // Print whatever is left in the buffer
         if (StringUtils.isNotBlank(currentLine)) {
+            if (lineConsumer.isPresent()) {
+                lineConsumer.get().accept(currentLine.toString());
+            }
             writeToConsole(currentLine);
-            currentLine = "";
+            currentLine.setLength(0);
         }
     }
 
@@ -222,38 +295,36 @@ public class ScannerSplitStream extends OutputStream {
         // if you do
     }
 
-    private void writeToConsole(final String line) {
-        final String trimmedLine = line.trim();
+    private void writeToConsole(final CharSequence line) {
+        final String trimmedLine = line.toString().trim();
         if (trimmedLine.startsWith(DEBUG) || trimmedLine.startsWith(TRACE)) {
             // We dont want to print Debug or Trace logs to the logger
             return;
         }
-        final StringBuilder outputBuilder = new StringBuilder();
-        outputBuilder.append(output);
         if (trimmedLine.startsWith(ERROR)) {
-            outputBuilder.append(trimmedLine);
-            outputBuilder.append(LINE_SEPARATOR);
+            retain(trimmedLine);
             logger.error(trimmedLine);
         } else if (trimmedLine.startsWith(WARN)) {
-            outputBuilder.append(trimmedLine);
-            outputBuilder.append(LINE_SEPARATOR);
+            retain(trimmedLine);
             logger.warn(trimmedLine);
         } else if (trimmedLine.startsWith(INFO)) {
-            outputBuilder.append(trimmedLine);
-            outputBuilder.append(LINE_SEPARATOR);
+            retain(trimmedLine);
             logger.info(trimmedLine);
         } else if (StringUtils.containsIgnoreCase(trimmedLine, EXCEPTION)) {
             // looking for 'Exception in thread' type messages
-            outputBuilder.append(trimmedLine);
-            outputBuilder.append(LINE_SEPARATOR);
+            retain(trimmedLine);
             logger.error(trimmedLine);
         } else if (StringUtils.containsIgnoreCase(trimmedLine, FINISHED)) {
-            outputBuilder.append(trimmedLine);
-            outputBuilder.append(LINE_SEPARATOR);
+            retain(trimmedLine);
             logger.info(trimmedLine);
         }
+    }
 
-        output = outputBuilder.toString();
+    private void retain(final String line) {
+        output.addLast(line);
+        while (output.size() > maxRetainedLines) {
+            output.removeFirst();
+        }
     }
 
 }
@@ -0,0 +1,111 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service.model;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.synopsys.integration.blackduck.exception.HubIntegrationException;
+import com.synopsys.integration.exception.IntegrationException;
+import com.synopsys.integration.rest.exception.IntegrationRestException;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller performs the load and every caller that arrives while it is in flight waits for, and receives, the same result. If the load fails, the loading caller gets the
+ * original exception and every waiting caller gets its own exception caused by it, so no two callers ever share (and add suppressed exceptions or stack frames to) one instance. Nothing is kept once the load completes, so
+ * this is not a cache.
+ */
+public class SingleFlight<K, V> {
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public V execute(final K key, final Loader<V> loader) throws IntegrationException {
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        final CompletableFuture<V> existingFuture = inFlight.putIfAbsent(key, future);
+        if (existingFuture != null) {
+            coalesced.increment();
+            return await(existingFuture);
+        }
+
+        loads.increment();
+        try {
+            final V value = loader.load();
+            future.complete(value);
+            return value;
+        } catch (final Throwable e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * @return the number of loads that were actually performed.
+     */
+    public long getLoadCount() {
+        return loads.sum();
+    }
+
+    /**
+     * @return the number of callers that received the result of a load already in flight.
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private V await(final CompletableFuture<V> future) throws IntegrationException {
+        try {
+            return future.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HubIntegrationException("Interrupted while waiting for a request already in flight.", e);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            } else if (cause instanceof IntegrationRestException) {
+                // a copy, so callers can still inspect the status code
+                final IntegrationRestException restException = (IntegrationRestException) cause;
+                final IntegrationRestException callerException = new IntegrationRestException(restException.getHttpStatusCode(), restException.getHttpStatusMessage(), restException.getHttpResponseContent(),
+                        restException.getMessage());
+                callerException.initCause(restException);
+                throw callerException;
+            }
+            throw new HubIntegrationException(cause.getMessage(), cause);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Loader<V> {
+        V load() throws IntegrationException;
+    }
+
+}
@@ -28,9 +28,12 @@ import java.io.InputStream;
 import java.io.OutputStream;
 
 /**
+ * Copies everything from the input stream to the output stream in chunks of up to BUFFER_SIZE bytes.
  * Remember to close the Streams when they are done being used.
  */
 public class StreamRedirectThread extends Thread {
+    public static final int BUFFER_SIZE = 8192;
+
     private final InputStream in;
 
     private final OutputStream out;
@@ -44,12 +47,10 @@ public class StreamRedirectThread extends Thread {
     @Override
     public void run() {
         try {
-            int i;
-            while ((i = in.read()) >= 0) {
-                if (i == -1) {
-                    break;
-                }
-                out.write(i);
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            int length;
+            while ((length = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, length);
             }
         } catch (final IOException e) {
             // Ignore
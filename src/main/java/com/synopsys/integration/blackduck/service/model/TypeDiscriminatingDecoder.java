@@ -0,0 +1,160 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+
+/**
+ * Picks the view class of a polymorphic response (for example a NotificationView subclass) from its discriminator field. The discriminator of a response held as text is found with a scan of the text, without building a
+ * JsonElement, and the Gson TypeAdapter of every class in the type map is looked up once up front, so the text can be bound straight into its subclass.
+ */
+public class TypeDiscriminatingDecoder<T> {
+    public static final String DEFAULT_DISCRIMINATOR = "type";
+
+    private static final Gson ESCAPED_STRING_GSON = new Gson();
+
+    private final String discriminator;
+    private final TypeAdapter<T> defaultTypeAdapter;
+    private final Map<String, TypeAdapter<? extends T>> typeAdapters = new HashMap<>();
+
+    public TypeDiscriminatingDecoder(final Gson gson, final Class<T> defaultClass, final Map<String, Class<? extends T>> typeMap) {
+        this(gson, defaultClass, typeMap, DEFAULT_DISCRIMINATOR);
+    }
+
+    public TypeDiscriminatingDecoder(final Gson gson, final Class<T> defaultClass, final Map<String, Class<? extends T>> typeMap, final String discriminator) {
+        this.discriminator = discriminator;
+        defaultTypeAdapter = gson.getAdapter(defaultClass);
+        for (final Map.Entry<String, Class<? extends T>> entry : typeMap.entrySet()) {
+            typeAdapters.put(entry.getKey(), gson.getAdapter(entry.getValue()));
+        }
+    }
+
+    public TypeAdapter<? extends T> getTypeAdapter(final String json) {
+        return getTypeAdapterForType(readDiscriminator(json, discriminator));
+    }
+
+    public TypeAdapter<? extends T> getTypeAdapter(final JsonElement jsonElement) {
+        String type = null;
+        if (jsonElement.isJsonObject()) {
+            final JsonObject jsonObject = jsonElement.getAsJsonObject();
+            if (jsonObject.has(discriminator) && jsonObject.get(discriminator).isJsonPrimitive()) {
+                type = jsonObject.get(discriminator).getAsString();
+            }
+        }
+        return getTypeAdapterForType(type);
+    }
+
+    private TypeAdapter<? extends T> getTypeAdapterForType(final String type) {
+        if (type != null) {
+            final TypeAdapter<? extends T> typeAdapter = typeAdapters.get(type);
+            if (typeAdapter != null) {
+                return typeAdapter;
+            }
+        }
+        return defaultTypeAdapter;
+    }
+
+    /**
+     * Finds the string value of a top level field of a json object by scanning its text.
+     * @return the value, or null if the text is not an object or has no such string field
+     */
+    public static String readDiscriminator(final String json, final String fieldName) {
+        final int length = json.length();
+        int depth = 0;
+        int i = 0;
+        while (i < length) {
+            final char c = json.charAt(i);
+            if (c == '"') {
+                final int stringEnd = findStringEnd(json, i);
+                if (depth == 1 && isKey(json, stringEnd + 1) && json.regionMatches(i + 1, fieldName, 0, fieldName.length()) && stringEnd == i + 1 + fieldName.length()) {
+                    return readStringValue(json, skipWhitespace(json, skipWhitespace(json, stringEnd + 1) + 1));
+                }
+                i = stringEnd + 1;
+            } else {
+                if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                }
+                i++;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isKey(final String json, final int afterString) {
+        final int next = skipWhitespace(json, afterString);
+        return next < json.length() && json.charAt(next) == ':';
+    }
+
+    private static String readStringValue(final String json, final int start) {
+        if (start >= json.length() || json.charAt(start) != '"') {
+            return null;
+        }
+        final int end = findStringEnd(json, start);
+        if (end >= json.length()) {
+            return null;
+        }
+        final String rawValue = json.substring(start + 1, end);
+        if (rawValue.indexOf('\\') < 0) {
+            return rawValue;
+        }
+        try {
+            return ESCAPED_STRING_GSON.fromJson(json.substring(start, end + 1), String.class);
+        } catch (final JsonParseException e) {
+            return null;
+        }
+    }
+
+    private static int findStringEnd(final String json, final int openingQuote) {
+        int i = openingQuote + 1;
+        while (i < json.length()) {
+            final char c = json.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == '"') {
+                return i;
+            } else {
+                i++;
+            }
+        }
+        return json.length();
+    }
+
+    private static int skipWhitespace(final String json, final int start) {
+        int i = start;
+        while (i < json.length() && Character.isWhitespace(json.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+}
@@ -28,6 +28,7 @@ import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -35,12 +36,16 @@ import com.synopsys.integration.blackduck.exception.HubIntegrationException;
 import com.synopsys.integration.blackduck.signaturescanner.command.ScanCommand;
 import com.synopsys.integration.blackduck.signaturescanner.command.ScanPathsUtility;
 import com.synopsys.integration.blackduck.signaturescanner.command.ScanTarget;
+import com.synopsys.integration.blackduck.signaturescanner.command.ScanTargetPartition;
+import com.synopsys.integration.blackduck.signaturescanner.command.ScanTargetPartitioner;
 import com.synopsys.integration.blackduck.signaturescanner.command.SnippetMatching;
 import com.synopsys.integration.rest.proxy.ProxyInfo;
 import com.synopsys.integration.util.IntEnvironmentVariables;
 import com.synopsys.integration.util.Stringable;
 
 public class ScanJob extends Stringable {
+    public static final String PARTITION_OUTPUT_DIRECTORY_PREFIX = "partition-";
+
     private final File signatureScannerInstallDirectory;
     private final File outputDirectory;
     private final boolean cleanupOutput;
@@ -61,10 +66,19 @@ public class ScanJob extends Stringable {
     private final String projectName;
     private final String projectVersionName;
     private final List<ScanTarget> scanTargets;
+    private final Optional<ScanTargetPartitioner> scanTargetPartitioner;
 
     public ScanJob(final File signatureScannerInstallDirectory, final File outputDirectory, final boolean cleanupOutput, final int scanMemoryInMegabytes, final boolean dryRun, final boolean debug, final boolean verbose,
             final String scanCliOpts, final String additionalScanArguments, final SnippetMatching snippetMatchingMode, final URL blackDuckUrl, final String blackDuckUsername, final String blackDuckPassword, final String blackDuckApiToken,
             final boolean shouldUseProxy, final ProxyInfo proxyInfo, final boolean alwaysTrustServerCertificate, final String projectName, final String projectVersionName, final List<ScanTarget> scanTargets) {
+        this(signatureScannerInstallDirectory, outputDirectory, cleanupOutput, scanMemoryInMegabytes, dryRun, debug, verbose, scanCliOpts, additionalScanArguments, snippetMatchingMode, blackDuckUrl, blackDuckUsername,
+                blackDuckPassword, blackDuckApiToken, shouldUseProxy, proxyInfo, alwaysTrustServerCertificate, projectName, projectVersionName, scanTargets, Optional.empty());
+    }
+
+    public ScanJob(final File signatureScannerInstallDirectory, final File outputDirectory, final boolean cleanupOutput, final int scanMemoryInMegabytes, final boolean dryRun, final boolean debug, final boolean verbose,
+            final String scanCliOpts, final String additionalScanArguments, final SnippetMatching snippetMatchingMode, final URL blackDuckUrl, final String blackDuckUsername, final String blackDuckPassword, final String blackDuckApiToken,
+            final boolean shouldUseProxy, final ProxyInfo proxyInfo, final boolean alwaysTrustServerCertificate, final String projectName, final String projectVersionName, final List<ScanTarget> scanTargets,
+            final Optional<ScanTargetPartitioner> scanTargetPartitioner) {
         this.signatureScannerInstallDirectory = signatureScannerInstallDirectory;
         this.outputDirectory = outputDirectory;
         this.cleanupOutput = cleanupOutput;
@@ -85,6 +99,7 @@ public class ScanJob extends Stringable {
         this.projectName = projectName;
         this.projectVersionName = projectVersionName;
         this.scanTargets = scanTargets;
+        this.scanTargetPartitioner = scanTargetPartitioner;
     }
 
     @Deprecated
@@ -120,7 +135,7 @@ public class ScanJob extends Stringable {
             }
         }
         final List<ScanCommand> scanCommands = new ArrayList<>();
-        for (final ScanTarget scanTarget : scanTargets) {
+        for (final ScanTarget scanTarget : splitScanTargets()) {
             File commandOutputDirectory = null;
             if (StringUtils.isNotBlank(scanTarget.getOutputDirectoryPath())) {
                 if (scanTarget.isOutputDirectoryPathAbsolute()) {
@@ -141,6 +156,44 @@ public class ScanJob extends Stringable {
         return scanCommands;
     }
 
+    /**
+     * When splitting is enabled, replaces each large target directory with its partitions. A partition keeps the code location name of the target with its relative path appended, except for the partition of the target
+     * directory itself, which keeps the name unchanged. Each partition gets its own output directory.
+     */
+    private List<ScanTarget> splitScanTargets() throws IOException {
+        if (!scanTargetPartitioner.isPresent()) {
+            return scanTargets;
+        }
+
+        final List<ScanTarget> splitScanTargets = new ArrayList<>();
+        for (final ScanTarget scanTarget : scanTargets) {
+            final List<ScanTargetPartition> partitions = scanTargetPartitioner.get().partition(new File(scanTarget.getPath()), scanTarget.getExclusionPatterns());
+            if (partitions.size() <= 1) {
+                splitScanTargets.add(scanTarget);
+                continue;
+            }
+            for (int partitionIndex = 0; partitionIndex < partitions.size(); partitionIndex++) {
+                final ScanTargetPartition partition = partitions.get(partitionIndex);
+                final ScanTarget.Builder builder = new ScanTarget.Builder(partition.getDirectory().getPath());
+                builder.exclusionPatterns(partition.getExclusionPatterns());
+                builder.codeLocationName(createPartitionCodeLocationName(scanTarget.getCodeLocationName(), partition));
+                if (StringUtils.isNotBlank(scanTarget.getOutputDirectoryPath())) {
+                    builder.outputDirectoryPath(new File(scanTarget.getOutputDirectoryPath(), PARTITION_OUTPUT_DIRECTORY_PREFIX + partitionIndex).getPath(), scanTarget.isOutputDirectoryPathAbsolute());
+                }
+                splitScanTargets.add(builder.build());
+            }
+        }
+        return splitScanTargets;
+    }
+
+    private String createPartitionCodeLocationName(final String codeLocationName, final ScanTargetPartition partition) {
+        if (StringUtils.isBlank(codeLocationName) || "/".equals(partition.getRelativePath())) {
+            // without a name the scanner names each code location after its own path
+            return codeLocationName;
+        }
+        return codeLocationName + StringUtils.removeEnd(partition.getRelativePath(), "/");
+    }
+
     public File getSignatureScannerInstallDirectory() {
         return signatureScannerInstallDirectory;
     }
@@ -221,4 +274,8 @@ public class ScanJob extends Stringable {
         return scanTargets;
     }
 
+    public Optional<ScanTargetPartitioner> getScanTargetPartitioner() {
+        return scanTargetPartitioner;
+    }
+
 }
@@ -28,11 +28,13 @@ import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 import org.apache.commons.lang3.StringUtils;
 
 import com.synopsys.integration.blackduck.configuration.HubServerConfig;
 import com.synopsys.integration.blackduck.signaturescanner.command.ScanTarget;
+import com.synopsys.integration.blackduck.signaturescanner.command.ScanTargetPartitioner;
 import com.synopsys.integration.blackduck.signaturescanner.command.SnippetMatching;
 import com.synopsys.integration.exception.EncryptionException;
 import com.synopsys.integration.rest.proxy.ProxyInfo;
@@ -67,11 +69,16 @@ public class ScanJobBuilder {
 
     private List<ScanTarget> scanTargets = new ArrayList<>();
 
+    private boolean splitTargets;
+    private int maxTargetPartitions = Runtime.getRuntime().availableProcessors();
+    private long minimumTargetBytesToSplit = ScanTargetPartitioner.DEFAULT_MINIMUM_BYTES_TO_SPLIT;
+
     public ScanJob build() throws IllegalArgumentException {
         assertValid();
 
+        final Optional<ScanTargetPartitioner> scanTargetPartitioner = splitTargets ? Optional.of(new ScanTargetPartitioner(maxTargetPartitions, minimumTargetBytesToSplit)) : Optional.empty();
         return new ScanJob(installDirectory, outputDirectory, cleanupOutput, scanMemoryInMegabytes, dryRun, debug, verbose, scanCliOpts, additionalScanArguments, snippetMatching, blackDuckUrl, blackDuckUsername,
-                blackDuckPassword, blackDuckApiToken, shouldUseProxy, proxyInfo, alwaysTrustServerCertificate, projectName, projectVersionName, scanTargets);
+                blackDuckPassword, blackDuckApiToken, shouldUseProxy, proxyInfo, alwaysTrustServerCertificate, projectName, projectVersionName, scanTargets, scanTargetPartitioner);
     }
 
     public void assertValid() throws IllegalArgumentException {
@@ -122,6 +129,10 @@ public class ScanJobBuilder {
             errorMessages.add(String.format("The minimum amount of memory for the scan is %d MB.", MINIMUM_MEMORY_IN_MEGABYTES));
         }
 
+        if (splitTargets && maxTargetPartitions < 1) {
+            errorMessages.add("A target must be split into at least one partition.");
+        }
+
         if (!StringUtils.isAllBlank(projectName, projectVersionName) && (StringUtils.isBlank(projectName) || StringUtils.isBlank(projectVersionName))) {
             errorMessages.add("Both projectName and projectVersionName must be provided or omitted together");
         }
@@ -339,4 +350,34 @@ public class ScanJobBuilder {
         return this;
     }
 
+    public boolean isSplitTargets() {
+        return splitTargets;
+    }
+
+    /**
+     * Split every target directory of at least minimumTargetBytesToSplit bytes into up to maxTargetPartitions sub-directories of about the same size, each scanned by its own command, see ScanTargetPartitioner.
+     */
+    public ScanJobBuilder splitTargets(final boolean splitTargets) {
+        this.splitTargets = splitTargets;
+        return this;
+    }
+
+    public int getMaxTargetPartitions() {
+        return maxTargetPartitions;
+    }
+
+    public ScanJobBuilder maxTargetPartitions(final int maxTargetPartitions) {
+        this.maxTargetPartitions = maxTargetPartitions;
+        return this;
+    }
+
+    public long getMinimumTargetBytesToSplit() {
+        return minimumTargetBytesToSplit;
+    }
+
+    public ScanJobBuilder minimumTargetBytesToSplit(final long minimumTargetBytesToSplit) {
+        this.minimumTargetBytesToSplit = minimumTargetBytesToSplit;
+        return this;
+    }
+
 }
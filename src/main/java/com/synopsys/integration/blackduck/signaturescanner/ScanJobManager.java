@@ -26,6 +26,7 @@ package com.synopsys.integration.blackduck.signaturescanner;
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import com.synopsys.integration.blackduck.configuration.HubServerConfig;
 import com.synopsys.integration.blackduck.exception.HubIntegrationException;
@@ -34,6 +35,8 @@ import com.synopsys.integration.blackduck.signaturescanner.command.ScanCommandOu
 import com.synopsys.integration.blackduck.signaturescanner.command.ScanCommandRunner;
 import com.synopsys.integration.blackduck.signaturescanner.command.ScanPaths;
 import com.synopsys.integration.blackduck.signaturescanner.command.ScanPathsUtility;
+import com.synopsys.integration.blackduck.signaturescanner.command.ScanProgressListener;
+import com.synopsys.integration.blackduck.signaturescanner.command.ScanResourceBudget;
 import com.synopsys.integration.blackduck.signaturescanner.command.ScannerZipInstaller;
 import com.synopsys.integration.exception.EncryptionException;
 import com.synopsys.integration.log.IntLogger;
@@ -57,6 +60,30 @@ public class ScanJobManager {
         return new ScanJobManager(logger, intEnvironmentVariables, scannerZipInstaller, scanPathsUtility, scanCommandRunner);
     }
 
+    public static ScanJobManager createDefaultScanManager(final IntLogger logger, final HubServerConfig hubServerConfig, final ExecutorService executorService) throws EncryptionException {
+        final IntEnvironmentVariables intEnvironmentVariables = new IntEnvironmentVariables();
+        final OperatingSystemType operatingSystemType = OperatingSystemType.determineFromSystem();
+        final ScanPathsUtility scanPathsUtility = new ScanPathsUtility(logger, intEnvironmentVariables, operatingSystemType);
+        final ScanCommandRunner scanCommandRunner = new ScanCommandRunner(logger, intEnvironmentVariables, scanPathsUtility, executorService);
+        final ScannerZipInstaller scannerZipInstaller = ScannerZipInstaller.defaultUtility(logger, hubServerConfig, scanPathsUtility, operatingSystemType);
+
+        return new ScanJobManager(logger, intEnvironmentVariables, scannerZipInstaller, scanPathsUtility, scanCommandRunner);
+    }
+
+    /**
+     * The scans run on the executorService only while their combined memory fits the scanResourceBudget, for example ScanResourceBudget.fromHost().
+     */
+    public static ScanJobManager createDefaultScanManager(final IntLogger logger, final HubServerConfig hubServerConfig, final ExecutorService executorService, final ScanResourceBudget scanResourceBudget)
+            throws EncryptionException {
+        final IntEnvironmentVariables intEnvironmentVariables = new IntEnvironmentVariables();
+        final OperatingSystemType operatingSystemType = OperatingSystemType.determineFromSystem();
+        final ScanPathsUtility scanPathsUtility = new ScanPathsUtility(logger, intEnvironmentVariables, operatingSystemType);
+        final ScanCommandRunner scanCommandRunner = new ScanCommandRunner(logger, intEnvironmentVariables, scanPathsUtility, executorService, scanResourceBudget);
+        final ScannerZipInstaller scannerZipInstaller = ScannerZipInstaller.defaultUtility(logger, hubServerConfig, scanPathsUtility, operatingSystemType);
+
+        return new ScanJobManager(logger, intEnvironmentVariables, scannerZipInstaller, scanPathsUtility, scanCommandRunner);
+    }
+
     public static ScanJobManager createScanManagerWithNoInstaller(final IntLogger logger, final IntEnvironmentVariables intEnvironmentVariables, final ScanPathsUtility scanPathsUtility, final ScanCommandRunner scanCommandRunner) {
         return new ScanJobManager(logger, intEnvironmentVariables, null, scanPathsUtility, scanCommandRunner);
     }
@@ -74,6 +101,14 @@ public class ScanJobManager {
         this.scanCommandRunner = scanCommandRunner;
     }
 
+    public void addScanProgressListener(final ScanProgressListener scanProgressListener) {
+        scanCommandRunner.addScanProgressListener(scanProgressListener);
+    }
+
+    public void removeScanProgressListener(final ScanProgressListener scanProgressListener) {
+        scanCommandRunner.removeScanProgressListener(scanProgressListener);
+    }
+
     public ScanJobOutput executeScans(final ScanJob scanJob) throws IOException, HubIntegrationException {
         if (scannerZipInstaller != null) {
             final File installDirectory = scanJob.getSignatureScannerInstallDirectory();
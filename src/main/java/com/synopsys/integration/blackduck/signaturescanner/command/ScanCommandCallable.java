@@ -24,15 +24,19 @@
 package com.synopsys.integration.blackduck.signaturescanner.command;
 
 import java.io.File;
-import java.io.FileOutputStream;
-import java.nio.charset.StandardCharsets;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 
@@ -50,17 +54,29 @@ public class ScanCommandCallable implements Callable<ScanCommandOutput> {
     private final IntEnvironmentVariables intEnvironmentVariables;
     private final ScanCommand scanCommand;
     private final boolean cleanupOutput;
+    private final List<ScanProgressListener> scanProgressListeners;
 
     public ScanCommandCallable(final IntLogger logger, final ScanPathsUtility scanPathsUtility, final IntEnvironmentVariables intEnvironmentVariables, final ScanCommand scanCommand, final boolean cleanupOutput) {
+        this(logger, scanPathsUtility, intEnvironmentVariables, scanCommand, cleanupOutput, Collections.emptyList());
+    }
+
+    public ScanCommandCallable(final IntLogger logger, final ScanPathsUtility scanPathsUtility, final IntEnvironmentVariables intEnvironmentVariables, final ScanCommand scanCommand, final boolean cleanupOutput,
+            final List<ScanProgressListener> scanProgressListeners) {
         this.logger = logger;
         this.scanPathsUtility = scanPathsUtility;
         this.intEnvironmentVariables = intEnvironmentVariables;
         this.scanCommand = scanCommand;
         this.cleanupOutput = cleanupOutput;
+        this.scanProgressListeners = scanProgressListeners;
+    }
+
+    public ScanCommand getScanCommand() {
+        return scanCommand;
     }
 
     @Override
     public ScanCommandOutput call() {
+        final Optional<ScanProgressTracker> scanProgressTracker = scanProgressListeners.isEmpty() ? Optional.empty() : Optional.of(new ScanProgressTracker(logger, scanCommand, scanProgressListeners));
         try {
             final ScanPaths scanPaths = scanPathsUtility.determineSignatureScannerPaths(scanCommand.getInstallDirectory());
 
@@ -73,8 +89,11 @@ public class ScanCommandCallable implements Callable<ScanCommandOutput> {
             printCommand(cmd);
 
             final File standardOutFile = scanPathsUtility.createStandardOutFile(scanCommand.getOutputDirectory());
-            try (FileOutputStream outputFileStream = new FileOutputStream(standardOutFile)) {
-                final ScannerSplitStream splitOutputStream = new ScannerSplitStream(logger, outputFileStream);
+            // the raw cli output is written straight to the file channel, the same chunks are split into lines to be logged
+            try (FileChannel outputFileChannel = FileChannel.open(standardOutFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                final Optional<Consumer<String>> lineConsumer = scanProgressTracker.map(tracker -> tracker);
+                final ScannerSplitStream splitOutputStream = new ScannerSplitStream(logger, Channels.newOutputStream(outputFileChannel), ScannerSplitStream.DEFAULT_MAX_RETAINED_LINES, ScannerSplitStream.DEFAULT_MAX_MESSAGE_LENGTH,
+                        lineConsumer);
                 final ProcessBuilder processBuilder = new ProcessBuilder(cmd);
                 processBuilder.environment().putAll(intEnvironmentVariables.getVariables());
 
@@ -88,18 +107,24 @@ public class ScanCommandCallable implements Callable<ScanCommandOutput> {
                 processBuilder.environment().put("BD_HUB_NO_PROMPT", "true");
 
                 final Process hubCliProcess = processBuilder.start();
+                scanProgressTracker.ifPresent(ScanProgressTracker::scanStarted);
 
                 // The cli logs go the error stream for some reason
                 final StreamRedirectThread redirectThread = new StreamRedirectThread(hubCliProcess.getErrorStream(), splitOutputStream);
                 redirectThread.start();
+                // the standard output is drained while the cli runs, so the cli can not block on a full pipe, and its messages are logged as they are split, keeping no more than the retained lines
+                final ScannerSplitStream standardOutput = new ScannerSplitStream(logger, NullOutputStream.NULL_OUTPUT_STREAM);
+                final StreamRedirectThread standardOutputThread = new StreamRedirectThread(hubCliProcess.getInputStream(), standardOutput);
+                standardOutputThread.start();
 
                 int returnCode = -1;
                 try {
                     returnCode = hubCliProcess.waitFor();
 
-                    // the join method on the redirect thread will wait until the thread is dead
-                    // the thread will die when it reaches the end of stream and the run method is finished
+                    // the join method on the redirect threads will wait until the threads are dead
+                    // the threads will die when they reach the end of stream and the run method is finished
                     redirectThread.join();
+                    standardOutputThread.join();
                 } finally {
                     if (hubCliProcess.isAlive()) {
                         hubCliProcess.destroy();
@@ -107,11 +132,13 @@ public class ScanCommandCallable implements Callable<ScanCommandOutput> {
                     if (redirectThread.isAlive()) {
                         redirectThread.interrupt();
                     }
+                    if (standardOutputThread.isAlive()) {
+                        standardOutputThread.interrupt();
+                    }
                 }
 
                 splitOutputStream.flush();
-
-                logger.info(IOUtils.toString(hubCliProcess.getInputStream(), StandardCharsets.UTF_8));
+                standardOutput.flush();
 
                 logger.info("Black Duck Signature Scanner return code: " + returnCode);
                 logger.info("You can view the logs at: '" + scanCommand.getOutputDirectory().getCanonicalPath() + "'");
@@ -120,8 +147,10 @@ public class ScanCommandCallable implements Callable<ScanCommandOutput> {
                     throw new ScanFailedException("The scan failed with return code: " + returnCode);
                 }
             }
+            scanProgressTracker.ifPresent(ScanProgressTracker::scanFinished);
         } catch (final Exception e) {
             final String errorMessage = String.format("There was a problem scanning target '%s': %s", scanCommand.getTargetPath(), e.getMessage());
+            scanProgressTracker.ifPresent(tracker -> tracker.scanFailed(errorMessage));
             return ScanCommandOutput.FAILURE(logger, scanCommand, errorMessage, e);
         }
 
@@ -40,21 +40,27 @@ public class ScanCommandOutput {
     private final String errorMessage;
     private final Exception exception;
     private final ScanCommand scanCommand;
+    private final long queueWaitMillis;
 
     public static ScanCommandOutput SUCCESS(final IntLogger logger, final ScanCommand scanCommand) {
-        return new ScanCommandOutput(logger, scanCommand, Result.SUCCESS, null, null);
+        return new ScanCommandOutput(logger, scanCommand, Result.SUCCESS, null, null, 0L);
     }
 
     public static ScanCommandOutput FAILURE(final IntLogger logger, final ScanCommand scanCommand, final String errorMessage, final Exception exception) {
-        return new ScanCommandOutput(logger, scanCommand, Result.FAILURE, errorMessage, exception);
+        return new ScanCommandOutput(logger, scanCommand, Result.FAILURE, errorMessage, exception, 0L);
     }
 
-    private ScanCommandOutput(final IntLogger logger, final ScanCommand scanCommand, final Result result, final String errorMessage, final Exception exception) {
+    private ScanCommandOutput(final IntLogger logger, final ScanCommand scanCommand, final Result result, final String errorMessage, final Exception exception, final long queueWaitMillis) {
         this.logger = logger;
         this.result = result;
         this.errorMessage = errorMessage;
         this.exception = exception;
         this.scanCommand = scanCommand;
+        this.queueWaitMillis = queueWaitMillis;
+    }
+
+    public ScanCommandOutput withQueueWaitMillis(final long queueWaitMillis) {
+        return new ScanCommandOutput(logger, scanCommand, result, errorMessage, exception, queueWaitMillis);
     }
 
     private Optional<File> getResultFile(final String resultDirectoryName) {
@@ -101,4 +107,11 @@ public class ScanCommandOutput {
         return exception;
     }
 
+    /**
+     * How long the scan waited for memory or a free process slot before it was started, 0 unless it was run by a ScanCommandScheduler.
+     */
+    public long getQueueWaitMillis() {
+        return queueWaitMillis;
+    }
+
 }
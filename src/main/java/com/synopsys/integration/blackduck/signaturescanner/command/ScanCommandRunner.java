@@ -26,6 +26,7 @@ package com.synopsys.integration.blackduck.signaturescanner.command;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.stream.Collectors;
@@ -40,12 +41,15 @@ public class ScanCommandRunner {
     private final IntEnvironmentVariables intEnvironmentVariables;
     private final ScanPathsUtility scanPathsUtility;
     private final Optional<ExecutorService> optionalExecutorService;
+    private final Optional<ScanResourceBudget> optionalScanResourceBudget;
+    private final List<ScanProgressListener> scanProgressListeners = new CopyOnWriteArrayList<>();
 
     public ScanCommandRunner(final IntLogger logger, final IntEnvironmentVariables intEnvironmentVariables, final ScanPathsUtility scanPathsUtility) {
         this.logger = logger;
         this.intEnvironmentVariables = intEnvironmentVariables;
         this.scanPathsUtility = scanPathsUtility;
         optionalExecutorService = Optional.empty();
+        optionalScanResourceBudget = Optional.empty();
     }
 
     public ScanCommandRunner(final IntLogger logger, final IntEnvironmentVariables intEnvironmentVariables, final ScanPathsUtility scanPathsUtility, final ExecutorService executorService) {
@@ -53,6 +57,30 @@ public class ScanCommandRunner {
         this.intEnvironmentVariables = intEnvironmentVariables;
         this.scanPathsUtility = scanPathsUtility;
         optionalExecutorService = Optional.of(executorService);
+        optionalScanResourceBudget = Optional.empty();
+    }
+
+    /**
+     * The scans are submitted to the executor only while their combined memory fits the budget, see ScanCommandScheduler. Use ScanResourceBudget.fromHost() to size the budget from the memory and processors of this host.
+     */
+    public ScanCommandRunner(final IntLogger logger, final IntEnvironmentVariables intEnvironmentVariables, final ScanPathsUtility scanPathsUtility, final ExecutorService executorService,
+            final ScanResourceBudget scanResourceBudget) {
+        this.logger = logger;
+        this.intEnvironmentVariables = intEnvironmentVariables;
+        this.scanPathsUtility = scanPathsUtility;
+        optionalExecutorService = Optional.of(executorService);
+        optionalScanResourceBudget = Optional.of(scanResourceBudget);
+    }
+
+    /**
+     * The listener will receive the progress of every scan run from now on, parsed from the output of the cli while it runs.
+     */
+    public void addScanProgressListener(final ScanProgressListener scanProgressListener) {
+        scanProgressListeners.add(scanProgressListener);
+    }
+
+    public void removeScanProgressListener(final ScanProgressListener scanProgressListener) {
+        scanProgressListeners.remove(scanProgressListener);
     }
 
     public List<ScanCommandOutput> executeScans(final List<ScanCommand> scanCommands, final boolean cleanupOutput) throws ScanFailedException {
@@ -68,7 +96,10 @@ public class ScanCommandRunner {
 
         try {
             final List<ScanCommandCallable> callables = createCallables(scanCommands, cleanupOutput);
-            if (optionalExecutorService.isPresent()) {
+            if (optionalExecutorService.isPresent() && optionalScanResourceBudget.isPresent()) {
+                final ScanCommandScheduler scanCommandScheduler = new ScanCommandScheduler(logger, optionalExecutorService.get(), optionalScanResourceBudget.get());
+                scanCommandOutputs.addAll(scanCommandScheduler.execute(callables));
+            } else if (optionalExecutorService.isPresent()) {
                 final ExecutorService executorService = optionalExecutorService.get();
                 final List<Future<ScanCommandOutput>> submitted = new ArrayList<>();
                 for (final ScanCommandCallable callable : callables) {
@@ -93,7 +124,7 @@ public class ScanCommandRunner {
     }
 
     private List<ScanCommandCallable> createCallables(final List<ScanCommand> scanCommands, final boolean cleanupOutput) {
-        final List<ScanCommandCallable> callables = scanCommands.stream().map(scanCommand -> new ScanCommandCallable(logger, scanPathsUtility, intEnvironmentVariables, scanCommand, cleanupOutput)).collect(Collectors.toList());
+        final List<ScanCommandCallable> callables = scanCommands.stream().map(scanCommand -> new ScanCommandCallable(logger, scanPathsUtility, intEnvironmentVariables, scanCommand, cleanupOutput, scanProgressListeners)).collect(Collectors.toList());
 
         return callables;
     }
@@ -0,0 +1,111 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.signaturescanner.command;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import com.synopsys.integration.log.IntLogger;
+
+/**
+ * Runs scans on an executor while their combined memory fits a ScanResourceBudget. The scans are admitted largest first, by memory, which keeps the longest scans from being started last. Admission happens on the calling
+ * thread, so a scan waiting for memory never holds an executor thread. The time each scan waited to be admitted is reported on its ScanCommandOutput.
+ */
+public class ScanCommandScheduler {
+    private final IntLogger logger;
+    private final ExecutorService executorService;
+    private final ScanResourceBudget scanResourceBudget;
+
+    public ScanCommandScheduler(final IntLogger logger, final ExecutorService executorService, final ScanResourceBudget scanResourceBudget) {
+        this.logger = logger;
+        this.executorService = executorService;
+        this.scanResourceBudget = scanResourceBudget;
+    }
+
+    /**
+     * @return the outputs in the order of the callables
+     */
+    public List<ScanCommandOutput> execute(final List<ScanCommandCallable> callables) throws InterruptedException, ExecutionException {
+        final Semaphore memory = new Semaphore(scanResourceBudget.getMemoryPermits(), true);
+        final Semaphore processes = new Semaphore(scanResourceBudget.getMaxConcurrentScans(), true);
+
+        final List<Integer> admissionOrder = new ArrayList<>();
+        for (int i = 0; i < callables.size(); i++) {
+            admissionOrder.add(i);
+        }
+        final Comparator<Integer> byMemory = Comparator.comparingInt(index -> scanResourceBudget.getMemoryDemandInMegabytes(callables.get(index).getScanCommand()));
+        admissionOrder.sort(byMemory.reversed());
+
+        final List<Future<ScanCommandOutput>> submitted = new ArrayList<>(callables.size());
+        for (int i = 0; i < callables.size(); i++) {
+            submitted.add(null);
+        }
+        final long queuedNanos = System.nanoTime();
+        for (final int index : admissionOrder) {
+            final ScanCommandCallable callable = callables.get(index);
+            final int memoryDemand = scanResourceBudget.getMemoryDemandInMegabytes(callable.getScanCommand());
+            processes.acquire();
+            try {
+                memory.acquire(memoryDemand);
+            } catch (final InterruptedException e) {
+                processes.release();
+                throw e;
+            }
+            final long queueWaitMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - queuedNanos);
+            logger.info(String.format("Starting the scan of '%s' with %d MB after waiting %d ms; %d MB of the budget remain free.", callable.getScanCommand().getTargetPath(), memoryDemand, queueWaitMillis,
+                    memory.availablePermits()));
+            try {
+                submitted.set(index, executorService.submit(() -> {
+                    try {
+                        return callable.call().withQueueWaitMillis(queueWaitMillis);
+                    } finally {
+                        memory.release(memoryDemand);
+                        processes.release();
+                    }
+                }));
+            } catch (final RejectedExecutionException e) {
+                memory.release(memoryDemand);
+                processes.release();
+                throw e;
+            }
+        }
+
+        final List<ScanCommandOutput> scanCommandOutputs = new ArrayList<>(callables.size());
+        for (final Future<ScanCommandOutput> future : submitted) {
+            final ScanCommandOutput scanCommandOutput = future.get();
+            if (scanCommandOutput != null) {
+                scanCommandOutputs.add(scanCommandOutput);
+            }
+        }
+        return scanCommandOutputs;
+    }
+
+}
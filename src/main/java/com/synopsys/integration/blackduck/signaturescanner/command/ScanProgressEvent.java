@@ -0,0 +1,136 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.signaturescanner.command;
+
+import java.util.Optional;
+
+import com.synopsys.integration.util.Stringable;
+
+/**
+ * One step of a running scan. Every event carries the totals of the scan so far, so throughput and an estimate of the remaining time can be computed from any of them.
+ */
+public class ScanProgressEvent extends Stringable {
+    public static final int UNKNOWN_UPLOAD_PERCENT = -1;
+
+    private static final double MILLIS_PER_SECOND = 1000.0;
+
+    private final ScanCommand scanCommand;
+    private final ScanProgressEventType type;
+    private final String message;
+    private final String phase;
+    private final long timestamp;
+    private final long elapsedMillis;
+    private final long filesScanned;
+    private final long bytesProcessed;
+    private final int uploadPercent;
+
+    public ScanProgressEvent(final ScanCommand scanCommand, final ScanProgressEventType type, final String message, final String phase, final long timestamp, final long elapsedMillis, final long filesScanned,
+            final long bytesProcessed, final int uploadPercent) {
+        this.scanCommand = scanCommand;
+        this.type = type;
+        this.message = message;
+        this.phase = phase;
+        this.timestamp = timestamp;
+        this.elapsedMillis = elapsedMillis;
+        this.filesScanned = filesScanned;
+        this.bytesProcessed = bytesProcessed;
+        this.uploadPercent = uploadPercent;
+    }
+
+    public ScanCommand getScanCommand() {
+        return scanCommand;
+    }
+
+    public String getTargetPath() {
+        return scanCommand.getTargetPath();
+    }
+
+    public ScanProgressEventType getType() {
+        return type;
+    }
+
+    /**
+     * The line of cli output the event was parsed from, or a description for the events of the scan itself.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * The phase of the scan that was started or finished, for example 'scan' or 'upload'.
+     */
+    public Optional<String> getPhase() {
+        return Optional.ofNullable(phase);
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public long getFilesScanned() {
+        return filesScanned;
+    }
+
+    public long getBytesProcessed() {
+        return bytesProcessed;
+    }
+
+    /**
+     * The percent of the upload that is done, or UNKNOWN_UPLOAD_PERCENT before the cli reports any.
+     */
+    public int getUploadPercent() {
+        return uploadPercent;
+    }
+
+    public double getFilesPerSecond() {
+        return perSecond(filesScanned);
+    }
+
+    public double getBytesPerSecond() {
+        return perSecond(bytesProcessed);
+    }
+
+    /**
+     * Estimates the time left to process expectedBytes at the throughput seen so far. Empty until some bytes have been processed.
+     */
+    public Optional<Long> estimateRemainingMillis(final long expectedBytes) {
+        if (bytesProcessed <= 0 || elapsedMillis <= 0) {
+            return Optional.empty();
+        }
+        final long remainingBytes = Math.max(0L, expectedBytes - bytesProcessed);
+        return Optional.of((long) (remainingBytes / (bytesProcessed / (double) elapsedMillis)));
+    }
+
+    private double perSecond(final long count) {
+        if (elapsedMillis <= 0) {
+            return 0.0;
+        }
+        return count * MILLIS_PER_SECOND / elapsedMillis;
+    }
+
+}
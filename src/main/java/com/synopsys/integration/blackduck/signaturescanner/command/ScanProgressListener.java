@@ -0,0 +1,34 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.signaturescanner.command;
+
+/**
+ * Receives the progress of the scans run by a ScanCommandRunner. The events of a scan are delivered in order on the thread reading that scan's output, so a listener shared by parallel scans must be thread safe and
+ * should return quickly.
+ */
+@FunctionalInterface
+public interface ScanProgressListener {
+    void scanProgressed(ScanProgressEvent scanProgressEvent);
+
+}
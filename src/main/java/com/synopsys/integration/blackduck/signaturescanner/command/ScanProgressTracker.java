@@ -0,0 +1,148 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.signaturescanner.command;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+
+import com.synopsys.integration.log.IntLogger;
+
+/**
+ * Turns the lines of output of one scan into ScanProgressEvents for the listeners. The cli only writes log messages, so the events are recognized by the wording of those messages, and the counts it reports are taken as
+ * running totals of the scan.
+ */
+public class ScanProgressTracker implements Consumer<String> {
+    private static final String ERROR = "ERROR:";
+    private static final String EXCEPTION = "Exception:";
+    private static final String SCAN_PHASE = "scan";
+
+    private static final Pattern LOG_LEVEL_PREFIX = Pattern.compile("^\\s*(?:ERROR|WARN|INFO|DEBUG|TRACE):\\s*");
+    private static final Pattern UPLOAD_PROGRESS = Pattern.compile("(?i)\\bupload\\w*\\b.*?(\\d{1,3})(?:\\.\\d+)?\\s*%");
+    private static final Pattern PHASE_FINISHED = Pattern.compile("(?i)^(.*?)\\s*(?:finished|completed?)\\s+in\\s+([\\d,]+)\\s*ms");
+    private static final Pattern PHASE_STARTED = Pattern.compile("(?i)^(?:starting|beginning|started)\\s+(?:the\\s+)?(.+?)[.\\s]*$");
+    private static final Pattern FILES_SCANNED = Pattern.compile("(?i)(?:([\\d,]+)\\s+files?\\s+(?:scanned|processed))|(?:(?:scanned|processed)\\s+([\\d,]+)\\s+files?)|(?:files?\\s+(?:scanned|processed)\\s*[:=]\\s*([\\d,]+))");
+    private static final Pattern BYTES_PROCESSED = Pattern.compile("(?i)(?:([\\d,]+)\\s+bytes?\\s+(?:scanned|processed|read))|(?:(?:scanned|processed|read)\\s+([\\d,]+)\\s+bytes?)|(?:bytes?\\s+(?:scanned|processed|read)\\s*[:=]\\s*([\\d,]+))");
+
+    private final IntLogger logger;
+    private final ScanCommand scanCommand;
+    private final List<ScanProgressListener> scanProgressListeners;
+    private final long startNanos = System.nanoTime();
+
+    private long filesScanned;
+    private long bytesProcessed;
+    private int uploadPercent = ScanProgressEvent.UNKNOWN_UPLOAD_PERCENT;
+
+    public ScanProgressTracker(final IntLogger logger, final ScanCommand scanCommand, final List<ScanProgressListener> scanProgressListeners) {
+        this.logger = logger;
+        this.scanCommand = scanCommand;
+        this.scanProgressListeners = scanProgressListeners;
+    }
+
+    public void scanStarted() {
+        publish(ScanProgressEventType.SCAN_STARTED, "Started scanning " + scanCommand.getTargetPath(), SCAN_PHASE);
+    }
+
+    public void scanFinished() {
+        publish(ScanProgressEventType.SCAN_FINISHED, "Finished scanning " + scanCommand.getTargetPath(), SCAN_PHASE);
+    }
+
+    public void scanFailed(final String errorMessage) {
+        publish(ScanProgressEventType.SCAN_FAILED, errorMessage, SCAN_PHASE);
+    }
+
+    @Override
+    public void accept(final String line) {
+        final String trimmedLine = line.trim();
+        if (trimmedLine.isEmpty()) {
+            return;
+        }
+        if (trimmedLine.startsWith(ERROR) || StringUtils.containsIgnoreCase(trimmedLine, EXCEPTION)) {
+            publish(ScanProgressEventType.ERROR, trimmedLine, null);
+            return;
+        }
+
+        final String message = LOG_LEVEL_PREFIX.matcher(trimmedLine).replaceFirst("");
+        final Matcher uploadMatcher = UPLOAD_PROGRESS.matcher(message);
+        if (uploadMatcher.find()) {
+            uploadPercent = Math.min(100, NumberUtils.toInt(uploadMatcher.group(1), uploadPercent));
+            publish(ScanProgressEventType.UPLOAD_PROGRESS, trimmedLine, null);
+            return;
+        }
+        final Matcher finishedMatcher = PHASE_FINISHED.matcher(message);
+        if (finishedMatcher.find()) {
+            publish(ScanProgressEventType.PHASE_FINISHED, trimmedLine, StringUtils.defaultIfBlank(finishedMatcher.group(1), SCAN_PHASE));
+            return;
+        }
+        final Matcher startedMatcher = PHASE_STARTED.matcher(message);
+        if (startedMatcher.find()) {
+            publish(ScanProgressEventType.PHASE_STARTED, trimmedLine, startedMatcher.group(1));
+            return;
+        }
+
+        final long files = findCount(FILES_SCANNED.matcher(message));
+        final long bytes = findCount(BYTES_PROCESSED.matcher(message));
+        if (bytes > bytesProcessed) {
+            bytesProcessed = bytes;
+        }
+        if (files >= 0) {
+            filesScanned = Math.max(filesScanned, files);
+            publish(ScanProgressEventType.FILES_SCANNED, trimmedLine, null);
+        } else if (bytes >= 0) {
+            publish(ScanProgressEventType.BYTES_PROCESSED, trimmedLine, null);
+        }
+    }
+
+    private long findCount(final Matcher matcher) {
+        if (!matcher.find()) {
+            return -1L;
+        }
+        for (int group = 1; group <= matcher.groupCount(); group++) {
+            final String count = matcher.group(group);
+            if (count != null) {
+                return NumberUtils.toLong(StringUtils.remove(count, ','), -1L);
+            }
+        }
+        return -1L;
+    }
+
+    private void publish(final ScanProgressEventType type, final String message, final String phase) {
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        final ScanProgressEvent scanProgressEvent = new ScanProgressEvent(scanCommand, type, message, phase, System.currentTimeMillis(), elapsedMillis, filesScanned, bytesProcessed, uploadPercent);
+        for (final ScanProgressListener scanProgressListener : scanProgressListeners) {
+            try {
+                scanProgressListener.scanProgressed(scanProgressEvent);
+            } catch (final RuntimeException e) {
+                // a failing listener must not stop the scan output from being read
+                logger.error("A scan progress listener failed: " + e.getMessage(), e);
+            }
+        }
+    }
+
+}
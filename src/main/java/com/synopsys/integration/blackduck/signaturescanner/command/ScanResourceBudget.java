@@ -0,0 +1,150 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.signaturescanner.command;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+
+import com.synopsys.integration.util.Stringable;
+
+/**
+ * The memory and the number of processes the scans of a ScanCommandRunner may use at the same time. Each scan is a JVM with scanMemoryInMegabytes of heap, plus scanOverheadInMegabytes for everything outside of its heap.
+ */
+public class ScanResourceBudget extends Stringable {
+    public static final double DEFAULT_MEMORY_FRACTION = 0.8;
+    public static final int DEFAULT_SCAN_OVERHEAD_IN_MEGABYTES = 256;
+    public static final long UNKNOWN_MEMORY = -1L;
+
+    private static final long BYTES_PER_MEGABYTE = 1024L * 1024L;
+    private static final long KILOBYTES_PER_MEGABYTE = 1024L;
+    private static final String MEMINFO_PATH = "/proc/meminfo";
+    private static final String MEM_AVAILABLE = "MemAvailable:";
+
+    private final long memoryBudgetInMegabytes;
+    private final int maxConcurrentScans;
+    private final int scanOverheadInMegabytes;
+
+    /**
+     * A budget of DEFAULT_MEMORY_FRACTION of the physical memory that is available now, and one scan per processor. If the available memory can not be determined, only the number of scans is limited.
+     */
+    public static ScanResourceBudget fromHost() {
+        return fromHost(DEFAULT_MEMORY_FRACTION);
+    }
+
+    /**
+     * A budget of memoryFraction of the physical memory that is available now, but at least one megabyte, so a host that is almost out of memory runs its scans one at a time.
+     */
+    public static ScanResourceBudget fromHost(final double memoryFraction) {
+        return fromAvailableMemory(determineAvailablePhysicalMemoryInMegabytes(), memoryFraction, Runtime.getRuntime().availableProcessors());
+    }
+
+    static ScanResourceBudget fromAvailableMemory(final long availableMegabytes, final double memoryFraction, final int processors) {
+        if (!(memoryFraction > 0)) {
+            throw new IllegalArgumentException("The memory fraction must be positive.");
+        }
+        final long memoryBudgetInMegabytes = UNKNOWN_MEMORY == availableMegabytes ? Long.MAX_VALUE : Math.max(1L, (long) (availableMegabytes * memoryFraction));
+        return new ScanResourceBudget(memoryBudgetInMegabytes, Math.max(1, processors), DEFAULT_SCAN_OVERHEAD_IN_MEGABYTES);
+    }
+
+    /**
+     * The memory the host could give to new processes: MemAvailable on Linux, which counts the reclaimable page cache, otherwise the free physical memory reported by the JVM, or UNKNOWN_MEMORY.
+     */
+    public static long determineAvailablePhysicalMemoryInMegabytes() {
+        final File meminfo = new File(MEMINFO_PATH);
+        if (meminfo.isFile()) {
+            try {
+                final List<String> lines = FileUtils.readLines(meminfo, StandardCharsets.UTF_8);
+                for (final String line : lines) {
+                    if (line.startsWith(MEM_AVAILABLE)) {
+                        final String kilobytes = StringUtils.substringBefore(StringUtils.substringAfter(line, MEM_AVAILABLE).trim(), " ");
+                        final long availableKilobytes = NumberUtils.toLong(kilobytes, UNKNOWN_MEMORY);
+                        if (availableKilobytes > 0) {
+                            return availableKilobytes / KILOBYTES_PER_MEGABYTE;
+                        }
+                    }
+                }
+            } catch (final IOException e) {
+                // fall back to the operating system bean
+            }
+        }
+
+        final OperatingSystemMXBean operatingSystemMXBean = ManagementFactory.getOperatingSystemMXBean();
+        if (operatingSystemMXBean instanceof com.sun.management.OperatingSystemMXBean) {
+            final long freeBytes = ((com.sun.management.OperatingSystemMXBean) operatingSystemMXBean).getFreePhysicalMemorySize();
+            if (freeBytes > 0) {
+                return freeBytes / BYTES_PER_MEGABYTE;
+            }
+        }
+        return UNKNOWN_MEMORY;
+    }
+
+    public ScanResourceBudget(final long memoryBudgetInMegabytes, final int maxConcurrentScans) {
+        this(memoryBudgetInMegabytes, maxConcurrentScans, DEFAULT_SCAN_OVERHEAD_IN_MEGABYTES);
+    }
+
+    public ScanResourceBudget(final long memoryBudgetInMegabytes, final int maxConcurrentScans, final int scanOverheadInMegabytes) {
+        if (memoryBudgetInMegabytes <= 0) {
+            throw new IllegalArgumentException("The memory budget must be positive.");
+        }
+        if (maxConcurrentScans <= 0) {
+            throw new IllegalArgumentException("The maximum number of concurrent scans must be positive.");
+        }
+        this.memoryBudgetInMegabytes = memoryBudgetInMegabytes;
+        this.maxConcurrentScans = maxConcurrentScans;
+        this.scanOverheadInMegabytes = Math.max(0, scanOverheadInMegabytes);
+    }
+
+    /**
+     * The memory a scan needs, its heap plus the overhead, but never more than the whole budget, so a scan larger than the budget still runs, alone.
+     */
+    public int getMemoryDemandInMegabytes(final ScanCommand scanCommand) {
+        final long demand = (long) scanCommand.getScanMemoryInMegabytes() + scanOverheadInMegabytes;
+        return (int) Math.max(1L, Math.min(demand, getMemoryPermits()));
+    }
+
+    int getMemoryPermits() {
+        return (int) Math.min(memoryBudgetInMegabytes, Integer.MAX_VALUE);
+    }
+
+    public long getMemoryBudgetInMegabytes() {
+        return memoryBudgetInMegabytes;
+    }
+
+    public int getMaxConcurrentScans() {
+        return maxConcurrentScans;
+    }
+
+    public int getScanOverheadInMegabytes() {
+        return scanOverheadInMegabytes;
+    }
+
+}
@@ -0,0 +1,73 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.signaturescanner.command;
+
+import java.io.File;
+import java.util.Set;
+
+import com.synopsys.integration.util.Stringable;
+
+/**
+ * One directory of a split scan target, scanned by its own ScanCommand. The exclusion patterns are relative to the partition's directory and exclude both the excluded directories of the target and the sub-directories
+ * that were split into partitions of their own.
+ */
+public class ScanTargetPartition extends Stringable {
+    private final File directory;
+    private final String relativePath;
+    private final Set<String> exclusionPatterns;
+    private final long fileCount;
+    private final long byteCount;
+
+    public ScanTargetPartition(final File directory, final String relativePath, final Set<String> exclusionPatterns, final long fileCount, final long byteCount) {
+        this.directory = directory;
+        this.relativePath = relativePath;
+        this.exclusionPatterns = exclusionPatterns;
+        this.fileCount = fileCount;
+        this.byteCount = byteCount;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * The path of the directory relative to the scan target, starting and ending with a forward slash, so '/' for the target itself.
+     */
+    public String getRelativePath() {
+        return relativePath;
+    }
+
+    public Set<String> getExclusionPatterns() {
+        return exclusionPatterns;
+    }
+
+    public long getFileCount() {
+        return fileCount;
+    }
+
+    public long getByteCount() {
+        return byteCount;
+    }
+
+}
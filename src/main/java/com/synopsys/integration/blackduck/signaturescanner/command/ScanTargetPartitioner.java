@@ -0,0 +1,287 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.signaturescanner.command;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Splits a large scan target directory into up to maxPartitions directories of about the same weight, so they can be scanned in parallel. The weight of a directory is its bytes plus BYTES_PER_FILE for each file, since
+ * the scanner spends time on every file as well as on every byte.
+ * <p>
+ * The heaviest sub-directory of the heaviest partition is split off into a partition of its own until there are maxPartitions partitions or every partition is light enough. A partition that had sub-directories split
+ * off excludes them, so every file is scanned exactly once. Directories matching the exclusion patterns of the target are skipped while walking and stay excluded in every partition.
+ */
+public class ScanTargetPartitioner {
+    public static final long DEFAULT_MINIMUM_BYTES_TO_SPLIT = 1024L * 1024L * 1024L;
+    public static final long BYTES_PER_FILE = 16L * 1024L;
+
+    private static final int SMALLEST_PARTITION_DIVISOR = 4;
+
+    private final int maxPartitions;
+    private final long minimumBytesToSplit;
+
+    public ScanTargetPartitioner(final int maxPartitions) {
+        this(maxPartitions, DEFAULT_MINIMUM_BYTES_TO_SPLIT);
+    }
+
+    public ScanTargetPartitioner(final int maxPartitions, final long minimumBytesToSplit) {
+        if (maxPartitions < 1) {
+            throw new IllegalArgumentException("A target must be split into at least one partition.");
+        }
+        this.maxPartitions = maxPartitions;
+        this.minimumBytesToSplit = minimumBytesToSplit;
+    }
+
+    /**
+     * @return the partitions, heaviest first, or a single partition for the whole target if it is not a directory or too small to split
+     */
+    public List<ScanTargetPartition> partition(final File target, final Set<String> exclusionPatterns) throws IOException {
+        final Set<String> targetExclusionPatterns = exclusionPatterns == null ? new LinkedHashSet<>() : exclusionPatterns;
+        if (!target.isDirectory()) {
+            return createSinglePartition(target, targetExclusionPatterns, 0L, 0L);
+        }
+
+        final DirectoryNode root = walk(target.toPath(), targetExclusionPatterns);
+        if (maxPartitions == 1 || root.totalBytes < minimumBytesToSplit) {
+            return createSinglePartition(target, targetExclusionPatterns, root.totalFiles, root.totalBytes);
+        }
+
+        final long balancedWeight = root.getTotalWeight() / maxPartitions;
+        final PriorityQueue<Unit> splittable = new PriorityQueue<>(Comparator.comparingLong(Unit::getWeight).reversed());
+        final List<Unit> units = new ArrayList<>();
+        final Unit rootUnit = new Unit(root);
+        units.add(rootUnit);
+        splittable.add(rootUnit);
+        while (units.size() < maxPartitions && !splittable.isEmpty()) {
+            final Unit heaviest = splittable.poll();
+            if (heaviest.getWeight() <= balancedWeight) {
+                break;
+            }
+            final DirectoryNode child = heaviest.nextChildToSplitOff();
+            if (child == null || child.getTotalWeight() < balancedWeight / SMALLEST_PARTITION_DIVISOR) {
+                // only its own files or small sub-directories are left, splitting it further would only add small scans
+                continue;
+            }
+            final Unit childUnit = new Unit(child);
+            heaviest.splitOff(child);
+            units.add(childUnit);
+            splittable.add(childUnit);
+            splittable.add(heaviest);
+        }
+
+        final List<ScanTargetPartition> partitions = new ArrayList<>();
+        units.sort(Comparator.comparingLong(Unit::getWeight).reversed());
+        for (final Unit unit : units) {
+            if (unit.files > 0) {
+                partitions.add(unit.createPartition(targetExclusionPatterns));
+            }
+        }
+        return partitions;
+    }
+
+    private List<ScanTargetPartition> createSinglePartition(final File target, final Set<String> exclusionPatterns, final long files, final long bytes) {
+        final List<ScanTargetPartition> partitions = new ArrayList<>();
+        partitions.add(new ScanTargetPartition(target, "/", exclusionPatterns, files, bytes));
+        return partitions;
+    }
+
+    private DirectoryNode walk(final Path target, final Set<String> exclusionPatterns) throws IOException {
+        final Deque<DirectoryNode> directories = new ArrayDeque<>();
+        final DirectoryNode[] root = new DirectoryNode[1];
+        Files.walkFileTree(target, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(final Path directory, final BasicFileAttributes attributes) {
+                final String relativePath = toRelativePath(target, directory);
+                final DirectoryNode parent = directories.peek();
+                if (parent != null && isExcluded(relativePath, exclusionPatterns)) {
+                    parent.excludedPaths.add(relativePath);
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                final DirectoryNode node = new DirectoryNode(directory, relativePath);
+                if (parent == null) {
+                    root[0] = node;
+                } else {
+                    parent.children.add(node);
+                }
+                directories.push(node);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attributes) {
+                final DirectoryNode directory = directories.peek();
+                directory.ownFiles++;
+                directory.ownBytes += attributes.size();
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(final Path file, final IOException e) {
+                // the scanner will report what it can not read, it is only left out of the weights here
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(final Path directory, final IOException e) {
+                final DirectoryNode node = directories.pop();
+                node.totalFiles += node.ownFiles;
+                node.totalBytes += node.ownBytes;
+                final DirectoryNode parent = directories.peek();
+                if (parent != null) {
+                    parent.totalFiles += node.totalFiles;
+                    parent.totalBytes += node.totalBytes;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return root[0];
+    }
+
+    private static String toRelativePath(final Path target, final Path directory) {
+        final String relativePath = FilenameUtils.separatorsToUnix(target.relativize(directory).toString());
+        if (StringUtils.isEmpty(relativePath)) {
+            return "/";
+        }
+        return "/" + relativePath + "/";
+    }
+
+    private static boolean isExcluded(final String relativePath, final Set<String> exclusionPatterns) {
+        for (final String exclusionPattern : exclusionPatterns) {
+            if (StringUtils.isNotBlank(exclusionPattern) && FilenameUtils.wildcardMatch(relativePath, exclusionPattern)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the path relative to the partition's directory, both relative to the target
+     */
+    private static String relativeTo(final String partitionPath, final String path) {
+        return path.substring(partitionPath.length() - 1);
+    }
+
+    private static class DirectoryNode {
+        private final Path path;
+        private final String relativePath;
+        private final List<DirectoryNode> children = new ArrayList<>();
+        private final List<String> excludedPaths = new ArrayList<>();
+        private long ownFiles;
+        private long ownBytes;
+        private long totalFiles;
+        private long totalBytes;
+
+        public DirectoryNode(final Path path, final String relativePath) {
+            this.path = path;
+            this.relativePath = relativePath;
+        }
+
+        public long getTotalWeight() {
+            return totalBytes + totalFiles * BYTES_PER_FILE;
+        }
+
+    }
+
+    /**
+     * A directory to become a partition, with the sub-directories that are not split off yet, heaviest first.
+     */
+    private static class Unit {
+        private final DirectoryNode node;
+        private final Deque<DirectoryNode> remainingChildren;
+        private final List<String> splitOffPaths = new ArrayList<>();
+        private long files;
+        private long bytes;
+
+        public Unit(final DirectoryNode node) {
+            this.node = node;
+            final List<DirectoryNode> children = new ArrayList<>(node.children);
+            children.sort(Comparator.comparingLong(DirectoryNode::getTotalWeight).reversed());
+            remainingChildren = new ArrayDeque<>(children);
+            files = node.totalFiles;
+            bytes = node.totalBytes;
+        }
+
+        public long getWeight() {
+            return bytes + files * BYTES_PER_FILE;
+        }
+
+        public DirectoryNode nextChildToSplitOff() {
+            return remainingChildren.peek();
+        }
+
+        public void splitOff(final DirectoryNode child) {
+            remainingChildren.remove(child);
+            splitOffPaths.add(child.relativePath);
+            files -= child.totalFiles;
+            bytes -= child.totalBytes;
+        }
+
+        public ScanTargetPartition createPartition(final Set<String> targetExclusionPatterns) {
+            final Set<String> exclusionPatterns = new LinkedHashSet<>();
+            if ("/".equals(node.relativePath)) {
+                exclusionPatterns.addAll(targetExclusionPatterns);
+            }
+            for (final String excludedPath : node.excludedPaths) {
+                exclusionPatterns.add(relativeTo(node.relativePath, excludedPath));
+            }
+            for (final DirectoryNode child : node.children) {
+                if (!splitOffPaths.contains(child.relativePath)) {
+                    addExcludedPaths(child, exclusionPatterns);
+                }
+            }
+            for (final String splitOffPath : splitOffPaths) {
+                exclusionPatterns.add(relativeTo(node.relativePath, splitOffPath));
+            }
+            return new ScanTargetPartition(node.path.toFile(), node.relativePath, exclusionPatterns, files, bytes);
+        }
+
+        private void addExcludedPaths(final DirectoryNode directory, final Set<String> exclusionPatterns) {
+            for (final String excludedPath : directory.excludedPaths) {
+                exclusionPatterns.add(relativeTo(node.relativePath, excludedPath));
+            }
+            for (final DirectoryNode child : directory.children) {
+                addExcludedPaths(child, exclusionPatterns);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.synopsys.integration.blackduck.api.view;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.synopsys.integration.blackduck.api.generated.view.ProjectView;
+import com.synopsys.integration.blackduck.service.model.JsonRetention;
+
+public class HubResponseJsonStoreTest {
+    private static final Gson gson = new Gson();
+    private static final String json = "{\"name\":\"CITestProject\",\"_meta\":{\"href\":\"http://hub-server.com/api/projects/acae7891-cabb-4186-87ff-d650abb10a38\",\"links\":[]}}";
+
+    @Test
+    public void testRetain() {
+        final ProjectView projectView = gson.fromJson(json, ProjectView.class);
+        JsonRetention.RETAIN.retain(projectView, json);
+
+        assertEquals(json, projectView.json);
+        assertEquals(json, HubResponseJsonStore.getJson(projectView).get());
+    }
+
+    @Test
+    public void testDiscard() {
+        final ProjectView projectView = gson.fromJson(json, ProjectView.class);
+        JsonRetention.DISCARD.retain(projectView, json);
+
+        assertNull(projectView.json);
+        assertFalse(HubResponseJsonStore.getJson(projectView).isPresent());
+    }
+
+    @Test
+    public void testCompress() {
+        final ProjectView projectView = gson.fromJson(json, ProjectView.class);
+        final ProjectView equalProjectView = gson.fromJson(json, ProjectView.class);
+        JsonRetention.COMPRESS.retain(projectView, json);
+
+        assertNull(projectView.json);
+        assertEquals(json, HubResponseJsonStore.getJson(projectView).get());
+        // entries are keyed by identity, not equality
+        assertFalse(HubResponseJsonStore.getJson(equalProjectView).isPresent());
+    }
+
+}
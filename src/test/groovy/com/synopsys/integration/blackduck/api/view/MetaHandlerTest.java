@@ -25,6 +25,7 @@ package com.synopsys.integration.blackduck.api.view;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.Assert;
@@ -32,6 +33,7 @@ import org.junit.Test;
 
 import com.google.gson.Gson;
 import com.synopsys.integration.blackduck.api.core.HubView;
+import com.synopsys.integration.blackduck.api.core.ResourceLink;
 import com.synopsys.integration.blackduck.api.generated.view.ProjectView;
 import com.synopsys.integration.blackduck.exception.HubIntegrationException;
 import com.synopsys.integration.log.IntBufferedLogger;
@@ -108,4 +110,28 @@ public class MetaHandlerTest {
         assertEquals(0, nonHttpLinkCount);
     }
 
+    @Test
+    public void testLinkIndexFollowsChangedLinks() throws Exception {
+        final MetaHandler metaHandler = getMetaHandler();
+        final HubView hubItem = getTestHubItem();
+
+        assertEquals("http://hub-server.com/api/projects/acae7891-cabb-4186-87ff-d650abb10a38/versions/96497043-89f9-4ae7-8b5a-e9945e0a57cf", metaHandler.getFirstLinkSafely(hubItem, "canonicalVersion"));
+        assertEquals(2, metaHandler.getLinks(hubItem, "canonicalVersion").size());
+
+        final ResourceLink usersLink = new ResourceLink();
+        usersLink.rel = "users";
+        usersLink.href = "http://hub-server.com/api/projects/acae7891-cabb-4186-87ff-d650abb10a38/users";
+        hubItem._meta.links.add(usersLink);
+        assertTrue(metaHandler.hasLink(hubItem, "users"));
+        assertEquals(usersLink.href, metaHandler.getFirstLink(hubItem, "users"));
+
+        hubItem._meta.links = new ArrayList<>();
+        assertFalse(metaHandler.hasLink(hubItem, "canonicalVersion"));
+        assertNull(metaHandler.getFirstLinkSafely(hubItem, "canonicalVersion"));
+
+        hubItem._meta = null;
+        assertFalse(metaHandler.hasLink(hubItem, "canonicalVersion"));
+        assertNull(metaHandler.getFirstLinkSafely(hubItem, "canonicalVersion"));
+    }
+
 }
@@ -0,0 +1,112 @@
+package com.synopsys.integration.blackduck.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+public class AsyncHubServiceTest {
+    private final Executor directExecutor = Runnable::run;
+
+    @Test
+    public void testFanOutKeepsTheOrderOfTheItems() {
+        final AsyncHubService asyncHubService = new AsyncHubService(null, directExecutor, 2);
+        final List<CompletableFuture<String>> calls = new ArrayList<>();
+        final CompletableFuture<List<String>> result = asyncHubService.fanOut(Arrays.asList(1, 2, 3), item -> {
+            final CompletableFuture<String> call = new CompletableFuture<>();
+            calls.add(call);
+            return call;
+        });
+
+        assertEquals(2, calls.size());
+        calls.get(1).complete("two");
+        assertEquals(3, calls.size());
+        calls.get(2).complete("three");
+        calls.get(0).complete("one");
+
+        assertEquals(Arrays.asList("one", "two", "three"), result.join());
+    }
+
+    @Test
+    public void testFanOutNeverExceedsMaxInFlight() {
+        final AsyncHubService asyncHubService = new AsyncHubService(null, directExecutor, 3);
+        final List<CompletableFuture<Integer>> inFlight = new ArrayList<>();
+        int maxInFlight = 0;
+        final List<Integer> items = IntStream.range(0, 20).boxed().collect(Collectors.toList());
+        final CompletableFuture<List<Integer>> result = asyncHubService.fanOut(items, item -> {
+            final CompletableFuture<Integer> call = new CompletableFuture<>();
+            call.thenRun(() -> inFlight.remove(call));
+            inFlight.add(call);
+            return call;
+        });
+
+        int completed = 0;
+        while (!inFlight.isEmpty()) {
+            maxInFlight = Math.max(maxInFlight, inFlight.size());
+            inFlight.get(0).complete(completed++);
+        }
+
+        assertEquals(3, maxInFlight);
+        assertEquals(items, result.join());
+    }
+
+    @Test
+    public void testFanOutOfCompletedCallsDoesNotRecurse() {
+        final AsyncHubService asyncHubService = new AsyncHubService(null, directExecutor, 1);
+        final List<Integer> items = IntStream.range(0, 100000).boxed().collect(Collectors.toList());
+
+        final List<Integer> result = asyncHubService.fanOut(items, CompletableFuture::completedFuture).join();
+
+        assertEquals(items, result);
+    }
+
+    @Test
+    public void testFanOutStopsAtTheFirstFailure() {
+        final AsyncHubService asyncHubService = new AsyncHubService(null, directExecutor, 2);
+        final List<Integer> started = new ArrayList<>();
+        final IllegalStateException failure = new IllegalStateException("failed");
+        final CompletableFuture<List<Integer>> result = asyncHubService.fanOut(Arrays.asList(1, 2, 3, 4, 5), item -> {
+            started.add(item);
+            final CompletableFuture<Integer> call = new CompletableFuture<>();
+            if (item == 2) {
+                call.completeExceptionally(failure);
+            }
+            return call;
+        });
+
+        assertTrue(result.isCompletedExceptionally());
+        assertEquals(Arrays.asList(1, 2), started);
+        try {
+            result.join();
+            fail("The fan out should have failed");
+        } catch (final CompletionException e) {
+            assertSame(failure, e.getCause());
+        }
+    }
+
+    @Test
+    public void testFanOutOfNoItems() {
+        final AsyncHubService asyncHubService = new AsyncHubService(null, directExecutor);
+        final CompletableFuture<List<Object>> result = asyncHubService.fanOut(Collections.emptyList(), item -> {
+            throw new IllegalStateException("There is nothing to call");
+        });
+
+        assertTrue(result.isDone());
+        assertFalse(result.isCompletedExceptionally());
+        assertTrue(result.join().isEmpty());
+    }
+
+}
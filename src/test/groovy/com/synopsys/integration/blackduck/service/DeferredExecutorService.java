@@ -0,0 +1,83 @@
+package com.synopsys.integration.blackduck.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the submitted tasks until the test runs them or one of their futures is waited on. Then either everything queued is run, from the last submitted to the first so the pages complete out of order, or only the awaited
+ * task is.
+ */
+class DeferredExecutorService extends AbstractExecutorService {
+    final List<FutureTask<?>> queued = new ArrayList<>();
+    final List<FutureTask<?>> submitted = new ArrayList<>();
+    int maxInFlight;
+
+    private final boolean runAllInReverse;
+    private int retrieved;
+
+    DeferredExecutorService(final boolean runAllInReverse) {
+        this.runAllInReverse = runAllInReverse;
+    }
+
+    @Override
+    protected <T> FutureTask<T> newTaskFor(final Callable<T> callable) {
+        return new FutureTask<T>(callable) {
+            @Override
+            public T get() throws InterruptedException, ExecutionException {
+                maxInFlight = Math.max(maxInFlight, submitted.size() - retrieved);
+                retrieved++;
+                if (runAllInReverse) {
+                    runQueued();
+                } else {
+                    queued.remove(this);
+                    run();
+                }
+                return super.get();
+            }
+        };
+    }
+
+    private void runQueued() {
+        final List<FutureTask<?>> toRun = new ArrayList<>(queued);
+        queued.clear();
+        Collections.reverse(toRun);
+        toRun.forEach(FutureTask::run);
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+        queued.add((FutureTask<?>) command);
+        submitted.add((FutureTask<?>) command);
+    }
+
+    @Override
+    public void shutdown() {
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return false;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return false;
+    }
+
+    @Override
+    public boolean awaitTermination(final long timeout, final TimeUnit unit) {
+        return true;
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.synopsys.integration.blackduck.service;
+
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.synopsys.integration.blackduck.rest.BlackduckRestConnection;
+import com.synopsys.integration.blackduck.service.model.AdaptiveConcurrencyLimiter;
+import com.synopsys.integration.exception.IntegrationException;
+import com.synopsys.integration.rest.request.Request;
+import com.synopsys.integration.rest.request.Response;
+
+public class HubRequestExecutorTest {
+    @Test
+    public void testTheRequestIsTimedFromWhenTheLimitAllowsIt() throws Exception {
+        final BlackduckRestConnection restConnection = Mockito.mock(BlackduckRestConnection.class);
+        final Response response = Mockito.mock(Response.class);
+        final Request request = new Request.Builder("http://hub/api/projects").build();
+        Mockito.when(restConnection.executeRequest(request)).thenReturn(response);
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1);
+        final HubRequestExecutor hubRequestExecutor = new HubRequestExecutor(restConnection, new HubServiceOptions.Builder().concurrencyLimiter(limiter).build());
+
+        limiter.acquire();
+        final AtomicLong sentNanos = new AtomicLong();
+        final AtomicReference<Response> executed = new AtomicReference<>();
+        final Thread waiter = new Thread(() -> {
+            try {
+                executed.set(hubRequestExecutor.execute(request, sentNanos::set));
+            } catch (final IntegrationException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        waiter.start();
+        while (limiter.getQueueDepth() < 1) {
+            Thread.sleep(5);
+        }
+        Thread.sleep(50);
+        final long releasedNanos = System.nanoTime();
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(10), AdaptiveConcurrencyLimiter.Outcome.SUCCESS);
+        waiter.join();
+
+        assertSame(response, executed.get());
+        assertTrue(sentNanos.get() >= releasedNanos);
+    }
+
+}
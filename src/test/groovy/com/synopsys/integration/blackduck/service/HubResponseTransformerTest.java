@@ -0,0 +1,207 @@
+package com.synopsys.integration.blackduck.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+import com.synopsys.integration.blackduck.api.generated.view.ProjectView;
+import com.synopsys.integration.blackduck.api.view.HubResponseJsonStore;
+import com.synopsys.integration.blackduck.rest.BlackduckRestConnection;
+import com.synopsys.integration.blackduck.service.cache.HubResponseCache;
+import com.synopsys.integration.blackduck.service.cache.InMemoryHubResponseCache;
+import com.synopsys.integration.blackduck.service.model.JsonRetention;
+import com.synopsys.integration.blackduck.service.model.PagedJsonReader;
+import com.synopsys.integration.blackduck.service.model.RequestFactory;
+import com.synopsys.integration.blackduck.service.model.ResponseContentStream;
+import com.synopsys.integration.blackduck.service.model.TypeDiscriminatingDecoder;
+import com.synopsys.integration.exception.IntegrationException;
+import com.synopsys.integration.rest.exception.IntegrationRestException;
+import com.synopsys.integration.rest.request.Request;
+import com.synopsys.integration.rest.request.Response;
+
+public class HubResponseTransformerTest {
+    private static final String PAGE = "{\"totalCount\":2,\"items\":[ {\"name\":\"first\", \"description\":\"a \\\"quoted\\\" description\"} , {\"name\":\"second\"} ]}";
+
+    @Test
+    public void testRetainedItemsKeepTheTextTheyWereStreamedFrom() throws Exception {
+        final List<ProjectView> projectViews = readPage(createHubResponseTransformer(JsonRetention.RETAIN));
+
+        assertEquals("first", projectViews.get(0).name);
+        assertEquals("a \"quoted\" description", projectViews.get(0).description);
+        assertEquals("{\"name\":\"first\",\"description\":\"a \\\"quoted\\\" description\"}", projectViews.get(0).json);
+        assertEquals("{\"name\":\"second\"}", projectViews.get(1).json);
+    }
+
+    @Test
+    public void testCompressedItemsKeepTheTextTheyWereStreamedFrom() throws Exception {
+        final List<ProjectView> projectViews = readPage(createHubResponseTransformer(JsonRetention.COMPRESS));
+
+        assertNull(projectViews.get(0).json);
+        assertEquals("{\"name\":\"first\",\"description\":\"a \\\"quoted\\\" description\"}", HubResponseJsonStore.getJson(projectViews.get(0)).get());
+    }
+
+    @Test
+    public void testDiscardedItemsAreBoundStraightFromTheStream() throws Exception {
+        final List<ProjectView> projectViews = readPage(createHubResponseTransformer(JsonRetention.DISCARD));
+
+        assertEquals("second", projectViews.get(1).name);
+        assertNull(projectViews.get(1).json);
+        assertFalse(HubResponseJsonStore.getJson(projectViews.get(1)).isPresent());
+    }
+
+    @Test
+    public void testTheDiscriminatorIsScannedFromTheStreamedText() throws Exception {
+        final HubResponseTransformer hubResponseTransformer = createHubResponseTransformer(JsonRetention.DISCARD);
+        final TypeDiscriminatingDecoder<ProjectView> decoder = hubResponseTransformer.createTypeDiscriminatingDecoder(ProjectView.class, Collections.singletonMap("special", SpecialProjectView.class));
+        final List<ProjectView> projectViews = new ArrayList<>();
+        final String page = "{\"items\":[{\"name\":\"plain\",\"type\":\"other\"},{\"name\":\"special\",\"detail\":{\"type\":\"nested\"},\"type\":\"special\"}]}";
+        new PagedJsonReader(new StringReader(page)).read(jsonReader -> projectViews.add(hubResponseTransformer.readResponse(jsonReader, ProjectView.class, decoder)));
+
+        assertEquals(ProjectView.class, projectViews.get(0).getClass());
+        assertEquals("special", projectViews.get(1).name);
+        assertEquals("nested", ((SpecialProjectView) projectViews.get(1)).detail.type);
+        assertNull(projectViews.get(1).json);
+    }
+
+    @Test
+    public void testAGzipResponseIsStillDecoded() throws Exception {
+        final String json = "{\"name\":\"compressed\"}";
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(compressed)) {
+            gzipOutputStream.write(json.getBytes(StandardCharsets.UTF_8));
+        }
+        final Response response = Mockito.mock(Response.class);
+        Mockito.when(response.getContent()).thenReturn(new ByteArrayInputStream(compressed.toByteArray()));
+        Mockito.when(response.getHeaderValue(ResponseContentStream.CONTENT_ENCODING_HEADER)).thenReturn(ResponseContentStream.GZIP_ENCODING);
+
+        assertEquals(json, createHubResponseTransformer(respondWith(response), JsonRetention.DISCARD).getContentString(RequestFactory.createCommonGetRequest("http://hub/api/projects/1")));
+    }
+
+    @Test
+    public void testAResponseTheClientInflatedIsPassedThrough() throws Exception {
+        final String json = "{\"name\":\"inflated by the client\"}";
+        final Response response = Mockito.mock(Response.class);
+        Mockito.when(response.getContent()).thenReturn(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(json, createHubResponseTransformer(respondWith(response), JsonRetention.DISCARD).getContentString(RequestFactory.createCommonGetRequest("http://hub/api/projects/1")));
+    }
+
+    @Test
+    public void testA304IsAnsweredFromTheCacheWithoutChangingTheRequest() throws Exception {
+        final String json = "{\"name\":\"cached\"}";
+        final List<Request> sentRequests = new ArrayList<>();
+        final BlackduckRestConnection restConnection = respondWith(sentRequests, createResponse(200, json, "\"v1\""), createResponse(304, "", null));
+        final InMemoryHubResponseCache cache = new InMemoryHubResponseCache();
+        final HubResponseTransformer hubResponseTransformer = createHubResponseTransformer(restConnection, cache);
+        final Request request = RequestFactory.createCommonGetRequest("http://hub/api/projects/1");
+
+        assertEquals(json, hubResponseTransformer.getContentString(request));
+        assertEquals(json, hubResponseTransformer.getContentString(request));
+
+        assertNull(sentRequests.get(0).getAdditionalHeaders().get("If-None-Match"));
+        assertEquals("\"v1\"", sentRequests.get(1).getAdditionalHeaders().get("If-None-Match"));
+        assertTrue(request.getAdditionalHeaders().isEmpty());
+        assertEquals(1, cache.getStatistics().getHitCount());
+        assertEquals(1, cache.getStatistics().getRevalidationCount());
+    }
+
+    @Test
+    public void testA304ThrownAsAnExceptionIsAnsweredFromTheCache() throws Exception {
+        final String json = "{\"name\":\"cached\"}";
+        final BlackduckRestConnection restConnection = Mockito.mock(BlackduckRestConnection.class);
+        final Response response = createResponse(200, json, "\"v1\"");
+        Mockito.when(restConnection.executeRequest(Mockito.any(Request.class))).thenReturn(response).thenThrow(new IntegrationRestException(304, "Not Modified", "", "Not Modified"));
+        final InMemoryHubResponseCache cache = new InMemoryHubResponseCache();
+        final HubResponseTransformer hubResponseTransformer = createHubResponseTransformer(restConnection, cache);
+
+        assertEquals(json, hubResponseTransformer.getContentString(RequestFactory.createCommonGetRequest("http://hub/api/projects/1")));
+        assertEquals(json, hubResponseTransformer.getContentString(RequestFactory.createCommonGetRequest("http://hub/api/projects/1")));
+        assertEquals(1, cache.getStatistics().getHitCount());
+    }
+
+    @Test
+    public void testAReusedRequestSendsNoValidatorsOnceTheResponseWasEvicted() throws Exception {
+        final List<Request> sentRequests = new ArrayList<>();
+        final BlackduckRestConnection restConnection = respondWith(sentRequests, createResponse(200, "{\"name\":\"first\"}", "\"v1\""), createResponse(200, "{\"name\":\"second\"}", "\"v2\""));
+        final InMemoryHubResponseCache cache = new InMemoryHubResponseCache();
+        final HubResponseTransformer hubResponseTransformer = createHubResponseTransformer(restConnection, cache);
+        final Request request = RequestFactory.createCommonGetRequest("http://hub/api/projects/1");
+
+        hubResponseTransformer.getContentString(request);
+        cache.clear();
+
+        assertEquals("{\"name\":\"second\"}", hubResponseTransformer.getContentString(request));
+        assertNull(sentRequests.get(1).getAdditionalHeaders().get("If-None-Match"));
+    }
+
+    private List<ProjectView> readPage(final HubResponseTransformer hubResponseTransformer) throws Exception {
+        final List<ProjectView> projectViews = new ArrayList<>();
+        new PagedJsonReader(new StringReader(PAGE)).read(jsonReader -> projectViews.add(hubResponseTransformer.readResponse(jsonReader, ProjectView.class, null)));
+        return projectViews;
+    }
+
+    private Response createResponse(final int statusCode, final String json, final String eTag) throws IntegrationException {
+        final Response response = Mockito.mock(Response.class);
+        Mockito.when(response.getStatusCode()).thenReturn(statusCode);
+        Mockito.when(response.getContent()).thenReturn(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+        Mockito.when(response.getHeaderValue("ETag")).thenReturn(eTag);
+        return response;
+    }
+
+    private BlackduckRestConnection respondWith(final List<Request> sentRequests, final Response... responses) throws IntegrationException {
+        final Deque<Response> remainingResponses = new ArrayDeque<>(Arrays.asList(responses));
+        final BlackduckRestConnection restConnection = Mockito.mock(BlackduckRestConnection.class);
+        Mockito.when(restConnection.executeRequest(Mockito.any(Request.class))).thenAnswer(invocation -> {
+            sentRequests.add(invocation.getArgument(0));
+            return remainingResponses.removeFirst();
+        });
+        return restConnection;
+    }
+
+    private BlackduckRestConnection respondWith(final Response response) throws IntegrationException {
+        final BlackduckRestConnection restConnection = Mockito.mock(BlackduckRestConnection.class);
+        Mockito.when(restConnection.executeRequest(Mockito.any(Request.class))).thenReturn(response);
+        return restConnection;
+    }
+
+    private HubResponseTransformer createHubResponseTransformer(final JsonRetention jsonRetention) {
+        return createHubResponseTransformer(Mockito.mock(BlackduckRestConnection.class), jsonRetention);
+    }
+
+    private HubResponseTransformer createHubResponseTransformer(final BlackduckRestConnection restConnection, final HubResponseCache responseCache) {
+        final HubServiceOptions hubServiceOptions = new HubServiceOptions.Builder().responseCache(responseCache).build();
+        return new HubResponseTransformer(restConnection, new Gson(), new JsonParser(), hubServiceOptions);
+    }
+
+    private HubResponseTransformer createHubResponseTransformer(final BlackduckRestConnection restConnection, final JsonRetention jsonRetention) {
+        final HubServiceOptions hubServiceOptions = new HubServiceOptions.Builder().jsonRetention(jsonRetention).build();
+        return new HubResponseTransformer(restConnection, new Gson(), new JsonParser(), hubServiceOptions);
+    }
+
+    private static class SpecialProjectView extends ProjectView {
+        private Detail detail;
+    }
+
+    private static class Detail {
+        private String type;
+    }
+
+}
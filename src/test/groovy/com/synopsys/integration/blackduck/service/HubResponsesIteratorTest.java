@@ -0,0 +1,107 @@
+package com.synopsys.integration.blackduck.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.FutureTask;
+
+import org.junit.Test;
+
+import com.synopsys.integration.blackduck.api.core.HubResponse;
+import com.synopsys.integration.blackduck.api.generated.view.ProjectView;
+import com.synopsys.integration.blackduck.service.model.HubResponsesPage;
+import com.synopsys.integration.blackduck.service.model.PagedRequest;
+import com.synopsys.integration.exception.IntegrationException;
+import com.synopsys.integration.rest.request.Request;
+
+public class HubResponsesIteratorTest {
+    private final PagedRequest pagedRequest = new PagedRequest(new Request.Builder("http://hub/api/projects"), 0, 2);
+
+    @Test
+    public void testPagesAreRequestedAsTheItemsAreConsumed() {
+        final PagingTransformer transformer = new PagingTransformer(5);
+        final HubResponsesIterator<ProjectView> iterator = new HubResponsesIterator<>(transformer, pagedRequest, ProjectView.class, null);
+        assertTrue(transformer.requestedOffsets.isEmpty());
+
+        assertEquals("0", iterator.next().name);
+        assertEquals(Arrays.asList(0), transformer.requestedOffsets);
+        assertEquals("1", iterator.next().name);
+        assertEquals(Arrays.asList(0), transformer.requestedOffsets);
+
+        assertEquals("2", iterator.next().name);
+        assertEquals(Arrays.asList(0, 2), transformer.requestedOffsets);
+        assertEquals("3", iterator.next().name);
+        assertEquals("4", iterator.next().name);
+        assertFalse(iterator.hasNext());
+        assertEquals(Arrays.asList(0, 2, 4), transformer.requestedOffsets);
+    }
+
+    @Test
+    public void testTheNextPageIsPrefetchedWhenAPageArrives() {
+        final PagingTransformer transformer = new PagingTransformer(5);
+        final DeferredExecutorService executorService = new DeferredExecutorService(false);
+        final HubResponsesIterator<ProjectView> iterator = new HubResponsesIterator<>(transformer, pagedRequest, ProjectView.class, null, executorService);
+
+        assertEquals("0", iterator.next().name);
+        assertEquals(1, executorService.queued.size());
+        assertEquals(Arrays.asList(0), transformer.requestedOffsets);
+
+        executorService.queued.get(0).run();
+        assertEquals(Arrays.asList(0, 2), transformer.requestedOffsets);
+        assertEquals("1", iterator.next().name);
+        assertEquals("2", iterator.next().name);
+        assertEquals(2, executorService.submitted.size());
+    }
+
+    @Test
+    public void testCloseCancelsThePrefetchedPage() {
+        final PagingTransformer transformer = new PagingTransformer(5);
+        final DeferredExecutorService executorService = new DeferredExecutorService(false);
+        final HubResponsesIterator<ProjectView> iterator = new HubResponsesIterator<>(transformer, pagedRequest, ProjectView.class, null, executorService);
+
+        iterator.next();
+        final FutureTask<?> prefetchedPage = executorService.queued.get(0);
+        iterator.close();
+
+        assertTrue(prefetchedPage.isCancelled());
+        assertFalse(iterator.hasNext());
+        prefetchedPage.run();
+        assertEquals(Arrays.asList(0), transformer.requestedOffsets);
+    }
+
+    /**
+     * Serves a collection of totalCount projects named by their index.
+     */
+    private static class PagingTransformer extends HubResponsesTransformer {
+        private final int totalCount;
+        private final List<Integer> requestedOffsets = Collections.synchronizedList(new ArrayList<>());
+
+        private PagingTransformer(final int totalCount) {
+            super(new HubRequestExecutor(null, HubServiceOptions.defaultOptions()), null, Optional.empty(), 1, Optional.empty());
+            this.totalCount = totalCount;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T extends HubResponse> HubResponsesPage<T> getPage(final Request request, final Class<T> clazz, final Map<String, Class<? extends T>> typeMap) throws IntegrationException {
+            final int offset = Integer.parseInt(request.getQueryParameters().get("offset").iterator().next());
+            final int limit = Integer.parseInt(request.getQueryParameters().get("limit").iterator().next());
+            requestedOffsets.add(offset);
+            final List<T> items = new ArrayList<>();
+            for (int i = offset; i < Math.min(totalCount, offset + limit); i++) {
+                final ProjectView projectView = new ProjectView();
+                projectView.name = String.valueOf(i);
+                items.add((T) projectView);
+            }
+            return new HubResponsesPage<>(items, totalCount, 0, 0);
+        }
+    }
+
+}
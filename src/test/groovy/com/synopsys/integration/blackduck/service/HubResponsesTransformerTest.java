@@ -0,0 +1,174 @@
+package com.synopsys.integration.blackduck.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.synopsys.integration.blackduck.api.core.HubResponse;
+import com.synopsys.integration.blackduck.api.core.ResourceMetadata;
+import com.synopsys.integration.blackduck.api.generated.view.ProjectView;
+import com.synopsys.integration.blackduck.exception.HubIntegrationException;
+import com.synopsys.integration.blackduck.service.model.HubResponsesPage;
+import com.synopsys.integration.blackduck.service.model.PagedRequest;
+import com.synopsys.integration.exception.IntegrationException;
+import com.synopsys.integration.rest.request.Request;
+
+public class HubResponsesTransformerTest {
+    @Test
+    public void testPagesAreAppendedInOffsetOrder() throws IntegrationException {
+        final DeferredExecutorService executorService = new DeferredExecutorService(true);
+        final PagingTransformer transformer = new PagingTransformer(executorService, 3, 23);
+
+        final List<ProjectView> projectViews = transformer.getResponses(new PagedRequest(new Request.Builder("http://hub/api/projects"), 0, 5), ProjectView.class);
+
+        assertEquals(23, projectViews.size());
+        for (int i = 0; i < projectViews.size(); i++) {
+            assertEquals(String.valueOf(i), projectViews.get(i).name);
+        }
+        // the pages after the first were run last to first, but are still read in offset order
+        assertEquals(Arrays.asList(0, 15, 10, 5, 20), transformer.requestedOffsets);
+    }
+
+    @Test
+    public void testNoMoreThanMaxPagesInFlight() throws IntegrationException {
+        final DeferredExecutorService executorService = new DeferredExecutorService(true);
+        final PagingTransformer transformer = new PagingTransformer(executorService, 3, 100);
+
+        final List<ProjectView> projectViews = transformer.getResponses(new PagedRequest(new Request.Builder("http://hub/api/projects"), 0, 5), ProjectView.class);
+
+        assertEquals(100, projectViews.size());
+        assertEquals(3, executorService.maxInFlight);
+        assertEquals(20, transformer.requestedOffsets.size());
+    }
+
+    @Test
+    public void testAFailedPageFailsTheWalkAndCancelsTheRest() {
+        final DeferredExecutorService executorService = new DeferredExecutorService(false);
+        final PagingTransformer transformer = new PagingTransformer(executorService, 4, 100);
+        final IntegrationException failure = new HubIntegrationException("page 2 failed");
+        transformer.failures.put(10, failure);
+
+        try {
+            transformer.getResponses(new PagedRequest(new Request.Builder("http://hub/api/projects"), 0, 5), ProjectView.class);
+            fail("The failure of the page should have been rethrown");
+        } catch (final IntegrationException e) {
+            assertSame(failure, e);
+        }
+        // the pages at 15, 20 and 25 were outstanding when the page at 10 failed
+        assertEquals(Arrays.asList(0, 5, 10), transformer.requestedOffsets);
+        assertEquals(5, executorService.submitted.size());
+        assertTrue(executorService.submitted.subList(2, 5).stream().allMatch(Future::isCancelled));
+    }
+
+    @Test
+    public void testAnItemDeletedBetweenPagesDoesNotSkipTheItemThatMovedUp() throws IntegrationException {
+        final ChangingCollectionTransformer transformer = new ChangingCollectionTransformer(10);
+        // before the second page is read, an item of the first page is deleted, so the item at offset 3 moves to offset 2
+        transformer.changes.put(3, collection -> collection.remove("1"));
+
+        final List<ProjectView> projectViews = transformer.getConsistentResponses(new PagedRequest(new Request.Builder("http://hub/api/projects"), 0, 3), ProjectView.class, null);
+
+        assertEquals(Arrays.asList("0", "1", "2", "4", "5", "6", "3", "7", "8", "9"), getNames(projectViews));
+        assertEquals(Arrays.asList(0, 3, 2, 5, 8), transformer.requestedOffsets);
+    }
+
+    @Test
+    public void testAnItemInsertedBetweenPagesDoesNotDuplicateTheItemThatMovedDown() throws IntegrationException {
+        final ChangingCollectionTransformer transformer = new ChangingCollectionTransformer(10);
+        // before the second page is read, a newer item is inserted first, so the item at offset 2 moves to offset 3
+        transformer.changes.put(3, collection -> collection.add(0, "new"));
+
+        final List<ProjectView> projectViews = transformer.getConsistentResponses(new PagedRequest(new Request.Builder("http://hub/api/projects"), 0, 3), ProjectView.class, null);
+
+        assertEquals(Arrays.asList("0", "1", "2", "3", "4", "5", "6", "7", "8", "9"), getNames(projectViews));
+        assertEquals(Arrays.asList(0, 3, 6, 9), transformer.requestedOffsets);
+    }
+
+    private List<String> getNames(final List<ProjectView> projectViews) {
+        return projectViews.stream().map(projectView -> projectView.name).collect(Collectors.toList());
+    }
+
+    /**
+     * Serves a collection of totalCount projects named by their index.
+     */
+    private static class PagingTransformer extends HubResponsesTransformer {
+        private final int totalCount;
+        private final List<Integer> requestedOffsets = Collections.synchronizedList(new ArrayList<>());
+        private final Map<Integer, IntegrationException> failures = new HashMap<>();
+
+        private PagingTransformer(final DeferredExecutorService executorService, final int maxPagesInFlight, final int totalCount) {
+            super(new HubRequestExecutor(null, HubServiceOptions.defaultOptions()), null, Optional.of(executorService), maxPagesInFlight, Optional.empty());
+            this.totalCount = totalCount;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T extends HubResponse> HubResponsesPage<T> getPage(final Request request, final Class<T> clazz, final Map<String, Class<? extends T>> typeMap) throws IntegrationException {
+            final int offset = Integer.parseInt(request.getQueryParameters().get("offset").iterator().next());
+            final int limit = Integer.parseInt(request.getQueryParameters().get("limit").iterator().next());
+            requestedOffsets.add(offset);
+            if (failures.containsKey(offset)) {
+                throw failures.get(offset);
+            }
+            final List<T> items = new ArrayList<>();
+            for (int i = offset; i < Math.min(totalCount, offset + limit); i++) {
+                final ProjectView projectView = new ProjectView();
+                projectView.name = String.valueOf(i);
+                items.add((T) projectView);
+            }
+            return new HubResponsesPage<>(items, totalCount, 0, 0);
+        }
+    }
+
+    /**
+     * Serves a collection of projects, with a _meta.href each, which is changed just before the page at an offset is read.
+     */
+    private static class ChangingCollectionTransformer extends HubResponsesTransformer {
+        private final List<String> collection = new ArrayList<>();
+        private final Map<Integer, Consumer<List<String>>> changes = new HashMap<>();
+        private final List<Integer> requestedOffsets = new ArrayList<>();
+
+        private ChangingCollectionTransformer(final int initialCount) {
+            super(new HubRequestExecutor(null, HubServiceOptions.defaultOptions()), null, Optional.empty(), 1, Optional.empty());
+            for (int i = 0; i < initialCount; i++) {
+                collection.add(String.valueOf(i));
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T extends HubResponse> HubResponsesPage<T> getPage(final Request request, final Class<T> clazz, final Map<String, Class<? extends T>> typeMap) throws IntegrationException {
+            final int offset = Integer.parseInt(request.getQueryParameters().get("offset").iterator().next());
+            final int limit = Integer.parseInt(request.getQueryParameters().get("limit").iterator().next());
+            requestedOffsets.add(offset);
+            final Consumer<List<String>> change = changes.remove(offset);
+            if (change != null) {
+                change.accept(collection);
+            }
+            final List<T> items = new ArrayList<>();
+            for (int i = offset; i < Math.min(collection.size(), offset + limit); i++) {
+                final ProjectView projectView = new ProjectView();
+                projectView.name = collection.get(i);
+                projectView._meta = new ResourceMetadata();
+                projectView._meta.href = "http://hub/api/projects/" + projectView.name;
+                items.add((T) projectView);
+            }
+            return new HubResponsesPage<>(items, collection.size(), 0, 0);
+        }
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.synopsys.integration.blackduck.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.synopsys.integration.blackduck.api.core.LinkMultipleResponses;
+import com.synopsys.integration.blackduck.api.core.ResourceMetadata;
+import com.synopsys.integration.blackduck.api.generated.view.ProjectView;
+import com.synopsys.integration.exception.IntegrationException;
+import com.synopsys.integration.log.LogLevel;
+import com.synopsys.integration.log.PrintStreamIntLogger;
+
+public class HubTraversalServiceTest {
+    private static final LinkMultipleResponses<ProjectView> CHILDREN_LINK_RESPONSE = new LinkMultipleResponses<>("children", ProjectView.class);
+
+    @Test
+    public void testEachLevelIsDedupedAndEachUriRequestedOnce() throws IntegrationException {
+        final HubService hubService = Mockito.mock(HubService.class);
+        final ProjectView first = createProjectView("first", "http://hub/api/projects/1");
+        final ProjectView second = createProjectView("second", "http://hub/api/projects/2");
+        final ProjectView sharingTheFirstsChildren = createProjectView("third", "http://hub/api/projects/3");
+        Mockito.when(hubService.getFirstLinkSafely(first, "children")).thenReturn("http://hub/api/projects/1/children");
+        Mockito.when(hubService.getFirstLinkSafely(second, "children")).thenReturn("http://hub/api/projects/2/children");
+        Mockito.when(hubService.getFirstLinkSafely(sharingTheFirstsChildren, "children")).thenReturn("http://hub/api/projects/1/children");
+        Mockito.when(hubService.getAllResponses("http://hub/api/projects/1/children", ProjectView.class))
+                .thenReturn(Arrays.asList(createProjectView("a", "http://hub/api/a"), createProjectView("shared", "http://hub/api/shared")));
+        Mockito.when(hubService.getAllResponses("http://hub/api/projects/2/children", ProjectView.class))
+                .thenReturn(Arrays.asList(createProjectView("shared again", "http://hub/api/shared"), createProjectView("b", "http://hub/api/b")));
+
+        final HubTraversal<ProjectView, ProjectView> hubTraversal = HubTraversal.from(ProjectView.class).followAll(CHILDREN_LINK_RESPONSE);
+        final List<ProjectView> children = createHubTraversalService(hubService).getAllResponses(Arrays.asList(first, second, sharingTheFirstsChildren), hubTraversal);
+
+        assertEquals(Arrays.asList("a", "shared", "b"), children.stream().map(projectView -> projectView.name).collect(Collectors.toList()));
+        Mockito.verify(hubService, Mockito.times(1)).getAllResponses("http://hub/api/projects/1/children", ProjectView.class);
+    }
+
+    @Test
+    public void testTheFailureOfARequestIsRethrown() throws IntegrationException {
+        final HubService hubService = Mockito.mock(HubService.class);
+        final ProjectView first = createProjectView("first", "http://hub/api/projects/1");
+        final IntegrationException failure = new IntegrationException("children are gone");
+        Mockito.when(hubService.getFirstLinkSafely(first, "children")).thenReturn("http://hub/api/projects/1/children");
+        Mockito.when(hubService.getAllResponses("http://hub/api/projects/1/children", ProjectView.class)).thenThrow(failure);
+
+        final HubTraversal<ProjectView, ProjectView> hubTraversal = HubTraversal.from(ProjectView.class).followAll(CHILDREN_LINK_RESPONSE);
+        try {
+            createHubTraversalService(hubService).getAllResponses(Arrays.asList(first), hubTraversal);
+            fail("The failure of the request should have been rethrown");
+        } catch (final IntegrationException e) {
+            assertSame(failure, e);
+        }
+    }
+
+    private HubTraversalService createHubTraversalService(final HubService hubService) {
+        return new HubTraversalService(hubService, new PrintStreamIntLogger(System.out, LogLevel.INFO));
+    }
+
+    private ProjectView createProjectView(final String name, final String href) {
+        final ProjectView projectView = new ProjectView();
+        projectView.name = name;
+        projectView._meta = new ResourceMetadata();
+        projectView._meta.href = href;
+        return projectView;
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.synopsys.integration.blackduck.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.synopsys.integration.blackduck.api.core.LinkMultipleResponses;
+import com.synopsys.integration.blackduck.api.core.LinkSingleResponse;
+import com.synopsys.integration.blackduck.api.generated.view.ProjectView;
+
+public class HubTraversalTest {
+    @Test
+    public void testFiltersApplyToTheirOwnLevel() {
+        final HubTraversal<ProjectView, ProjectView> start = HubTraversal.from(ProjectView.class);
+        final HubTraversal<ProjectView, ProjectView> traversal = start
+                                                                       .filter(projectView -> projectView.name.startsWith("team-"))
+                                                                       .followAll(new LinkMultipleResponses<>("children", ProjectView.class))
+                                                                       .follow(new LinkSingleResponse<>("parent", ProjectView.class))
+                                                                       .filter(projectView -> projectView.description != null);
+
+        final List<HubTraversal.TraversalLevel<?>> levels = traversal.getLevels();
+        assertEquals(3, levels.size());
+        assertNull(levels.get(0).getLink());
+        assertEquals("children", levels.get(1).getLink());
+        assertTrue(levels.get(1).isMultipleResponses());
+        assertEquals("parent", levels.get(2).getLink());
+        assertFalse(levels.get(2).isMultipleResponses());
+
+        final ProjectView teamProject = createProjectView("team-a", null);
+        final ProjectView otherProject = createProjectView("other", "described");
+        assertTrue(levels.get(0).accepts(teamProject));
+        assertFalse(levels.get(0).accepts(otherProject));
+        assertTrue(levels.get(1).accepts(teamProject));
+        assertFalse(levels.get(2).accepts(teamProject));
+        assertTrue(levels.get(2).accepts(otherProject));
+
+        // the traversals are immutable
+        assertEquals(1, start.getLevels().size());
+        assertTrue(start.getLevels().get(0).accepts(otherProject));
+    }
+
+    private ProjectView createProjectView(final String name, final String description) {
+        final ProjectView projectView = new ProjectView();
+        projectView.name = name;
+        projectView.description = description;
+        return projectView;
+    }
+
+}
@@ -0,0 +1,149 @@
+package com.synopsys.integration.blackduck.service;
+
+import static org.junit.Assert.assertEquals;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+import com.synopsys.integration.blackduck.api.core.HubPathMultipleResponses;
+import com.synopsys.integration.blackduck.api.core.HubResponse;
+import com.synopsys.integration.blackduck.api.core.ResourceMetadata;
+import com.synopsys.integration.blackduck.api.generated.view.NotificationView;
+import com.synopsys.integration.blackduck.rest.BlackduckRestConnection;
+import com.synopsys.integration.exception.IntegrationException;
+import com.synopsys.integration.log.LogLevel;
+import com.synopsys.integration.log.PrintStreamIntLogger;
+import com.synopsys.integration.rest.RestConstants;
+import com.synopsys.integration.rest.request.Request;
+
+public class NotificationServiceTest {
+    private static final long NOW = 1500000000000L;
+    private static final Date START_DATE = new Date(NOW - 1000000L);
+    private static final Date END_DATE = new Date(NOW + 1000000L);
+
+    @Test
+    public void testNotificationsSharingACreatedAtAcrossAPageAreReadOnce() throws IntegrationException {
+        final List<NotificationView> notifications = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            // the notifications at 95 to 104 straddle the end of the first page and share one createdAt
+            final long age = i < 95 ? i : (i < 105 ? 95 : i - 9);
+            notifications.add(createNotification(i, NOW - age * 1000L));
+        }
+        final NotificationHubService hubService = new NotificationHubService(notifications);
+
+        final List<NotificationView> read = createNotificationService(hubService).getAllNotificationsByDateCursor(START_DATE, END_DATE);
+
+        assertEquals(getHrefs(notifications), getHrefs(read));
+        assertEquals(3, hubService.requestedOffsets.size());
+        // the second page starts at the 10 notifications sharing the oldest createdAt of the first page, 5 of which were read already
+        assertEquals(5, (int) hubService.requestedOffsets.get(1));
+    }
+
+    @Test
+    public void testMoreNotificationsSharingACreatedAtThanFitOnAPageAreReadOnce() throws IntegrationException {
+        final List<NotificationView> notifications = new ArrayList<>();
+        for (int i = 0; i < 130; i++) {
+            notifications.add(createNotification(i, NOW));
+        }
+        final NotificationHubService hubService = new NotificationHubService(notifications);
+
+        final List<NotificationView> read = createNotificationService(hubService).getAllNotificationsByDateCursor(START_DATE, END_DATE);
+
+        assertEquals(getHrefs(notifications), getHrefs(read));
+        assertEquals(100, (int) hubService.requestedOffsets.get(1));
+    }
+
+    @Test
+    public void testNotificationsAddedDuringTheWalkDoNotShiftThePages() throws IntegrationException {
+        final List<NotificationView> notifications = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            notifications.add(createNotification(i, NOW - i * 1000L));
+        }
+        final NotificationHubService hubService = new NotificationHubService(notifications);
+        hubService.addedAfterFirstPage = 7;
+
+        final List<NotificationView> read = createNotificationService(hubService).getAllNotificationsByDateCursor(START_DATE, END_DATE);
+
+        // the added notifications are newer than the cursor, so none of the first page is read again and none of them is read
+        assertEquals(getHrefs(notifications), getHrefs(read));
+        assertEquals(3, hubService.requestedOffsets.size());
+    }
+
+    private NotificationService createNotificationService(final HubService hubService) {
+        return new NotificationService(hubService, new PrintStreamIntLogger(System.out, LogLevel.INFO));
+    }
+
+    private NotificationView createNotification(final int index, final long createdAt) {
+        final NotificationView notificationView = new NotificationView();
+        notificationView.createdAt = new Date(createdAt);
+        notificationView._meta = new ResourceMetadata();
+        notificationView._meta.href = "http://hub/api/notifications/" + index;
+        return notificationView;
+    }
+
+    private List<String> getHrefs(final List<NotificationView> notifications) {
+        return notifications.stream().map(notificationView -> notificationView._meta.href).collect(Collectors.toList());
+    }
+
+    /**
+     * Answers the notification requests like the Hub, newest first within startDate and an exclusive endDate.
+     */
+    private static class NotificationHubService extends HubService {
+        private final List<NotificationView> notifications;
+        private final List<Integer> requestedOffsets = new ArrayList<>();
+        private int addedAfterFirstPage;
+
+        private NotificationHubService(final List<NotificationView> notifications) {
+            super(new PrintStreamIntLogger(System.out, LogLevel.INFO), Mockito.mock(BlackduckRestConnection.class), new Gson(), new JsonParser());
+            this.notifications = new ArrayList<>(notifications);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T extends HubResponse> List<T> getResponses(final HubPathMultipleResponses<T> hubPathMultipleResponses, final Request.Builder requestBuilder, final boolean getAll) throws IntegrationException {
+            final Map<String, Set<String>> queryParameters = requestBuilder.build().getQueryParameters();
+            final Date startDate = parseDate(queryParameters.get("startDate").iterator().next());
+            final Date endDate = parseDate(queryParameters.get("endDate").iterator().next());
+            final int offset = Integer.parseInt(queryParameters.get("offset").iterator().next());
+            final int limit = Integer.parseInt(queryParameters.get("limit").iterator().next());
+            if (requestedOffsets.size() == 1) {
+                for (int i = 0; i < addedAfterFirstPage; i++) {
+                    final NotificationView added = new NotificationView();
+                    added.createdAt = new Date(NOW + (i + 1) * 1000L);
+                    added._meta = new ResourceMetadata();
+                    added._meta.href = "http://hub/api/notifications/added" + i;
+                    notifications.add(0, added);
+                }
+            }
+            requestedOffsets.add(offset);
+
+            final List<NotificationView> inRange = notifications.stream()
+                    .filter(notificationView -> !notificationView.createdAt.before(startDate) && notificationView.createdAt.before(endDate))
+                    .collect(Collectors.toList());
+            return (List<T>) new ArrayList<>(inRange.subList(Math.min(offset, inRange.size()), Math.min(offset + limit, inRange.size())));
+        }
+
+        private Date parseDate(final String date) {
+            final SimpleDateFormat sdf = new SimpleDateFormat(RestConstants.JSON_DATE_FORMAT);
+            sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
+            try {
+                return sdf.parse(date);
+            } catch (final ParseException e) {
+                throw new IllegalArgumentException(e);
+            }
+        }
+    }
+
+}
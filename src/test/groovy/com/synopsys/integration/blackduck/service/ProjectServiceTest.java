@@ -0,0 +1,110 @@
+package com.synopsys.integration.blackduck.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.synopsys.integration.blackduck.api.generated.response.AssignedUserGroupView;
+import com.synopsys.integration.blackduck.api.generated.view.AssignedUserView;
+import com.synopsys.integration.blackduck.api.generated.view.ProjectView;
+import com.synopsys.integration.blackduck.api.generated.view.UserGroupView;
+import com.synopsys.integration.blackduck.api.generated.view.UserView;
+import com.synopsys.integration.exception.IntegrationException;
+import com.synopsys.integration.log.LogLevel;
+import com.synopsys.integration.log.PrintStreamIntLogger;
+
+public class ProjectServiceTest {
+    private final Executor directExecutor = Runnable::run;
+
+    @Test
+    public void testAsyncActiveUsersMatchTheSequentialOnes() throws IntegrationException {
+        final HubService hubService = Mockito.mock(HubService.class);
+        final ProjectView projectView = new ProjectView();
+
+        final UserView groupMember = createUserView(true);
+        final UserView inactiveGroupMember = createUserView(false);
+        final UserView assignedUser = createUserView(true);
+        final UserView inactiveAssignedUser = createUserView(false);
+
+        final AssignedUserGroupView activeGroup = createAssignedGroup("activeGroup", true);
+        final AssignedUserGroupView inactiveAssignment = createAssignedGroup("inactiveAssignment", false);
+        final AssignedUserGroupView inactiveGroup = createAssignedGroup("inactiveGroup", true);
+        final UserGroupView activeUserGroupView = createUserGroupView(true);
+        final UserGroupView inactiveUserGroupView = createUserGroupView(false);
+
+        Mockito.when(hubService.getAllResponses(projectView, ProjectView.USERGROUPS_LINK_RESPONSE)).thenReturn(Arrays.asList(activeGroup, inactiveAssignment, inactiveGroup));
+        Mockito.when(hubService.getResponse("activeGroup", UserGroupView.class)).thenReturn(activeUserGroupView);
+        Mockito.when(hubService.getResponse("inactiveGroup", UserGroupView.class)).thenReturn(inactiveUserGroupView);
+        Mockito.when(hubService.getAllResponses(activeUserGroupView, UserGroupView.USERS_LINK_RESPONSE)).thenReturn(Arrays.asList(groupMember, inactiveGroupMember));
+        Mockito.when(hubService.getAllResponses(projectView, ProjectView.USERS_LINK_RESPONSE)).thenReturn(Arrays.asList(createAssignedUser("assignedUser"), createAssignedUser("inactiveAssignedUser")));
+        Mockito.when(hubService.getResponse("assignedUser", UserView.class)).thenReturn(assignedUser);
+        Mockito.when(hubService.getResponse("inactiveAssignedUser", UserView.class)).thenReturn(inactiveAssignedUser);
+
+        final Set<UserView> expected = new HashSet<>(Arrays.asList(groupMember, assignedUser));
+        assertEquals(expected, createProjectService(hubService).getAllActiveUsersForProject(projectView));
+        assertEquals(expected, createAsyncProjectService(hubService).getAllActiveUsersForProject(projectView));
+        Mockito.verify(hubService, Mockito.never()).getAllResponses(inactiveUserGroupView, UserGroupView.USERS_LINK_RESPONSE);
+        Mockito.verify(hubService, Mockito.never()).getResponse("inactiveAssignment", UserGroupView.class);
+    }
+
+    @Test
+    public void testAsyncFanOutRethrowsTheIntegrationException() throws IntegrationException {
+        final HubService hubService = Mockito.mock(HubService.class);
+        final ProjectView projectView = new ProjectView();
+        final IntegrationException failure = new IntegrationException("user is gone");
+
+        Mockito.when(hubService.getAllResponses(projectView, ProjectView.USERGROUPS_LINK_RESPONSE)).thenReturn(Collections.emptyList());
+        Mockito.when(hubService.getAllResponses(projectView, ProjectView.USERS_LINK_RESPONSE)).thenReturn(Arrays.asList(createAssignedUser("assignedUser")));
+        Mockito.when(hubService.getResponse("assignedUser", UserView.class)).thenThrow(failure);
+
+        try {
+            createAsyncProjectService(hubService).getAllActiveUsersForProject(projectView);
+            fail("The failure of the fan out should have been rethrown");
+        } catch (final IntegrationException e) {
+            assertSame(failure, e);
+        }
+    }
+
+    private ProjectService createProjectService(final HubService hubService) {
+        return new ProjectService(hubService, new PrintStreamIntLogger(System.out, LogLevel.INFO), null, null, null);
+    }
+
+    private ProjectService createAsyncProjectService(final HubService hubService) {
+        return new ProjectService(hubService, new PrintStreamIntLogger(System.out, LogLevel.INFO), null, null, null, new AsyncHubService(hubService, directExecutor, 2));
+    }
+
+    private UserView createUserView(final boolean active) {
+        final UserView userView = new UserView();
+        userView.active = active;
+        return userView;
+    }
+
+    private UserGroupView createUserGroupView(final boolean active) {
+        final UserGroupView userGroupView = new UserGroupView();
+        userGroupView.active = active;
+        return userGroupView;
+    }
+
+    private AssignedUserGroupView createAssignedGroup(final String group, final boolean active) {
+        final AssignedUserGroupView assignedUserGroupView = new AssignedUserGroupView();
+        assignedUserGroupView.group = group;
+        assignedUserGroupView.active = active;
+        return assignedUserGroupView;
+    }
+
+    private AssignedUserView createAssignedUser(final String user) {
+        final AssignedUserView assignedUserView = new AssignedUserView();
+        assignedUserView.user = user;
+        return assignedUserView;
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.synopsys.integration.blackduck.service.bucket;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.synopsys.integration.blackduck.api.core.HubResponse;
+import com.synopsys.integration.blackduck.api.core.HubView;
+import com.synopsys.integration.blackduck.api.core.LinkMultipleResponses;
+import com.synopsys.integration.blackduck.api.core.LinkSingleResponse;
+import com.synopsys.integration.blackduck.api.generated.view.NotificationView;
+import com.synopsys.integration.blackduck.api.generated.view.ProjectView;
+
+public class HubBucketPrefetchPlanTest {
+    @Test
+    public void testLinksAreFollowedFromMatchingViews() {
+        final HubBucketPrefetchPlan prefetchPlan = new HubBucketPrefetchPlan.Builder()
+                                                           .follow(ProjectView.class, "canonicalVersion", ProjectView.class)
+                                                           .follow(HubView.class, "owner", ProjectView.class)
+                                                           .maxDepth(1)
+                                                           .build();
+
+        final List<LinkSingleResponse<? extends HubResponse>> linksToFollow = prefetchPlan.getLinksToFollow(new ProjectView());
+        assertEquals(2, linksToFollow.size());
+        assertEquals("canonicalVersion", linksToFollow.get(0).link);
+        assertEquals("owner", linksToFollow.get(1).link);
+        assertEquals(1, prefetchPlan.getMaxDepth());
+        assertTrue(prefetchPlan.getCollectionLinksToFollow(new ProjectView()).isEmpty());
+        assertTrue(new HubBucketPrefetchPlan.Builder().build().isEmpty());
+    }
+
+    @Test
+    public void testCollectionLinksAreFollowedFromMatchingViews() {
+        final HubBucketPrefetchPlan prefetchPlan = new HubBucketPrefetchPlan.Builder()
+                                                           .followAll(ProjectView.class, "components", ProjectView.class)
+                                                           .followAll(NotificationView.class, new LinkMultipleResponses<>("versions", ProjectView.class))
+                                                           .build();
+
+        final List<LinkMultipleResponses<? extends HubResponse>> collectionLinksToFollow = prefetchPlan.getCollectionLinksToFollow(new ProjectView());
+        assertEquals(1, collectionLinksToFollow.size());
+        assertEquals("components", collectionLinksToFollow.get(0).link);
+        assertEquals(ProjectView.class, collectionLinksToFollow.get(0).responseClass);
+        assertTrue(prefetchPlan.getLinksToFollow(new ProjectView()).isEmpty());
+        assertFalse(prefetchPlan.isEmpty());
+    }
+
+}
@@ -0,0 +1,177 @@
+package com.synopsys.integration.blackduck.service.bucket;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Test;
+
+import com.synopsys.integration.blackduck.api.UriSingleResponse;
+import com.synopsys.integration.blackduck.api.core.HubResponse;
+import com.synopsys.integration.blackduck.api.generated.view.ProjectView;
+import com.synopsys.integration.blackduck.service.model.JsonRetention;
+
+public class HubBucketTest {
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        final HubBucket hubBucket = new HubBucket.Builder().maxEntries(2).build();
+        hubBucket.addValid("uri1", new ProjectView());
+        hubBucket.addValid("uri2", new ProjectView());
+        assertNotNull(hubBucket.get("uri1"));
+
+        hubBucket.addValid("uri3", new ProjectView());
+
+        assertEquals(2, hubBucket.size());
+        assertTrue(hubBucket.contains("uri1"));
+        assertFalse(hubBucket.contains("uri2"));
+        assertTrue(hubBucket.contains("uri3"));
+        assertEquals(1, hubBucket.getStatistics().getEvictionCount());
+    }
+
+    @Test
+    public void testMaxWeight() {
+        final HubBucket hubBucket = new HubBucket.Builder().maxWeight(10).build();
+        hubBucket.addValid("uri1", createProjectView("{\"a\":1}"));
+        hubBucket.addValid("uri2", createProjectView("{\"b\":2}"));
+
+        assertEquals(1, hubBucket.size());
+        assertEquals(7, hubBucket.getTotalWeight());
+        assertTrue(hubBucket.contains("uri2"));
+    }
+
+    @Test
+    public void testCompressedJsonIsWeighedByItsCompressedLength() {
+        final String json = "{\"name\":\"" + String.join("", Collections.nCopies(1000, "a")) + "\"}";
+        final ProjectView projectView = new ProjectView();
+        JsonRetention.COMPRESS.retain(projectView, json);
+
+        final long weight = HubBucket.weighByJsonLength(new HubBucketItem<>("uri", projectView));
+        assertTrue(weight > 1);
+        assertTrue(weight < json.length());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDiscardedJsonCanNotBeWeighed() {
+        final ProjectView projectView = new ProjectView();
+        JsonRetention.DISCARD.retain(projectView, "{\"a\":1}");
+        new HubBucket.Builder().maxWeight(10).build().addValid("uri", projectView);
+    }
+
+    @Test
+    public void testAnItemThatCanNotBeWeighedStillCompletesItsLoading() throws Exception {
+        final HubBucket hubBucket = new HubBucket.Builder().maxWeight(10).build();
+        final ProjectView projectView = new ProjectView();
+        JsonRetention.DISCARD.retain(projectView, "{\"a\":1}");
+        assertTrue(hubBucket.startLoading("uri"));
+        final CompletableFuture<HubBucketItem<HubResponse>> loading = hubBucket.getFuture("uri").get();
+
+        try {
+            hubBucket.addValid("uri", projectView);
+            fail("The item should not have been weighed");
+        } catch (final IllegalStateException e) {
+            // expected
+        }
+
+        assertSame(projectView, loading.get(1, TimeUnit.MILLISECONDS).getHubResponse().get());
+        assertFalse(hubBucket.isLoading("uri"));
+        assertFalse(hubBucket.contains("uri"));
+        assertTrue(hubBucket.startLoading("uri"));
+    }
+
+    @Test
+    public void testLargeBoundedBucketKeepsItsBounds() {
+        final HubBucket hubBucket = new HubBucket.Builder().maxEntries(1024).build();
+        for (int i = 0; i < 5000; i++) {
+            hubBucket.addValid("uri" + i, new ProjectView());
+        }
+        assertTrue(hubBucket.size() <= 1024);
+        assertTrue(hubBucket.contains("uri4999"));
+        assertEquals(5000 - hubBucket.size(), hubBucket.getStatistics().getEvictionCount());
+    }
+
+    @Test
+    public void testErrorsExpireSoonerThanValidResponses() {
+        final HubBucket hubBucket = new HubBucket.Builder().validTimeToLiveMillis(60000).errorTimeToLiveMillis(1000).build();
+        final long aWhileAgo = System.currentTimeMillis() - 5000;
+        hubBucket.put(new HubBucketItem<>("valid", new ProjectView(), aWhileAgo));
+        hubBucket.put(new HubBucketItem<>("error", new Exception("unavailable"), aWhileAgo));
+
+        assertTrue(hubBucket.getResponse("valid").isPresent());
+        assertFalse(hubBucket.getError("error").isPresent());
+        assertNull(hubBucket.get("error"));
+        assertEquals(1, hubBucket.size());
+        assertEquals(1, hubBucket.getStatistics().getExpirationCount());
+    }
+
+    @Test
+    public void testStatistics() {
+        final HubBucket hubBucket = new HubBucket();
+        hubBucket.addValid("uri", new ProjectView());
+        assertNotNull(hubBucket.get("uri", ProjectView.class));
+        assertNull(hubBucket.get("missing"));
+
+        assertEquals(1, hubBucket.getStatistics().getHitCount());
+        assertEquals(1, hubBucket.getStatistics().getMissCount());
+        assertEquals(0.5, hubBucket.getStatistics().getHitRate(), 0.0);
+    }
+
+    @Test
+    public void testLoadingUrisAreOnlyStartedOnceAndCanBeAwaited() throws Exception {
+        final HubBucket hubBucket = new HubBucket();
+        assertTrue(hubBucket.startLoading("uri"));
+        assertFalse(hubBucket.startLoading("uri"));
+        assertTrue(hubBucket.isLoading("uri"));
+        assertFalse(hubBucket.contains("uri"));
+
+        final ProjectView projectView = new ProjectView();
+        final Thread loader = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            hubBucket.addValid("uri", projectView);
+        });
+        loader.start();
+
+        final Optional<ProjectView> awaited = hubBucket.await(new UriSingleResponse<>("uri", ProjectView.class), 10, TimeUnit.SECONDS);
+        assertSame(projectView, awaited.get());
+        assertFalse(hubBucket.isLoading("uri"));
+        assertFalse(hubBucket.startLoading("uri"));
+        loader.join();
+    }
+
+    @Test
+    public void testAwait() throws Exception {
+        final HubBucket hubBucket = new HubBucket();
+        assertFalse(hubBucket.await("unknown", 1, TimeUnit.MILLISECONDS).isPresent());
+
+        hubBucket.startLoading("slow");
+        try {
+            hubBucket.await("slow", 10, TimeUnit.MILLISECONDS);
+            fail("Expected a timeout");
+        } catch (final TimeoutException e) {
+            // expected
+        }
+
+        hubBucket.addError("slow", new Exception("unavailable"));
+        assertTrue(hubBucket.await("slow", 1, TimeUnit.MILLISECONDS).get().hasException());
+    }
+
+    private ProjectView createProjectView(final String json) {
+        final ProjectView projectView = new ProjectView();
+        projectView.json = json;
+        return projectView;
+    }
+
+}
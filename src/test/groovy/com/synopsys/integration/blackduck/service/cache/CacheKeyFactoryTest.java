@@ -0,0 +1,35 @@
+package com.synopsys.integration.blackduck.service.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Test;
+
+import com.synopsys.integration.rest.request.Request;
+
+public class CacheKeyFactoryTest {
+    private static final String URI = "https://hub/api/projects";
+
+    @Test
+    public void testQueryParameterOrderDoesNotMatter() {
+        final Request first = new Request.Builder(URI).addQueryParameter("limit", "10").addQueryParameter("q", "name:a").build();
+        final Request second = new Request.Builder(URI).addQueryParameter("q", "name:a").addQueryParameter("limit", "10").build();
+        assertEquals(CacheKeyFactory.createKey(first), CacheKeyFactory.createKey(second));
+    }
+
+    @Test
+    public void testQueryAndAcceptAreKeyed() {
+        final String plain = CacheKeyFactory.createKey(new Request.Builder(URI).build());
+        assertNotEquals(plain, CacheKeyFactory.createKey(new Request.Builder(URI).addQueryParameter("q", "name:a").build()));
+        assertNotEquals(plain, CacheKeyFactory.createKey(new Request.Builder(URI).mimeType("application/vnd.blackducksoftware.bill-of-materials-4+json").build()));
+        assertNotEquals(plain, CacheKeyFactory.createKey(new Request.Builder(URI).addAdditionalHeader("X-Custom", "1").build()));
+    }
+
+    @Test
+    public void testConditionalAndEncodingHeadersAreNotKeyed() {
+        final String plain = CacheKeyFactory.createKey(new Request.Builder(URI).build());
+        final Request conditional = new Request.Builder(URI).addAdditionalHeader("If-None-Match", "\"etag\"").addAdditionalHeader("Accept-Encoding", "gzip").build();
+        assertEquals(plain, CacheKeyFactory.createKey(conditional));
+    }
+
+}
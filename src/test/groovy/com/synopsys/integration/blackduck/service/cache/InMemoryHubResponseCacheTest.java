@@ -0,0 +1,48 @@
+package com.synopsys.integration.blackduck.service.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class InMemoryHubResponseCacheTest {
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        final InMemoryHubResponseCache cache = new InMemoryHubResponseCache(2, 60000);
+        cache.put("uri1", new CachedHubResponse("{}", "\"1\"", null));
+        cache.put("uri2", new CachedHubResponse("{}", "\"2\"", null));
+        assertTrue(cache.get("uri1").isPresent());
+
+        cache.put("uri3", new CachedHubResponse("{}", "\"3\"", null));
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.get("uri1").isPresent());
+        assertFalse(cache.get("uri2").isPresent());
+        assertTrue(cache.get("uri3").isPresent());
+        assertEquals(1, cache.getStatistics().getEvictionCount());
+    }
+
+    @Test
+    public void testExpiredEntriesAreNotReturned() {
+        final InMemoryHubResponseCache cache = new InMemoryHubResponseCache(10, 1000);
+        final long longAgo = System.currentTimeMillis() - 5000;
+        cache.put("stale", new CachedHubResponse("{}", "\"1\"", null, longAgo));
+        cache.put("fresh", new CachedHubResponse("{}", "\"2\"", null));
+
+        assertFalse(cache.get("stale").isPresent());
+        assertTrue(cache.get("fresh").isPresent());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testRevalidatedResponseIsFresh() {
+        final InMemoryHubResponseCache cache = new InMemoryHubResponseCache(10, 1000);
+        final CachedHubResponse stale = new CachedHubResponse("{}", null, "Wed, 21 Oct 2015 07:28:00 GMT", System.currentTimeMillis() - 5000);
+        cache.put("uri", stale.revalidated());
+
+        assertTrue(cache.get("uri").isPresent());
+        assertEquals("Wed, 21 Oct 2015 07:28:00 GMT", cache.get("uri").get().getLastModified());
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.synopsys.integration.blackduck.service.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SegmentFileStoreTest {
+    private File directory;
+
+    @Before
+    public void createDirectory() throws Exception {
+        directory = Files.createTempDirectory("segment_store").toFile();
+    }
+
+    @After
+    public void deleteDirectory() throws Exception {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Test
+    public void testValuesSurviveReopening() throws Exception {
+        final File file = new File(directory, "test.store");
+        try (SegmentFileStore store = new SegmentFileStore(file, 1024 * 1024)) {
+            store.put("uri1", "{\"name\":\"first\"}");
+            store.put("uri2", "{\"name\":\"second\"}");
+            store.put("uri1", "{\"name\":\"replaced \u00e9\"}");
+            store.remove("uri2");
+        }
+
+        try (SegmentFileStore store = new SegmentFileStore(file, 1024 * 1024)) {
+            assertEquals(1, store.size());
+            assertEquals("{\"name\":\"replaced \u00e9\"}", store.get("uri1").get());
+            assertFalse(store.get("uri2").isPresent());
+        }
+    }
+
+    @Test
+    public void testTruncatedRecordIsDropped() throws Exception {
+        final File file = new File(directory, "test.store");
+        try (SegmentFileStore store = new SegmentFileStore(file, 1024 * 1024)) {
+            store.put("uri1", "first");
+            store.put("uri2", "second");
+        }
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(randomAccessFile.length() - 3);
+        }
+
+        try (SegmentFileStore store = new SegmentFileStore(file, 1024 * 1024)) {
+            assertEquals("first", store.get("uri1").get());
+            assertFalse(store.contains("uri2"));
+            store.put("uri3", "third");
+        }
+        try (SegmentFileStore store = new SegmentFileStore(file, 1024 * 1024)) {
+            assertEquals("third", store.get("uri3").get());
+        }
+    }
+
+    @Test
+    public void testCompactionStaysWithinMaxBytes() throws Exception {
+        final File file = new File(directory, "test.store");
+        final String value = String.format("%0100d", 0);
+        try (SegmentFileStore store = new SegmentFileStore(file, 2000)) {
+            for (int i = 0; i < 100; i++) {
+                store.put("uri" + i, value);
+                assertTrue(store.getFileLength() <= 2000);
+            }
+            assertTrue(store.getDroppedCount() > 0);
+            // the newest values are kept
+            assertEquals(value, store.get("uri99").get());
+            assertFalse(store.contains("uri0"));
+        }
+    }
+
+    @Test
+    public void testLockedAndClosedStoresFailWithIOException() throws Exception {
+        final File file = new File(directory, "test.store");
+        final SegmentFileStore store = new SegmentFileStore(file, 1024 * 1024);
+        try {
+            new SegmentFileStore(file, 1024 * 1024);
+            fail("Expected the file to be locked");
+        } catch (final IOException e) {
+            // expected
+        }
+
+        store.close();
+        assertFalse(store.isOpen());
+        try {
+            store.get("uri");
+            fail("Expected the closed store to fail");
+        } catch (final IOException e) {
+            // expected
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.synopsys.integration.blackduck.service.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class HistogramTest {
+    @Test
+    public void testSmallValuesAreExact() {
+        final Histogram histogram = new Histogram();
+        for (int i = 1; i <= 50; i++) {
+            histogram.record(i);
+        }
+        assertEquals(50, histogram.getCount());
+        assertEquals(25, histogram.getValueAtPercentile(50.0));
+        assertEquals(50, histogram.getValueAtPercentile(100.0));
+        assertEquals(25.5, histogram.getMean(), 0.001);
+    }
+
+    @Test
+    public void testLargeValuesAreWithinPrecision() {
+        final Histogram histogram = new Histogram();
+        for (long value = 1000; value <= 1000000; value += 1000) {
+            histogram.record(value);
+        }
+        final long p90 = histogram.getValueAtPercentile(90.0);
+        assertTrue("p90 was " + p90, Math.abs(p90 - 900000) <= 900000 * 0.04);
+        assertEquals(1000000, histogram.getValueAtPercentile(100.0));
+    }
+
+    @Test
+    public void testEveryIndexRoundTrips() {
+        for (long value = 0; value < 5000000; value = value * 3 / 2 + 1) {
+            final int index = Histogram.indexOf(value);
+            assertTrue(value <= Histogram.highestValueAt(index));
+            if (index > 0) {
+                assertTrue(value > Histogram.highestValueAt(index - 1));
+            }
+        }
+        Histogram.indexOf(Long.MAX_VALUE);
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.synopsys.integration.blackduck.service.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+public class HubMetricsRegistryTest {
+    @Test
+    public void testEndpointTemplates() {
+        assertEquals("/api/projects", HubMetricsRegistry.toEndpointTemplate("https://hub.example.com/api/projects?limit=100&offset=0"));
+        assertEquals("/api/projects/{id}/versions/{id}/components",
+                HubMetricsRegistry.toEndpointTemplate("https://hub.example.com:8443/api/projects/3f6a2c1e-1d2b-4b0e-9c3a-0123456789ab/versions/9c1e2d3f-4a5b-6c7d-8e9f-0a1b2c3d4e5f/components"));
+        assertEquals("/api/codelocations/{id}/scan-summaries", HubMetricsRegistry.toEndpointTemplate("/api/codelocations/1234/scan-summaries"));
+        assertEquals("/api/components/{id}/versions/", HubMetricsRegistry.toEndpointTemplate("http://hub/api/components/0123456789abcdef0123/versions/"));
+        assertEquals("/api/feed", HubMetricsRegistry.toEndpointTemplate("/api/feed"));
+        assertEquals("/", HubMetricsRegistry.toEndpointTemplate("https://hub.example.com"));
+    }
+
+    @Test
+    public void testMetricsAreSharedPerTemplateAndVisibleThroughJmx() throws Exception {
+        final HubMetricsRegistry registry = new HubMetricsRegistry();
+        final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        registry.registerWithJmx(mBeanServer, "test.hub.metrics");
+        try {
+            registry.getEndpointMetricsForUri("https://hub/api/projects/1/versions").recordRequest(2000000L, true);
+            registry.getEndpointMetricsForUri("https://hub/api/projects/2/versions").recordRequest(4000000L, false);
+
+            final EndpointMetrics metrics = registry.getEndpointMetrics("/api/projects/{id}/versions");
+            assertEquals(2, metrics.getRequestCount());
+            assertEquals(1, metrics.getErrorCount());
+            assertEquals(1, registry.getAllEndpointMetrics().size());
+
+            final ObjectName objectName = new ObjectName("test.hub.metrics:type=HubEndpoint,name=" + ObjectName.quote("/api/projects/{id}/versions"));
+            assertTrue(mBeanServer.isRegistered(objectName));
+            assertEquals(2L, mBeanServer.getAttribute(objectName, "RequestCount"));
+        } finally {
+            registry.unregisterFromJmx();
+        }
+    }
+
+    @Test
+    public void testUtf8Length() {
+        assertEquals(0, EndpointMetrics.utf8Length(""));
+        assertEquals("a\u00e9\u20ac\ud83d\ude00".getBytes(StandardCharsets.UTF_8).length, EndpointMetrics.utf8Length("a\u00e9\u20ac\ud83d\ude00"));
+    }
+
+}
@@ -0,0 +1,126 @@
+package com.synopsys.integration.blackduck.service.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class AdaptiveConcurrencyLimiterTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    public void testLimitGrowsWhileSaturatedAndShrinksOnDrops() throws Exception {
+        final AtomicLong clock = new AtomicLong();
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, AdaptiveConcurrencyLimiter.DEFAULT_BACKOFF_RATIO, 1000L, AdaptiveConcurrencyLimiter.DEFAULT_LATENCY_TOLERANCE, clock::get);
+        for (int round = 0; round < 100; round++) {
+            final int limit = limiter.getLimit();
+            for (int i = 0; i < limit; i++) {
+                limiter.acquire();
+            }
+            for (int i = 0; i < limit; i++) {
+                limiter.release(FAST, AdaptiveConcurrencyLimiter.Outcome.SUCCESS);
+            }
+        }
+        assertEquals(10, limiter.getLimit());
+
+        for (int i = 0; i < 100; i++) {
+            clock.addAndGet(FAST);
+            limiter.acquire();
+            limiter.release(FAST, AdaptiveConcurrencyLimiter.Outcome.DROPPED);
+        }
+        assertEquals(1, limiter.getLimit());
+        assertEquals(100, limiter.getDropCount());
+    }
+
+    @Test
+    public void testIncreaseIsAdditivePerWindow() throws Exception {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 10);
+        for (int i = 0; i < 4; i++) {
+            limiter.acquire();
+        }
+        for (int i = 0; i < 4; i++) {
+            limiter.release(FAST, AdaptiveConcurrencyLimiter.Outcome.SUCCESS);
+        }
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    public void testDropsDecreaseOncePerLatencyWindow() throws Exception {
+        final AtomicLong clock = new AtomicLong();
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 1, 10, 0.5, 1000L, 2.0, clock::get);
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire();
+            limiter.release(FAST, AdaptiveConcurrencyLimiter.Outcome.DROPPED);
+        }
+        assertEquals(4, limiter.getLimit());
+        assertEquals(5, limiter.getDropCount());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        limiter.acquire();
+        limiter.release(FAST, AdaptiveConcurrencyLimiter.Outcome.DROPPED);
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    public void testSlowResponsesShrinkTheLimit() throws Exception {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 1, 10, 0.5, 1000L, 2.0);
+        limiter.acquire();
+        limiter.release(TimeUnit.SECONDS.toNanos(2), AdaptiveConcurrencyLimiter.Outcome.SUCCESS);
+        assertEquals(4, limiter.getLimit());
+        assertEquals(1, limiter.getSlowResponseCount());
+
+        limiter.acquire();
+        limiter.release(FAST, AdaptiveConcurrencyLimiter.Outcome.IGNORED);
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    public void testByDefaultOnlyTheToleranceMakesAResponseSlow() throws Exception {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 1, 10);
+        limiter.acquire();
+        limiter.release(TimeUnit.SECONDS.toNanos(10), AdaptiveConcurrencyLimiter.Outcome.SUCCESS);
+        assertEquals(8, limiter.getLimit());
+
+        final AdaptiveConcurrencyLimiter warmedUpLimiter = new AdaptiveConcurrencyLimiter(8, 1, 10);
+        for (int i = 0; i < 20; i++) {
+            warmedUpLimiter.acquire();
+            warmedUpLimiter.release(FAST, AdaptiveConcurrencyLimiter.Outcome.SUCCESS);
+        }
+        warmedUpLimiter.acquire();
+        warmedUpLimiter.release(3 * FAST, AdaptiveConcurrencyLimiter.Outcome.SUCCESS);
+        assertEquals(7, warmedUpLimiter.getLimit());
+        assertEquals(1, warmedUpLimiter.getSlowResponseCount());
+    }
+
+    @Test
+    public void testCallersOverTheLimitWait() throws Exception {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1);
+        limiter.acquire();
+
+        final CountDownLatch acquired = new CountDownLatch(1);
+        final Thread waiter = new Thread(() -> {
+            try {
+                limiter.acquire();
+                acquired.countDown();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiter.start();
+        while (limiter.getQueueDepth() < 1) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, limiter.getInFlight());
+
+        limiter.release(FAST, AdaptiveConcurrencyLimiter.Outcome.SUCCESS);
+        assertTrue(acquired.await(10, TimeUnit.SECONDS));
+        assertEquals(0, limiter.getQueueDepth());
+        assertEquals(1, limiter.getInFlight());
+        waiter.join();
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.synopsys.integration.blackduck.service.model;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class AdaptivePageSizerTest {
+    private static final String PROJECTS = "https://hub.example.com/api/projects?limit=100&offset=0";
+    private static final String VERSIONS = "https://hub.example.com/api/projects/1234/versions";
+
+    @Test
+    public void testSmallFastItemsGrowThePage() {
+        final AdaptivePageSizer pageSizer = new AdaptivePageSizer();
+        assertEquals(RequestFactory.DEFAULT_LIMIT, pageSizer.getLimitForUri(PROJECTS));
+
+        pageSizer.recordPageForUri(PROJECTS, 100, 100 * 200, TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(200, pageSizer.getLimitForUri(PROJECTS));
+        pageSizer.recordPageForUri(PROJECTS, 200, 200 * 200, TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(400, pageSizer.getLimitForUri(PROJECTS));
+        pageSizer.recordPageForUri(PROJECTS, 400, 400 * 200, TimeUnit.MILLISECONDS.toNanos(200));
+        assertEquals(AdaptivePageSizer.DEFAULT_MAX_LIMIT, pageSizer.getLimitForUri(PROJECTS));
+
+        // other endpoints are not affected
+        assertEquals(RequestFactory.DEFAULT_LIMIT, pageSizer.getLimitForUri(VERSIONS));
+    }
+
+    @Test
+    public void testHeavyItemsShrinkThePage() {
+        final AdaptivePageSizer pageSizer = new AdaptivePageSizer();
+        // 50KB per item, so about 20 items fit in the target bytes
+        pageSizer.recordPageForUri(VERSIONS, 100, 100 * 50 * 1024, TimeUnit.MILLISECONDS.toNanos(300));
+        assertEquals(50, pageSizer.getLimitForUri(VERSIONS));
+        pageSizer.recordPageForUri(VERSIONS, 50, 50 * 50 * 1024, TimeUnit.MILLISECONDS.toNanos(150));
+        assertEquals(AdaptivePageSizer.DEFAULT_MIN_LIMIT, pageSizer.getLimitForUri(VERSIONS));
+        // the templated endpoint is shared by every project
+        assertEquals(AdaptivePageSizer.DEFAULT_MIN_LIMIT, pageSizer.getLimitForUri("https://hub.example.com/api/projects/5678/versions"));
+    }
+
+    @Test
+    public void testSlowPagesShrinkThePage() {
+        final AdaptivePageSizer pageSizer = new AdaptivePageSizer(10, 200);
+        pageSizer.recordPageForUri(PROJECTS, 100, 100 * 100, TimeUnit.MILLISECONDS.toNanos(4000));
+        assertEquals(50, pageSizer.getLimitForUri(PROJECTS));
+        pageSizer.recordPage("/api/projects", 0, 0, 0);
+        assertEquals(50, pageSizer.getLimitForUri(PROJECTS));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBounds() {
+        new AdaptivePageSizer(100, 50);
+    }
+
+}
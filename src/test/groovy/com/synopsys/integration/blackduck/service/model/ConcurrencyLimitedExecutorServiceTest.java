@@ -0,0 +1,67 @@
+package com.synopsys.integration.blackduck.service.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class ConcurrencyLimitedExecutorServiceTest {
+    @Test
+    public void testConcurrencyIsCapped() throws Exception {
+        final ConcurrencyLimitedExecutorService executorService = new ConcurrencyLimitedExecutorService(Executors.newCachedThreadPool(), 3);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        try {
+            final List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                final int index = i;
+                futures.add(executorService.submit(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    release.await(10, TimeUnit.SECONDS);
+                    running.decrementAndGet();
+                    return index;
+                }));
+            }
+            while (executorService.getWaitingCount() < 7) {
+                Thread.sleep(5);
+            }
+            assertEquals(3, executorService.getRunningCount());
+            release.countDown();
+
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals(Integer.valueOf(i), futures.get(i).get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(3, maxRunning.get());
+            // the permit is released just after the future completes
+            while (executorService.getRunningCount() > 0) {
+                Thread.sleep(5);
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSharedExecutorServiceRunsTasks() throws Exception {
+        final ExecutorService executorService = HubExecutors.createSharedExecutorService(2);
+        try {
+            assertEquals("done", executorService.submit(() -> "done").get(10, TimeUnit.SECONDS));
+            if (HubExecutors.isVirtualThreadSupported()) {
+                assertTrue(executorService instanceof ConcurrencyLimitedExecutorService);
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.synopsys.integration.blackduck.service.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.synopsys.integration.blackduck.api.core.ResourceMetadata;
+import com.synopsys.integration.blackduck.api.generated.view.ProjectView;
+
+public class DistinctHubResponsesTest {
+    @Test
+    public void testKeepsTheFirstCopyOfEachHref() {
+        final DistinctHubResponses<ProjectView> distinctResponses = new DistinctHubResponses<>();
+        final ProjectView first = createView("https://hub.example.com/api/notifications/1");
+        final ProjectView second = createView("https://hub.example.com/api/notifications/2");
+        final ProjectView secondAgain = createView("https://hub.example.com/api/notifications/2");
+
+        assertEquals(2, distinctResponses.addAll(Arrays.asList(first, second)));
+        // a page that overlaps the previous one
+        assertEquals(0, distinctResponses.addAll(Arrays.asList(secondAgain)));
+        assertTrue(distinctResponses.contains(secondAgain));
+        assertEquals(Arrays.asList(first, second), distinctResponses.getResponses());
+    }
+
+    @Test
+    public void testKeepsResponsesWithoutAnHref() {
+        final DistinctHubResponses<ProjectView> distinctResponses = new DistinctHubResponses<>();
+        final ProjectView noMeta = new ProjectView();
+        assertTrue(distinctResponses.add(noMeta));
+        assertTrue(distinctResponses.add(noMeta));
+        assertFalse(distinctResponses.contains(noMeta));
+        assertEquals(2, distinctResponses.size());
+    }
+
+    private ProjectView createView(final String href) {
+        final ProjectView hubView = new ProjectView();
+        hubView._meta = new ResourceMetadata();
+        hubView._meta.href = href;
+        return hubView;
+    }
+
+}
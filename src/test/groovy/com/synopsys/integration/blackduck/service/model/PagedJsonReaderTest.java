@@ -0,0 +1,115 @@
+package com.synopsys.integration.blackduck.service.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.synopsys.integration.blackduck.exception.HubIntegrationException;
+
+public class PagedJsonReaderTest {
+    private final Gson gson = new Gson();
+
+    @Test
+    public void testItemsAreReadInPlace() throws Exception {
+        final String first = "{\"name\":\"a \\\"quoted\\\" [name]\",\"_meta\":{\"href\":\"http://hub/api/1\",\"links\":[]}}";
+        final String second = "{\"name\":\"b\",\"count\":3,\"flag\":true}";
+        final String json = "{ \"totalCount\" : 250, \"items\" : [ " + first + " ,\n" + second + " ], \"appliedFilters\": [{\"name\":\"x\"}], \"_meta\": {\"href\":\"http://hub/api\"} }";
+
+        final TypeAdapter<JsonElement> adapter = gson.getAdapter(JsonElement.class);
+        final List<JsonElement> items = new ArrayList<>();
+        final int totalCount = new PagedJsonReader(new StringReader(json)).read(jsonReader -> items.add(adapter.read(jsonReader)));
+
+        assertEquals(250, totalCount);
+        assertEquals(2, items.size());
+        assertEquals(new JsonParser().parse(first), items.get(0));
+        assertEquals(new JsonParser().parse(second), items.get(1));
+    }
+
+    @Test
+    public void testItemsAreBoundWithTheAdapterOfTheirClass() throws Exception {
+        final TypeAdapter<Item> adapter = gson.getAdapter(Item.class);
+        final List<Item> items = new ArrayList<>();
+        new PagedJsonReader(new StringReader("{\"items\":[{\"name\":\"a\",\"count\":1,\"ignored\":{\"x\":[1,2]}},{\"name\":\"b\",\"count\":2}]}")).read(jsonReader -> items.add(adapter.read(jsonReader)));
+
+        assertEquals(2, items.size());
+        assertEquals("a", items.get(0).name);
+        assertEquals(1, items.get(0).count);
+        assertEquals("b", items.get(1).name);
+        assertEquals(2, items.get(1).count);
+    }
+
+    @Test
+    public void testItemsBeforeTotalCount() throws Exception {
+        final List<JsonElement> items = readItems("{\"items\":[{\"a\":1}],\"totalCount\":1}");
+
+        assertEquals(1, items.size());
+    }
+
+    @Test
+    public void testMissingTotalCountUsesItemCount() throws Exception {
+        final TypeAdapter<JsonElement> adapter = gson.getAdapter(JsonElement.class);
+        final int totalCount = new PagedJsonReader(new StringReader("{\"items\":[{\"a\":1},{\"a\":2},{\"a\":3}]}")).read(adapter::read);
+
+        assertEquals(3, totalCount);
+    }
+
+    @Test
+    public void testEmptyPage() throws Exception {
+        final TypeAdapter<JsonElement> adapter = gson.getAdapter(JsonElement.class);
+        final int totalCount = new PagedJsonReader(new StringReader("{\"totalCount\":0,\"items\":[]}")).read(adapter::read);
+
+        assertEquals(0, totalCount);
+    }
+
+    @Test
+    public void testTruncatedContent() throws Exception {
+        try {
+            readItems("{\"totalCount\":2,\"items\":[{\"a\":\"b");
+            fail("Should have thrown a HubIntegrationException");
+        } catch (final HubIntegrationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testTotalCountThatIsNotANumber() throws Exception {
+        try {
+            readItems("{\"totalCount\":\"many\",\"items\":[]}");
+            fail("Should have thrown a HubIntegrationException");
+        } catch (final HubIntegrationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testRawValueIsCopiedTokenByToken() throws Exception {
+        final String first = "{\"name\":\"a \\\"quoted\\\" [name]\",\"id\":9007199254740993,\"ratio\":1.50,\"flag\":false,\"missing\":null,\"nested\":{\"list\":[1,{\"x\":[]},\"y\"]}}";
+        final List<String> texts = new ArrayList<>();
+        new PagedJsonReader(new StringReader("{\"items\":[ " + first + " , \"b\", 3 ],\"totalCount\":3}")).read(jsonReader -> texts.add(PagedJsonReader.readRawValue(jsonReader)));
+
+        assertEquals(Arrays.asList(first, "\"b\"", "3"), texts);
+    }
+
+    private List<JsonElement> readItems(final String json) throws Exception {
+        final TypeAdapter<JsonElement> adapter = gson.getAdapter(JsonElement.class);
+        final List<JsonElement> items = new ArrayList<>();
+        new PagedJsonReader(new StringReader(json)).read(jsonReader -> items.add(adapter.read(jsonReader)));
+        return items;
+    }
+
+    private static class Item {
+        private String name;
+        private int count;
+    }
+
+}
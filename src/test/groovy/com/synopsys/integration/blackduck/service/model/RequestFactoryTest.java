@@ -1,6 +1,7 @@
 package com.synopsys.integration.blackduck.service.model;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
@@ -28,4 +29,16 @@ public class RequestFactoryTest {
         assertTrue(filterParameters.contains("KEY1:value2"));
     }
 
+    @Test
+    public void testAcceptEncodingIsAddedToACopyOfTheRequest() {
+        final Request request = RequestFactory.createCommonGetRequest("http://www.url.com/api/something");
+        final Request encodedRequest = RequestFactory.addAcceptEncoding(request);
+
+        assertEquals(RequestFactory.ACCEPTED_CONTENT_ENCODINGS, encodedRequest.getAdditionalHeaders().get("Accept-Encoding"));
+        assertTrue(request.getAdditionalHeaders().isEmpty());
+
+        final Request identityRequest = new Request.Builder("http://www.url.com/api/something").addAdditionalHeader("Accept-Encoding", "identity").build();
+        assertSame(identityRequest, RequestFactory.addAcceptEncoding(identityRequest));
+    }
+
 }
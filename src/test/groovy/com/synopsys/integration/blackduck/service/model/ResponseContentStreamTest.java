@@ -0,0 +1,84 @@
+package com.synopsys.integration.blackduck.service.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+public class ResponseContentStreamTest {
+    private static final String JSON = createJson();
+
+    @Test
+    public void testGzipIsInflated() throws IOException {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(JSON.getBytes(StandardCharsets.UTF_8));
+        }
+        assertInflated(compressed.toByteArray(), "gzip");
+    }
+
+    @Test
+    public void testZlibAndRawDeflateAreInflated() throws IOException {
+        assertInflated(deflate(false), "deflate");
+        assertInflated(deflate(true), "Deflate");
+    }
+
+    @Test
+    public void testCharsetComesFromTheContentType() {
+        assertEquals(StandardCharsets.ISO_8859_1, ResponseContentStream.determineCharset("application/json; charset=ISO-8859-1"));
+        assertEquals(StandardCharsets.UTF_8, ResponseContentStream.determineCharset("application/json"));
+        assertEquals(StandardCharsets.UTF_8, ResponseContentStream.determineCharset("application/json; charset=unknown-charset"));
+        assertEquals(StandardCharsets.UTF_8, ResponseContentStream.determineCharset(null));
+    }
+
+    @Test
+    public void testUnencodedContentIsPassedThrough() throws IOException {
+        final byte[] bytes = JSON.getBytes(StandardCharsets.UTF_8);
+        try (ResponseContentStream content = new ResponseContentStream(new ByteArrayInputStream(bytes), null)) {
+            assertEquals(JSON, IOUtils.toString(content, StandardCharsets.UTF_8));
+            assertFalse(content.isInflated());
+            assertEquals(bytes.length, content.getEncodedByteCount());
+            assertEquals(bytes.length, content.getDecodedByteCount());
+        }
+    }
+
+    private void assertInflated(final byte[] compressed, final String contentEncoding) throws IOException {
+        try (ResponseContentStream content = new ResponseContentStream(new ByteArrayInputStream(compressed), contentEncoding)) {
+            assertEquals(JSON, IOUtils.toString(content, StandardCharsets.UTF_8));
+            assertTrue(content.isInflated());
+            assertEquals(compressed.length, content.getEncodedByteCount());
+            assertEquals(JSON.getBytes(StandardCharsets.UTF_8).length, content.getDecodedByteCount());
+            assertTrue(content.getEncodedByteCount() < content.getDecodedByteCount());
+        }
+    }
+
+    private byte[] deflate(final boolean raw) throws IOException {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(compressed, new Deflater(Deflater.DEFAULT_COMPRESSION, raw))) {
+            deflater.write(JSON.getBytes(StandardCharsets.UTF_8));
+        }
+        return compressed.toByteArray();
+    }
+
+    private static String createJson() {
+        final StringBuilder json = new StringBuilder("{\"totalCount\":500,\"items\":[");
+        for (int i = 0; i < 500; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"name\":\"project ").append(i).append("\",\"description\":\"caf\u00e9\"}");
+        }
+        return json.append("]}").toString();
+    }
+
+}
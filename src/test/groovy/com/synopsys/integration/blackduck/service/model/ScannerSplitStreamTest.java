@@ -0,0 +1,51 @@
+package com.synopsys.integration.blackduck.service.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.synopsys.integration.log.IntBufferedLogger;
+
+public class ScannerSplitStreamTest {
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+    @Test
+    public void testLinesSplitAcrossWrites() throws IOException {
+        final String cliOutput = "INFO: Scanning caf\u00e9\r\nDEBUG: skipped\nERROR: first line\n  second line\rWARN: done\nDEBUG: not logged\n";
+        final byte[] bytes = cliOutput.getBytes(StandardCharsets.UTF_8);
+        final ByteArrayOutputStream rawOutput = new ByteArrayOutputStream();
+        final ScannerSplitStream splitStream = new ScannerSplitStream(new IntBufferedLogger(), rawOutput);
+        // one byte at a time splits every line and the two bytes of the e acute
+        for (final byte b : bytes) {
+            splitStream.write(new byte[] { b }, 0, 1);
+        }
+        splitStream.flush();
+
+        assertArrayEquals(bytes, rawOutput.toByteArray());
+        final String expected = "INFO: Scanning caf\u00e9" + LINE_SEPARATOR + "ERROR: first line" + LINE_SEPARATOR + "  second line" + LINE_SEPARATOR + "WARN: done" + LINE_SEPARATOR;
+        assertEquals(expected, splitStream.getOutput());
+    }
+
+    @Test
+    public void testRetainedOutputIsBounded() throws IOException {
+        final ScannerSplitStream splitStream = new ScannerSplitStream(new IntBufferedLogger(), new ByteArrayOutputStream(), 2, 12);
+        assertFalse(splitStream.hasOutput());
+        final StringBuilder cliOutput = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            cliOutput.append("INFO: line ").append(i).append(" with a long tail\n");
+        }
+        splitStream.write(cliOutput.toString().getBytes(StandardCharsets.UTF_8));
+        splitStream.flush();
+
+        assertTrue(splitStream.hasOutput());
+        assertEquals("INFO: line 9" + LINE_SEPARATOR + "INFO: line 9" + LINE_SEPARATOR, splitStream.getOutput());
+    }
+
+}
@@ -0,0 +1,130 @@
+package com.synopsys.integration.blackduck.service.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.synopsys.integration.exception.IntegrationException;
+import com.synopsys.integration.rest.exception.IntegrationRestException;
+
+public class SingleFlightTest {
+    @Test
+    public void testConcurrentLoadsAreCoalesced() throws Exception {
+        final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        final AtomicInteger loadCount = new AtomicInteger();
+        final CountDownLatch loadStarted = new CountDownLatch(1);
+        final CountDownLatch releaseLoad = new CountDownLatch(1);
+        final ExecutorService executorService = Executors.newFixedThreadPool(5);
+        try {
+            final List<Future<String>> futures = new ArrayList<>();
+            futures.add(executorService.submit(() -> singleFlight.execute("uri", () -> {
+                loadCount.incrementAndGet();
+                loadStarted.countDown();
+                await(releaseLoad);
+                return "json";
+            })));
+            loadStarted.await(10, TimeUnit.SECONDS);
+            for (int i = 0; i < 4; i++) {
+                futures.add(executorService.submit(() -> singleFlight.execute("uri", () -> {
+                    loadCount.incrementAndGet();
+                    return "other";
+                })));
+            }
+            while (singleFlight.getCoalescedCount() < 4) {
+                Thread.sleep(5);
+            }
+            releaseLoad.countDown();
+
+            for (final Future<String> future : futures) {
+                assertEquals("json", future.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loadCount.get());
+            assertEquals(0, singleFlight.getInFlightCount());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testExceptionIsSharedAndNotRemembered() throws Exception {
+        final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        final IntegrationException failure = new IntegrationException("failed");
+        try {
+            singleFlight.execute("uri", () -> {
+                throw failure;
+            });
+            fail("Should have thrown the IntegrationException");
+        } catch (final IntegrationException e) {
+            assertSame(failure, e);
+        }
+
+        assertEquals("json", singleFlight.execute("uri", () -> "json"));
+        assertEquals(2, singleFlight.getLoadCount());
+    }
+
+    @Test
+    public void testEveryWaiterGetsItsOwnException() throws Exception {
+        final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        final IntegrationRestException failure = new IntegrationRestException(503, "Service Unavailable", "", "unavailable");
+        final CountDownLatch loadStarted = new CountDownLatch(1);
+        final CountDownLatch releaseLoad = new CountDownLatch(1);
+        final ExecutorService executorService = Executors.newFixedThreadPool(3);
+        try {
+            final Future<String> loader = executorService.submit(() -> singleFlight.execute("uri", () -> {
+                loadStarted.countDown();
+                await(releaseLoad);
+                throw failure;
+            }));
+            loadStarted.await(10, TimeUnit.SECONDS);
+            final List<Future<String>> waiters = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                waiters.add(executorService.submit(() -> singleFlight.execute("uri", () -> "other")));
+            }
+            while (singleFlight.getCoalescedCount() < 2) {
+                Thread.sleep(5);
+            }
+            releaseLoad.countDown();
+
+            assertSame(failure, getCause(loader));
+            final Throwable first = getCause(waiters.get(0));
+            final Throwable second = getCause(waiters.get(1));
+            assertNotSame(first, second);
+            assertNotSame(failure, first);
+            assertSame(failure, first.getCause());
+            assertEquals(503, ((IntegrationRestException) first).getHttpStatusCode());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private static Throwable getCause(final Future<String> future) throws Exception {
+        try {
+            future.get(10, TimeUnit.SECONDS);
+        } catch (final ExecutionException e) {
+            return e.getCause();
+        }
+        throw new AssertionError("Expected the load to fail");
+    }
+
+    private static void await(final CountDownLatch latch) throws IntegrationException {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            throw new IntegrationException(e);
+        }
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.synopsys.integration.blackduck.service.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.synopsys.integration.log.IntBufferedLogger;
+
+public class StreamRedirectThreadTest {
+    @Test
+    public void testOutputLongerThanTheBufferIsCopiedAndSplit() throws IOException, InterruptedException {
+        final StringBuilder cliOutput = new StringBuilder();
+        final List<String> expectedLines = new ArrayList<>();
+        for (int i = 0; cliOutput.length() <= 4 * StreamRedirectThread.BUFFER_SIZE; i++) {
+            final String line = "INFO: line " + i + " of the caf\u00e9 scan";
+            expectedLines.add(line);
+            cliOutput.append(line).append('\n');
+        }
+        final byte[] bytes = cliOutput.toString().getBytes(StandardCharsets.UTF_8);
+        final ByteArrayOutputStream fileOutput = new ByteArrayOutputStream();
+        final List<String> lines = new ArrayList<>();
+        final ScannerSplitStream splitStream = new ScannerSplitStream(new IntBufferedLogger(), fileOutput, lines::add);
+
+        final StreamRedirectThread redirectThread = new StreamRedirectThread(new ByteArrayInputStream(bytes), splitStream);
+        redirectThread.start();
+        redirectThread.join();
+        splitStream.flush();
+
+        assertTrue(bytes.length > StreamRedirectThread.BUFFER_SIZE);
+        assertArrayEquals(bytes, fileOutput.toByteArray());
+        assertEquals(expectedLines, lines);
+    }
+
+}
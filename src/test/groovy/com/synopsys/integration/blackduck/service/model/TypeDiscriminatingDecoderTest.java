@@ -0,0 +1,53 @@
+package com.synopsys.integration.blackduck.service.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+
+public class TypeDiscriminatingDecoderTest {
+    @Test
+    public void testReadDiscriminator() {
+        assertEquals("RULE_VIOLATION", TypeDiscriminatingDecoder.readDiscriminator("{\"contentType\":\"x\",\"type\" : \"RULE_VIOLATION\"}", "type"));
+        assertEquals("VULNERABILITY", TypeDiscriminatingDecoder.readDiscriminator("{\"content\":{\"type\":\"nested\",\"list\":[\"type\"]},\"type\":\"VULNERABILITY\"}", "type"));
+        assertEquals("a\"b", TypeDiscriminatingDecoder.readDiscriminator("{\"name\":\"\\\"type\\\"\",\"type\":\"a\\\"b\"}", "type"));
+        assertNull(TypeDiscriminatingDecoder.readDiscriminator("{\"name\":\"type\",\"content\":{\"type\":\"nested\"}}", "type"));
+        assertNull(TypeDiscriminatingDecoder.readDiscriminator("{\"types\":\"x\",\"type\":5}", "type"));
+        assertNull(TypeDiscriminatingDecoder.readDiscriminator("[\"type\"]", "type"));
+    }
+
+    @Test
+    public void testDecodesIntoTheMappedClass() throws Exception {
+        final Gson gson = new Gson();
+        final Map<String, Class<? extends Animal>> typeMap = new HashMap<>();
+        typeMap.put("DOG", Dog.class);
+        final TypeDiscriminatingDecoder<Animal> decoder = new TypeDiscriminatingDecoder<>(gson, Animal.class, typeMap);
+
+        final String dogJson = "{\"name\":\"rex\",\"type\":\"DOG\",\"barks\":true}";
+        final Animal dog = decoder.getTypeAdapter(dogJson).fromJson(dogJson);
+        assertSame(Dog.class, dog.getClass());
+        assertEquals("rex", dog.name);
+        assertEquals(true, ((Dog) dog).barks);
+
+        final String catJson = "{\"name\":\"tom\",\"type\":\"CAT\"}";
+        assertSame(Animal.class, decoder.getTypeAdapter(catJson).fromJson(catJson).getClass());
+        assertSame(Dog.class, decoder.getTypeAdapter(new JsonParser().parse(dogJson)).fromJsonTree(new JsonParser().parse(dogJson)).getClass());
+    }
+
+    public static class Animal {
+        public String name;
+        public String type;
+    }
+
+    public static class Dog extends Animal {
+        public boolean barks;
+    }
+
+}
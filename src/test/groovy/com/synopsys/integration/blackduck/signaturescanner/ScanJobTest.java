@@ -0,0 +1,83 @@
+package com.synopsys.integration.blackduck.signaturescanner;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.synopsys.integration.blackduck.signaturescanner.command.ScanCommand;
+import com.synopsys.integration.blackduck.signaturescanner.command.ScanTarget;
+
+public class ScanJobTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testALargeTargetIsScannedByACommandPerPartition() throws Exception {
+        final File target = temporaryFolder.newFolder("target");
+        createFile(target, "README.md", 1000);
+        createFile(target, "api/Api.java", 400000);
+        createFile(target, "web/Web.java", 400000);
+        final File smallTarget = temporaryFolder.newFolder("small");
+        createFile(smallTarget, "Small.java", 1000);
+        final File outputDirectory = temporaryFolder.newFolder("output");
+
+        final ScanJobBuilder builder = new ScanJobBuilder();
+        builder.dryRun(true);
+        builder.installDirectory(temporaryFolder.newFolder("install"));
+        builder.outputDirectory(outputDirectory);
+        builder.splitTargets(true).maxTargetPartitions(4).minimumTargetBytesToSplit(0L);
+        builder.addTarget(new ScanTarget.Builder(target.getPath()).codeLocationName("project").outputDirectoryPath("large").build());
+        builder.addTarget(new ScanTarget.Builder(smallTarget.getPath()).codeLocationName("small project").outputDirectoryPath("small").build());
+
+        final List<ScanCommand> scanCommands = builder.build().createScanCommands(null, null);
+
+        assertEquals(4, scanCommands.size());
+        final Map<String, ScanCommand> scanCommandsByName = new HashMap<>();
+        for (final ScanCommand scanCommand : scanCommands) {
+            scanCommandsByName.put(scanCommand.getName(), scanCommand);
+        }
+        // the partition of the target directory itself keeps the name of the target
+        assertEquals(new HashSet<>(Arrays.asList("project", "project/api", "project/web", "small project")), scanCommandsByName.keySet());
+        assertEquals(new File(target, "api").getPath(), scanCommandsByName.get("project/api").getTargetPath());
+        assertEquals(target.getPath(), scanCommandsByName.get("project").getTargetPath());
+
+        final File largeOutputDirectory = new File(outputDirectory, "large");
+        final Set<File> partitionOutputDirectories = new HashSet<>();
+        for (final String name : Arrays.asList("project", "project/api", "project/web")) {
+            final File partitionOutputDirectory = scanCommandsByName.get(name).getOutputDirectory();
+            assertEquals(largeOutputDirectory, partitionOutputDirectory.getParentFile());
+            partitionOutputDirectories.add(partitionOutputDirectory);
+        }
+        final Set<File> expectedOutputDirectories = new HashSet<>();
+        for (int partitionIndex = 0; partitionIndex < 3; partitionIndex++) {
+            expectedOutputDirectories.add(new File(largeOutputDirectory, ScanJob.PARTITION_OUTPUT_DIRECTORY_PREFIX + partitionIndex));
+        }
+        assertEquals(expectedOutputDirectories, partitionOutputDirectories);
+
+        // a target with a single partition is scanned as it was given
+        final ScanCommand smallScanCommand = scanCommandsByName.get("small project");
+        assertEquals(smallTarget.getPath(), smallScanCommand.getTargetPath());
+        assertEquals(new File(outputDirectory, "small"), smallScanCommand.getOutputDirectory());
+    }
+
+    private void createFile(final File target, final String relativePath, final int size) throws IOException {
+        final File file = new File(target, relativePath);
+        file.getParentFile().mkdirs();
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(size);
+        }
+    }
+
+}
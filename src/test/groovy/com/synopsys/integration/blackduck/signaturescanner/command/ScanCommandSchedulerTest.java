@@ -0,0 +1,88 @@
+package com.synopsys.integration.blackduck.signaturescanner.command;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.synopsys.integration.log.IntBufferedLogger;
+import com.synopsys.integration.rest.proxy.ProxyInfo;
+
+public class ScanCommandSchedulerTest {
+    @Test
+    public void testScansStayWithinTheMemoryBudget() throws Exception {
+        final AtomicInteger memoryInUse = new AtomicInteger();
+        final AtomicInteger maxMemoryInUse = new AtomicInteger();
+        final ConcurrentLinkedQueue<String> startOrder = new ConcurrentLinkedQueue<>();
+        final List<ScanCommandCallable> callables = new ArrayList<>();
+        final int[] heaps = { 1024, 4096, 2048, 4096, 1024, 2048 };
+        for (int i = 0; i < heaps.length; i++) {
+            callables.add(new SleepingScanCommandCallable(createScanCommand("target" + i, heaps[i]), memoryInUse, maxMemoryInUse, startOrder));
+        }
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(heaps.length);
+        try {
+            final ScanResourceBudget budget = new ScanResourceBudget(6144, 4, 0);
+            final List<ScanCommandOutput> outputs = new ScanCommandScheduler(new IntBufferedLogger(), executorService, budget).execute(callables);
+
+            assertEquals(heaps.length, outputs.size());
+            for (int i = 0; i < heaps.length; i++) {
+                assertEquals("target" + i, outputs.get(i).getScanTarget());
+            }
+            assertTrue(maxMemoryInUse.get() <= 6144);
+            // largest first
+            assertEquals("target1", startOrder.peek());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testScanLargerThanTheBudgetStillRuns() {
+        final ScanResourceBudget budget = new ScanResourceBudget(2048, 2);
+        assertEquals(2048, budget.getMemoryDemandInMegabytes(createScanCommand("target", 8192)));
+        assertEquals(1024 + ScanResourceBudget.DEFAULT_SCAN_OVERHEAD_IN_MEGABYTES, budget.getMemoryDemandInMegabytes(createScanCommand("target", 1024)));
+    }
+
+    private ScanCommand createScanCommand(final String targetPath, final int scanMemoryInMegabytes) {
+        return new ScanCommand(new File("install"), new File("output"), true, false, ProxyInfo.NO_PROXY_INFO, null, scanMemoryInMegabytes, "https", "hub.example.com", "token", null, null, 443, false, targetPath, false, false,
+                false, Collections.emptySet(), null, targetPath, false, false, "project", "version");
+    }
+
+    private static class SleepingScanCommandCallable extends ScanCommandCallable {
+        private final AtomicInteger memoryInUse;
+        private final AtomicInteger maxMemoryInUse;
+        private final ConcurrentLinkedQueue<String> startOrder;
+
+        public SleepingScanCommandCallable(final ScanCommand scanCommand, final AtomicInteger memoryInUse, final AtomicInteger maxMemoryInUse, final ConcurrentLinkedQueue<String> startOrder) {
+            super(new IntBufferedLogger(), null, null, scanCommand, false);
+            this.memoryInUse = memoryInUse;
+            this.maxMemoryInUse = maxMemoryInUse;
+            this.startOrder = startOrder;
+        }
+
+        @Override
+        public ScanCommandOutput call() {
+            startOrder.add(getScanCommand().getTargetPath());
+            final int inUse = memoryInUse.addAndGet(getScanCommand().getScanMemoryInMegabytes());
+            maxMemoryInUse.accumulateAndGet(inUse, Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            memoryInUse.addAndGet(-getScanCommand().getScanMemoryInMegabytes());
+            return ScanCommandOutput.SUCCESS(new IntBufferedLogger(), getScanCommand());
+        }
+    }
+
+}
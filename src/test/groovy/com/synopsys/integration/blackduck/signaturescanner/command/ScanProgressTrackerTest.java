@@ -0,0 +1,101 @@
+package com.synopsys.integration.blackduck.signaturescanner.command;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.synopsys.integration.log.IntBufferedLogger;
+import com.synopsys.integration.rest.proxy.ProxyInfo;
+
+public class ScanProgressTrackerTest {
+    @Test
+    public void testCliOutputBecomesEvents() {
+        final List<ScanProgressEvent> events = new ArrayList<>();
+        final ScanCommand scanCommand = createScanCommand("/tmp/target");
+        final ScanProgressTracker tracker = new ScanProgressTracker(new IntBufferedLogger(), scanCommand, Collections.singletonList(events::add));
+
+        tracker.scanStarted();
+        tracker.accept("INFO: Starting the scan...");
+        tracker.accept("INFO: Scanned 1,200 files");
+        tracker.accept("INFO: Total bytes processed: 50000");
+        tracker.accept("   some continuation line");
+        tracker.accept("INFO: Uploading scan, 40% complete");
+        tracker.accept("ERROR: Could not reach the server");
+        tracker.accept("INFO: Finished in 1500 ms");
+        tracker.scanFinished();
+
+        assertEquals(8, events.size());
+        assertEquals(ScanProgressEventType.SCAN_STARTED, events.get(0).getType());
+        assertEquals(ScanProgressEventType.PHASE_STARTED, events.get(1).getType());
+        assertEquals("scan", events.get(1).getPhase().get());
+        assertEquals(ScanProgressEventType.FILES_SCANNED, events.get(2).getType());
+        assertEquals(1200, events.get(2).getFilesScanned());
+        assertEquals(ScanProgressEventType.BYTES_PROCESSED, events.get(3).getType());
+        assertEquals(50000, events.get(3).getBytesProcessed());
+        assertEquals(ScanProgressEventType.UPLOAD_PROGRESS, events.get(4).getType());
+        assertEquals(40, events.get(4).getUploadPercent());
+        assertEquals(ScanProgressEventType.ERROR, events.get(5).getType());
+        assertEquals(ScanProgressEventType.PHASE_FINISHED, events.get(6).getType());
+        assertEquals(ScanProgressEventType.SCAN_FINISHED, events.get(7).getType());
+
+        // the totals are carried by every later event
+        final ScanProgressEvent lastEvent = events.get(7);
+        assertEquals("/tmp/target", lastEvent.getTargetPath());
+        assertEquals(1200, lastEvent.getFilesScanned());
+        assertEquals(50000, lastEvent.getBytesProcessed());
+        assertFalse(events.get(0).estimateRemainingMillis(100000).isPresent());
+    }
+
+    @Test
+    public void testEstimateRemainingMillis() {
+        final ScanProgressEvent event = new ScanProgressEvent(createScanCommand("/tmp/target"), ScanProgressEventType.BYTES_PROCESSED, "", null, 0L, 2000L, 10L, 1000L, ScanProgressEvent.UNKNOWN_UPLOAD_PERCENT);
+        assertEquals(500.0, event.getBytesPerSecond(), 0.001);
+        assertEquals(5.0, event.getFilesPerSecond(), 0.001);
+        assertTrue(event.estimateRemainingMillis(4000L).isPresent());
+        assertEquals(6000L, event.estimateRemainingMillis(4000L).get().longValue());
+    }
+
+    @Test
+    public void testFailingListenerDoesNotStopTheOthers() {
+        final List<ScanProgressEvent> events = new ArrayList<>();
+        final List<ScanProgressListener> listeners = new ArrayList<>();
+        listeners.add(event -> {
+            throw new IllegalStateException("broken listener");
+        });
+        listeners.add(events::add);
+        final ScanProgressTracker tracker = new ScanProgressTracker(new IntBufferedLogger(), createScanCommand("/tmp/target"), listeners);
+
+        tracker.accept("INFO: 10 files scanned");
+        assertEquals(1, events.size());
+        assertEquals(10, events.get(0).getFilesScanned());
+    }
+
+    @Test
+    public void testOnlyProgressWordingCountsBytes() {
+        final List<ScanProgressEvent> events = new ArrayList<>();
+        final ScanProgressTracker tracker = new ScanProgressTracker(new IntBufferedLogger(), createScanCommand("/tmp/target"), Collections.singletonList(events::add));
+
+        tracker.accept("INFO: Signature buffer set to 4096 bytes");
+        tracker.accept("INFO: Skipping archive larger than 1,000,000 bytes");
+        assertTrue(events.isEmpty());
+
+        tracker.accept("INFO: 2,048 bytes scanned");
+        tracker.accept("INFO: Read 4096 bytes");
+        assertEquals(2, events.size());
+        assertEquals(2048, events.get(0).getBytesProcessed());
+        assertEquals(4096, events.get(1).getBytesProcessed());
+    }
+
+    private ScanCommand createScanCommand(final String targetPath) {
+        return new ScanCommand(new File("install"), new File("output"), true, false, ProxyInfo.NO_PROXY_INFO, null, 4096, "https", "hub.example.com", "token", null, null, 443, false, "codeLocation", false, false, false,
+                Collections.emptySet(), null, targetPath, false, false, "project", "version");
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.synopsys.integration.blackduck.signaturescanner.command;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class ScanResourceBudgetTest {
+    @Test
+    public void testBudgetIsAFractionOfTheAvailableMemory() {
+        final ScanResourceBudget budget = ScanResourceBudget.fromAvailableMemory(10000, 0.8, 4);
+
+        assertEquals(8000, budget.getMemoryBudgetInMegabytes());
+        assertEquals(4, budget.getMaxConcurrentScans());
+    }
+
+    @Test
+    public void testAlmostNoAvailableMemoryStillMakesABudget() {
+        assertEquals(1, ScanResourceBudget.fromAvailableMemory(1, 0.8, 4).getMemoryBudgetInMegabytes());
+        assertEquals(1, ScanResourceBudget.fromAvailableMemory(0, 0.8, 4).getMemoryBudgetInMegabytes());
+    }
+
+    @Test
+    public void testUnknownMemoryOnlyLimitsTheScans() {
+        final ScanResourceBudget budget = ScanResourceBudget.fromAvailableMemory(ScanResourceBudget.UNKNOWN_MEMORY, 0.8, 2);
+
+        assertEquals(Long.MAX_VALUE, budget.getMemoryBudgetInMegabytes());
+        assertEquals(2, budget.getMaxConcurrentScans());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFractionMustBePositive() {
+        ScanResourceBudget.fromAvailableMemory(10000, 0, 4);
+    }
+
+}
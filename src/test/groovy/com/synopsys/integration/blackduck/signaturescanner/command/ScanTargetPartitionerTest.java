@@ -0,0 +1,78 @@
+package com.synopsys.integration.blackduck.signaturescanner.command;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ScanTargetPartitionerTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testTargetIsSplitIntoBalancedPartitions() throws IOException {
+        final File target = temporaryFolder.getRoot();
+        createFile(target, "README.md", 1000);
+        createFile(target, "services/api/Api.java", 400000);
+        createFile(target, "services/api/node_modules/lib.js", 900000);
+        createFile(target, "services/web/Web.java", 300000);
+        createFile(target, "libs/Util.java", 350000);
+
+        final ScanTargetPartitioner partitioner = new ScanTargetPartitioner(4, 0L);
+        final List<ScanTargetPartition> partitions = partitioner.partition(target, Collections.singleton("/services/api/node_modules/"));
+
+        final Map<String, ScanTargetPartition> partitionsByPath = new HashMap<>();
+        long fileCount = 0;
+        for (final ScanTargetPartition partition : partitions) {
+            partitionsByPath.put(partition.getRelativePath(), partition);
+            fileCount += partition.getFileCount();
+        }
+        // every file except the excluded one is scanned exactly once
+        assertEquals(4, fileCount);
+        assertEquals(4, partitions.size());
+        assertTrue(partitionsByPath.containsKey("/services/api/"));
+        // what is left of services once api is split off is its own partition
+        assertTrue(partitionsByPath.containsKey("/services/"));
+        assertTrue(partitionsByPath.get("/services/").getExclusionPatterns().contains("/api/"));
+        assertTrue(partitionsByPath.containsKey("/libs/"));
+        assertTrue(partitionsByPath.containsKey("/"));
+
+        // the excluded directory stays excluded, relative to the partition it is in
+        assertTrue(partitionsByPath.get("/services/api/").getExclusionPatterns().contains("/node_modules/"));
+        // the target itself excludes what was split off
+        assertTrue(partitionsByPath.get("/").getExclusionPatterns().contains("/libs/"));
+        assertTrue(partitionsByPath.get("/").getExclusionPatterns().contains("/services/"));
+        assertEquals(1, partitionsByPath.get("/").getFileCount());
+    }
+
+    @Test
+    public void testSmallTargetIsNotSplit() throws IOException {
+        final File target = temporaryFolder.getRoot();
+        createFile(target, "a/A.java", 1000);
+        createFile(target, "b/B.java", 1000);
+
+        final List<ScanTargetPartition> partitions = new ScanTargetPartitioner(4).partition(target, null);
+        assertEquals(1, partitions.size());
+        assertEquals("/", partitions.get(0).getRelativePath());
+        assertEquals(2, partitions.get(0).getFileCount());
+    }
+
+    private void createFile(final File target, final String relativePath, final int size) throws IOException {
+        final File file = new File(target, relativePath);
+        file.getParentFile().mkdirs();
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(size);
+        }
+    }
+
+}